@@ -18,7 +18,14 @@ package uk.co.blackpepper.bowman;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import org.reactivestreams.Publisher;
+import org.springframework.hateoas.PagedResources;
+import org.springframework.hateoas.PagedResources.PageMetadata;
 import org.springframework.hateoas.Resource;
 import org.springframework.hateoas.Resources;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -35,7 +42,8 @@ import static uk.co.blackpepper.bowman.ReflectionSupport.setId;
  * <p>Entities can contain simple (directly mappable to JSON) properties, and inline or
  * linked associations to further objects.
  * 
- * <p><code>Client</code>s are created via {@link ClientFactory#create}.
+ * <p><code>Client</code>s are created via {@link ClientFactory#create}, or via {@link ClientSession#create} to
+ * share a single instance of each entity between the clients of a session.
  *
  * @param <T> the entity type for this client
  * 
@@ -52,12 +60,21 @@ public class Client<T> {
 
 	private final RestOperations restOperations;
 
+	private final FetchPlanResolver fetchPlanResolver;
+
 	Client(Class<T> entityType, Configuration configuration, RestOperations restOperations,
 			ClientProxyFactory proxyFactory) {
+		this(entityType, configuration, restOperations, proxyFactory,
+			new FetchPlanResolver(restOperations.getExecutor()));
+	}
+
+	Client(Class<T> entityType, Configuration configuration, RestOperations restOperations,
+			ClientProxyFactory proxyFactory, FetchPlanResolver fetchPlanResolver) {
 		this.entityType = entityType;
 		this.baseUri = configuration.getBaseUri();
 		this.proxyFactory = proxyFactory;
 		this.restOperations = restOperations;
+		this.fetchPlanResolver = fetchPlanResolver;
 	}
 	
 	/**
@@ -67,6 +84,12 @@ public class Client<T> {
 	 * @return the entity, or null if not found
 	 */
 	public T get(URI uri) {
+		T proxy = proxyFactory.find(uri, entityType);
+		
+		if (proxy != null) {
+			return proxy;
+		}
+		
 		Resource<T> resource = restOperations.getResource(uri, entityType);
 		
 		if (resource == null) {
@@ -76,6 +99,52 @@ public class Client<T> {
 		return proxyFactory.create(resource, restOperations);
 	}
 
+	/**
+	 * GET a single entity located at the given URI, eagerly loading the linked associations named by the
+	 * given fetch plan.
+	 * 
+	 * @param uri the URI from which to retrieve the entity
+	 * @param fetchPlan the linked associations to load
+	 * @return the entity, or null if not found
+	 */
+	public T get(URI uri, FetchPlan fetchPlan) {
+		T result = get(uri);
+		
+		if (result != null) {
+			fetchPlanResolver.resolve(result, fetchPlan);
+		}
+		
+		return result;
+	}
+
+	/**
+	 * Eagerly load the linked associations named by the given fetch plan on an entity already retrieved by a
+	 * client.
+	 * 
+	 * @param entity the entity
+	 * @param fetchPlan the linked associations to load
+	 * @return the entity
+	 */
+	public T load(T entity, FetchPlan fetchPlan) {
+		fetchPlanResolver.resolve(entity, fetchPlan);
+		
+		return entity;
+	}
+
+	/**
+	 * Get a reference to the entity located at the given URI, without retrieving it.
+	 * 
+	 * <p>The returned entity answers its {@link uk.co.blackpepper.bowman.annotation.ResourceId} accessor
+	 * immediately and is retrieved on first access to any other property. This allows associations to be
+	 * set on entities to be submitted without retrieving the associated entities.
+	 * 
+	 * @param uri the URI of the entity
+	 * @return the unloaded entity
+	 */
+	public T getReference(URI uri) {
+		return proxyFactory.create(uri, entityType, restOperations);
+	}
+
 	/**
 	 * GET all the entities at the entity's collection resource (determined by the class's
 	 * {@link uk.co.blackpepper.bowman.annotation.RemoteResource} annotation). 
@@ -85,6 +154,17 @@ public class Client<T> {
 	public Iterable<T> getAll() {
 		return getAll(getEntityBaseUri());
 	}
+
+	/**
+	 * GET all the entities at the entity's collection resource, eagerly loading the linked associations
+	 * named by the given fetch plan.
+	 * 
+	 * @param fetchPlan the linked associations to load
+	 * @return the entities retrieved
+	 */
+	public Iterable<T> getAll(FetchPlan fetchPlan) {
+		return getAll(getEntityBaseUri(), fetchPlan);
+	}
 	
 	/**
 	 * GET all the entities at the given URI.
@@ -93,17 +173,187 @@ public class Client<T> {
 	 * @return the entities retrieved
 	 */
 	public Iterable<T> getAll(URI uri) {
-		List<T> result = new ArrayList<>();
-
-		Resources<Resource<T>> resources = restOperations.getResources(uri, entityType);
-
-		for (Resource<T> resource : resources) {
-			result.add(proxyFactory.create(resource, restOperations));
-		}
-
+		return createProxies(restOperations.getResources(uri, entityType));
+	}
+	
+	/**
+	 * GET all the entities at the given URI, eagerly loading the linked associations named by the given
+	 * fetch plan.
+	 * 
+	 * @param uri the URI from which to retrieve the entities
+	 * @param fetchPlan the linked associations to load
+	 * @return the entities retrieved
+	 */
+	public Iterable<T> getAll(URI uri, FetchPlan fetchPlan) {
+		Iterable<T> result = getAll(uri);
+		
+		fetchPlanResolver.resolveAll(result, fetchPlan);
+		
 		return result;
 	}
 	
+	/**
+	 * GET all the entities at the entity's collection resource as a stream, reading each entity from the
+	 * response as the stream is consumed.
+	 * 
+	 * @return the entities retrieved
+	 * @see #stream(URI)
+	 */
+	public Stream<T> stream() {
+		return stream(getEntityBaseUri());
+	}
+	
+	/**
+	 * GET all the entities at the given URI as a stream, reading each entity from the response as the stream
+	 * is consumed, so that the collection need not be held in memory.
+	 * 
+	 * <p>The response remains open until the stream has been consumed, so a stream that may not be consumed
+	 * to the end should be closed, for example with a try-with-resources statement. Unlike {@link #getAll(URI)},
+	 * the entities' linked resources are not loaded together.
+	 * 
+	 * @param uri the URI from which to retrieve the entities
+	 * @return the entities retrieved
+	 */
+	public Stream<T> stream(URI uri) {
+		return restOperations.streamResources(uri, entityType)
+			.map(resource -> proxyFactory.create(resource, restOperations));
+	}
+	
+	/**
+	 * GET all the entities at the entity's paginated collection resource as a stream, following the pages'
+	 * <code>next</code> links as the stream is consumed.
+	 * 
+	 * @param paging the page size, sort and prefetch options
+	 * @return the entities retrieved
+	 * @see #stream(URI, Paging)
+	 */
+	public Stream<T> stream(Paging paging) {
+		return stream(getEntityBaseUri(), paging);
+	}
+	
+	/**
+	 * GET all the entities at the given paginated collection resource as a stream, following the pages'
+	 * <code>next</code> links as the stream is consumed.
+	 * 
+	 * <p>While a page is being read, the pages after it are retrieved in the background up to the prefetch
+	 * depth of the given paging options, so that the stream need not wait for each page in turn. The
+	 * entities of each page load their linked resources together, as for {@link #getAll(URI)}. A stream
+	 * that may not be consumed to the end should be closed to stop further pages being retrieved.
+	 * 
+	 * @param uri the URI of the collection resource
+	 * @param paging the page size, sort and prefetch options
+	 * @return the entities retrieved
+	 */
+	public Stream<T> stream(URI uri, Paging paging) {
+		PageIterator<T> pages = new PageIterator<>(paging.getFirstPageUri(uri),
+			pageUri -> restOperations.getResources(pageUri, entityType), restOperations.getExecutor(),
+			paging.getPrefetch());
+		
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages, Spliterator.ORDERED), false)
+			.onClose(pages::close)
+			.flatMap(page -> createProxies(page).stream());
+	}
+	
+	/**
+	 * GET all the entities at the entity's paginated collection resource as a parallel stream, retrieving
+	 * the pages concurrently and in no particular order.
+	 * 
+	 * @param parallelism the maximum number of pages to retrieve ahead of being consumed
+	 * @return the entities retrieved
+	 * @see #scan(URI, Paging, int, boolean)
+	 */
+	public Stream<T> scan(int parallelism) {
+		return scan(getEntityBaseUri(), Paging.builder().build(), parallelism, false);
+	}
+	
+	/**
+	 * GET all the entities at the given paginated collection resource as a parallel stream, retrieving the
+	 * pages concurrently.
+	 * 
+	 * <p>The first page is retrieved immediately, and its page metadata determines the remaining pages, which
+	 * are then retrieved in the background up to the given parallelism ahead of being consumed. The stream's
+	 * spliterator splits by page, so the pages are processed in parallel by the stream's fork-join pool. The
+	 * prefetch option of the given paging options is not used.
+	 * 
+	 * @param uri the URI of the collection resource
+	 * @param paging the page size and sort options
+	 * @param parallelism the maximum number of pages to retrieve ahead of being consumed
+	 * @param ordered whether the stream keeps the collection's order, otherwise each split returns its pages
+	 * as they arrive
+	 * @return the entities retrieved
+	 */
+	public Stream<T> scan(URI uri, Paging paging, int parallelism, boolean ordered) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be positive");
+		}
+		
+		URI firstPageUri = paging.getFirstPageUri(uri);
+		PagedResources<Resource<T>> firstPage = restOperations.getPagedResources(firstPageUri, entityType);
+		PageMetadata metadata = firstPage.getMetadata();
+		int totalPages = metadata == null ? 1 : (int) Math.max(metadata.getTotalPages(), 1);
+		
+		PageSpliterator.Pages<Resources<Resource<T>>> pages = new PageSpliterator.Pages<>(firstPage, totalPages,
+			page -> restOperations.getPagedResources(getPageUri(firstPageUri, page, metadata), entityType),
+			restOperations.getExecutor(), parallelism);
+		
+		return StreamSupport.stream(new PageSpliterator<>(pages, ordered), true)
+			.onClose(pages::close)
+			.flatMap(page -> createProxies(page).stream());
+	}
+	
+	/**
+	 * GET all the entities at the entity's collection resource as a reactive streams <code>Publisher</code>.
+	 * 
+	 * @return a publisher of the entities
+	 * @see #publish(URI)
+	 */
+	public Publisher<T> publish() {
+		return publish(getEntityBaseUri());
+	}
+	
+	/**
+	 * GET all the entities at the given collection resource as a reactive streams <code>Publisher</code>,
+	 * reading each entity from the response only once a subscriber has requested it.
+	 * 
+	 * <p>If the collection is paginated, the pages' <code>next</code> links are followed only once the entities
+	 * of the current page have all been requested. Each subscription retrieves the collection afresh, and reads
+	 * and signals its entities on the configured executor. A subscription that is not read to the end should be
+	 * cancelled to release its connection.
+	 * 
+	 * @param uri the URI of the collection resource
+	 * @return a publisher of the entities
+	 */
+	public Publisher<T> publish(URI uri) {
+		return new ResourcePublisher<>(uri, pageUri -> restOperations.openResources(pageUri, entityType),
+			resource -> proxyFactory.create(resource, restOperations), restOperations.getExecutor());
+	}
+	
+	/**
+	 * GET all the entities at the entity's paginated collection resource as a reactive streams
+	 * <code>Publisher</code>.
+	 * 
+	 * @param paging the page size and sort options
+	 * @return a publisher of the entities
+	 * @see #publish(URI, Paging)
+	 */
+	public Publisher<T> publish(Paging paging) {
+		return publish(getEntityBaseUri(), paging);
+	}
+	
+	/**
+	 * GET all the entities at the given paginated collection resource as a reactive streams
+	 * <code>Publisher</code>, with the given page size and sort. The prefetch option does not apply, since pages
+	 * are retrieved only as entities are requested.
+	 * 
+	 * @param uri the URI of the collection resource
+	 * @param paging the page size and sort options
+	 * @return a publisher of the entities
+	 * @see #publish(URI)
+	 */
+	public Publisher<T> publish(URI uri, Paging paging) {
+		return publish(paging.getFirstPageUri(uri));
+	}
+	
 	/**
 	 * POST the given entity to the entity's collection resource.
 	 * 
@@ -136,6 +386,34 @@ public class Client<T> {
 	 */
 	public void delete(URI uri) {
 		restOperations.deleteResource(uri);
+		proxyFactory.forget(uri);
+	}
+
+	private List<T> createProxies(Resources<Resource<T>> resources) {
+		List<T> result = new ArrayList<>();
+		int batchLoadWindow = restOperations.getBatchLoadWindow();
+		LoadGroup loadGroup = batchLoadWindow > 0 ? new LoadGroup(restOperations.getExecutor(), batchLoadWindow)
+			: null;
+
+		for (Resource<T> resource : resources) {
+			T proxy = proxyFactory.create(resource, restOperations, loadGroup);
+
+			if (loadGroup != null) {
+				loadGroup.add(proxy);
+			}
+
+			result.add(proxy);
+		}
+
+		return result;
+	}
+
+	private static URI getPageUri(URI firstPageUri, int page, PageMetadata metadata) {
+		return UriComponentsBuilder.fromUri(firstPageUri)
+			.replaceQueryParam("page", page)
+			.replaceQueryParam("size", metadata.getSize())
+			.build()
+			.toUri();
 	}
 
 	private URI getEntityBaseUri() {
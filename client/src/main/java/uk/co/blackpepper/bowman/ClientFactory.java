@@ -15,31 +15,55 @@
  */
 package uk.co.blackpepper.bowman;
 
+import java.io.Closeable;
+
+import org.springframework.http.client.ClientHttpRequestFactory;
+
 /**
  * Factory class for creating {@link Client}s.
  * 
- * <p><code>ClientFactories</code> are created via {@link Configuration#buildClientFactory()}.
+ * <p><code>ClientFactories</code> are created via {@link Configuration#buildClientFactory()}. Unless a
+ * <code>ClientHttpRequestFactory</code> is configured, each owns a pool of HTTP connections that is released by
+ * {@link #close()}.
  *
  * @author Ryan Pickett
  * 
  */
-public class ClientFactory {
+public class ClientFactory implements Closeable {
 	
 	private final Configuration configuration;
 	
 	private final ClientProxyFactory proxyFactory;
 
+	private final ConnectionPool connectionPool;
+
 	private final RestOperations restOperations;
 
 	ClientFactory(Configuration configuration) {
-		this(configuration, new JavassistClientProxyFactory());
+		this(configuration, new GeneratedClientProxyFactory());
 	}
 	
 	ClientFactory(Configuration configuration, ClientProxyFactory proxyFactory) {
 		this.configuration = configuration;
 		
 		this.proxyFactory = proxyFactory;
-		this.restOperations = new RestOperationsFactory(configuration, proxyFactory).create();
+		
+		ClientHttpRequestFactory clientHttpRequestFactory = configuration.getClientHttpRequestFactory();
+		
+		if (clientHttpRequestFactory == null) {
+			connectionPool = new ConnectionPool(configuration);
+			clientHttpRequestFactory = connectionPool.getRequestFactory();
+			
+			if (configuration.getPrewarmConnections() > 0) {
+				connectionPool.prewarm(configuration.getBaseUri(), configuration.getPrewarmConnections());
+			}
+		}
+		else {
+			connectionPool = null;
+		}
+		
+		this.restOperations = new RestOperationsFactory(configuration, proxyFactory, clientHttpRequestFactory)
+			.create();
 	}
 
 	/**
@@ -52,4 +76,51 @@ public class ClientFactory {
 	public <T> Client<T> create(Class<T> entityType) {
 		return new Client<>(entityType, configuration, restOperations, proxyFactory);
 	}
+	
+	/**
+	 * Create a <code>ClientSession</code>, whose clients return a single instance of each entity.
+	 * 
+	 * @return the created session
+	 */
+	public ClientSession createSession() {
+		return new ClientSession(configuration, restOperations, proxyFactory);
+	}
+	
+	/**
+	 * Get the statistics of this factory's connection pool, for monitoring.
+	 * 
+	 * @return the numbers of leased, pending and available connections, or <code>null</code> if a
+	 * <code>ClientHttpRequestFactory</code> was configured in place of the pool
+	 */
+	public ConnectionPoolStats getConnectionPoolStats() {
+		return connectionPool != null ? connectionPool.getStats() : null;
+	}
+	
+	/**
+	 * Get the statistics of this factory's response cache, for monitoring.
+	 * 
+	 * @return the cache's hit, miss and revalidation counts, or <code>null</code> if the response cache is disabled
+	 * @see Configuration.Builder#setResponseCacheSize(long)
+	 */
+	public ResponseCacheStats getResponseCacheStats() {
+		ResponseCache responseCache = restOperations.getResponseCache();
+		return responseCache != null ? responseCache.getStats() : null;
+	}
+	
+	/**
+	 * Close this factory's pool of connections and write its disk cache, if any. Clients created by this factory
+	 * cannot be used afterwards, unless a <code>ClientHttpRequestFactory</code> was configured.
+	 */
+	@Override
+	public void close() {
+		if (connectionPool != null) {
+			connectionPool.close();
+		}
+		
+		ResponseCache responseCache = restOperations.getResponseCache();
+		
+		if (responseCache != null) {
+			responseCache.close();
+		}
+	}
 }
@@ -15,9 +15,37 @@
  */
 package uk.co.blackpepper.bowman;
 
+import java.net.URI;
+
 import org.springframework.hateoas.Resource;
 
 interface ClientProxyFactory {
 	
 	<T> T create(Resource<T> resource, RestOperations restOperations);
+	
+	<T> T create(Resource<T> resource, RestOperations restOperations, LoadGroup loadGroup);
+	
+	/**
+	 * Create a proxy whose linked resources are created by the given factory.
+	 */
+	<T> T create(Resource<T> resource, RestOperations restOperations, LoadGroup loadGroup,
+		ClientProxyFactory linkedProxyFactory);
+	
+	<T> T create(URI uri, Class<T> entityType, RestOperations restOperations);
+	
+	/**
+	 * Create an unloaded proxy whose linked resources are created by the given factory.
+	 */
+	<T> T create(URI uri, Class<T> entityType, RestOperations restOperations, ClientProxyFactory linkedProxyFactory);
+	
+	/**
+	 * Get the proxy this factory has already created for the given URI, or <code>null</code> if it does not track
+	 * the proxies it creates.
+	 */
+	<T> T find(URI uri, Class<T> entityType);
+	
+	/**
+	 * Stop tracking the proxy created for the given URI, if any, after its resource was deleted.
+	 */
+	void forget(URI uri);
 }
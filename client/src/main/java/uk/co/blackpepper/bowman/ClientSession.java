@@ -0,0 +1,64 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+/**
+ * A unit of work whose clients return a single instance of each entity.
+ * 
+ * <p>Entities retrieved through the session's clients, directly, as members of collections or as linked
+ * resources, are tracked by their URI. Retrieving a tracked entity again returns the same instance without a
+ * request, so navigating a bidirectional association back to an entity already loaded returns that entity rather
+ * than a copy. Linked resources whose links name the URI of a tracked entity are resolved without a request.
+ * Links to association resources, such as those of Spring Data REST, still require one request the first time
+ * they are followed, but resolve to the tracked instance.
+ * 
+ * <p>Tracked entities are not refreshed, so changes made by other clients are not seen until the session is
+ * cleared. The session holds every entity it has returned, so it should be short-lived, for example scoped to a
+ * single request or screen. <code>ClientSession</code>s are created via {@link ClientFactory#createSession}.
+ */
+public class ClientSession {
+	
+	private final Configuration configuration;
+	
+	private final RestOperations restOperations;
+	
+	private final SessionClientProxyFactory proxyFactory;
+	
+	ClientSession(Configuration configuration, RestOperations restOperations, ClientProxyFactory proxyFactory) {
+		this.configuration = configuration;
+		this.proxyFactory = new SessionClientProxyFactory(proxyFactory);
+		this.restOperations = restOperations.withProxyFactory(this.proxyFactory);
+	}
+	
+	/**
+	 * Create a <code>Client</code> for the given annotated entity type, sharing entities with the other clients of
+	 * this session.
+	 * 
+	 * @param <T> the entity type of the required client
+	 * @param entityType the entity type of the required client
+	 * @return the created client
+	 */
+	public <T> Client<T> create(Class<T> entityType) {
+		return new Client<>(entityType, configuration, restOperations, proxyFactory);
+	}
+	
+	/**
+	 * Stop tracking every entity returned by this session, so that they are retrieved again when next requested.
+	 */
+	public void clear() {
+		proxyFactory.clear();
+	}
+}
@@ -16,9 +16,14 @@
 package uk.co.blackpepper.bowman;
 
 import java.net.URI;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.http.client.ClientHttpRequestFactory;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 
 /**
  * Class encapsulating the user-provided configuration of a HAL {@link ClientFactory}.
@@ -42,7 +47,41 @@ public final class Configuration {
 		
 		private ObjectMapperConfigurer objectMapperConfigurer;
 
-		private ClientHttpRequestFactory clientHttpRequestFactory = new HttpComponentsClientHttpRequestFactory();
+		private ClientHttpRequestFactory clientHttpRequestFactory;
+		
+		private int maxConnections = 100;
+		
+		private int maxConnectionsPerRoute = 50;
+		
+		private int connectTimeout;
+		
+		private int readTimeout;
+		
+		private int connectionRequestTimeout;
+		
+		private long keepAlive;
+		
+		private long idleConnectionTimeout;
+		
+		private int prewarmConnections;
+		
+		private Executor executor;
+		
+		private int notFoundCacheSize;
+		
+		private long notFoundCacheTtl;
+		
+		private final Map<Class<?>, Long> notFoundCacheTtls = new HashMap<>();
+		
+		private boolean coalesceRequests;
+		
+		private long responseCacheSize;
+		
+		private Path diskCacheDirectory;
+		
+		private long diskCacheSize;
+		
+		private int batchLoadWindow;
 		
 		private Builder() {
 		}
@@ -94,14 +133,10 @@ public final class Configuration {
 		}
 
 		/**
-		 * Set the <code>ClientHttpRequestFactory</code> for the created configuration.
-		 * 
-		 * <p><b>N.B.</b> this MUST be an implementation that throws a 
-		 * {@link org.springframework.web.client.HttpClientErrorException} when a HTTP 404 is returned
-		 * accessing the remote resource, as this fact is used internally to distinguish between
-		 * empty results and other client error conditions. The Spring implementations that satisfy this
-		 * requirement are {@link org.springframework.http.client.HttpComponentsClientHttpRequestFactory},
-		 * and any wrapping implementations delegating to this.
+		 * Set the <code>ClientHttpRequestFactory</code> for the created configuration. Defaults to a
+		 * {@link org.springframework.http.client.HttpComponentsClientHttpRequestFactory} using a pool of connections
+		 * owned by the <code>ClientFactory</code>, configured by the connection settings of this builder. Those
+		 * settings do not apply to a factory set here, and the factory is not closed by Bowman.
 		 * 
 		 * @param clientHttpRequestFactory the <code>ClientHttpRequestFactory</code> 
 		 * @return this builder
@@ -111,6 +146,107 @@ public final class Configuration {
 			return this;
 		}
 		
+		/**
+		 * Set the maximum number of pooled connections. Defaults to 100.
+		 *
+		 * @param maxConnections the maximum number of connections
+		 * @return this builder
+		 */
+		public Builder setMaxConnections(int maxConnections) {
+			this.maxConnections = requirePositive(maxConnections, "maxConnections");
+			return this;
+		}
+		
+		/**
+		 * Set the maximum number of pooled connections to each host. Defaults to 50.
+		 *
+		 * @param maxConnectionsPerRoute the maximum number of connections to each host
+		 * @return this builder
+		 */
+		public Builder setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+			this.maxConnectionsPerRoute = requirePositive(maxConnectionsPerRoute, "maxConnectionsPerRoute");
+			return this;
+		}
+		
+		/**
+		 * Set the time to wait to establish a connection. Defaults to 0, waiting indefinitely.
+		 *
+		 * @param timeout the connect timeout, or 0 for none
+		 * @param unit the unit of <code>timeout</code>
+		 * @return this builder
+		 */
+		public Builder setConnectTimeout(long timeout, TimeUnit unit) {
+			this.connectTimeout = toMillis(timeout, unit, "timeout");
+			return this;
+		}
+		
+		/**
+		 * Set the time to wait for data on a connection. Defaults to 0, waiting indefinitely.
+		 *
+		 * @param timeout the read timeout, or 0 for none
+		 * @param unit the unit of <code>timeout</code>
+		 * @return this builder
+		 */
+		public Builder setReadTimeout(long timeout, TimeUnit unit) {
+			this.readTimeout = toMillis(timeout, unit, "timeout");
+			return this;
+		}
+		
+		/**
+		 * Set the time to wait for a connection to become available from the pool. Defaults to 0, waiting
+		 * indefinitely.
+		 *
+		 * @param timeout the connection request timeout, or 0 for none
+		 * @param unit the unit of <code>timeout</code>
+		 * @return this builder
+		 */
+		public Builder setConnectionRequestTimeout(long timeout, TimeUnit unit) {
+			this.connectionRequestTimeout = toMillis(timeout, unit, "timeout");
+			return this;
+		}
+		
+		/**
+		 * Set the time to keep an idle connection for reuse when the server does not say with a
+		 * <code>Keep-Alive</code> header. Defaults to 0, keeping connections until the server closes them.
+		 *
+		 * @param keepAlive the keep-alive time, or 0 to keep connections indefinitely
+		 * @param unit the unit of <code>keepAlive</code>
+		 * @return this builder
+		 */
+		public Builder setKeepAlive(long keepAlive, TimeUnit unit) {
+			this.keepAlive = toMillis(keepAlive, unit, "keepAlive");
+			return this;
+		}
+		
+		/**
+		 * Close pooled connections that have been idle for longer than the given time, and those past their
+		 * keep-alive time, from a background thread. Defaults to 0, leaving idle connections open.
+		 *
+		 * @param timeout the idle time, or 0 to not evict idle connections
+		 * @param unit the unit of <code>timeout</code>
+		 * @return this builder
+		 */
+		public Builder setIdleConnectionTimeout(long timeout, TimeUnit unit) {
+			this.idleConnectionTimeout = toMillis(timeout, unit, "timeout");
+			return this;
+		}
+		
+		/**
+		 * Open the given number of connections to the base URI when the <code>ClientFactory</code> is created, so
+		 * that the first requests do not wait to connect. Defaults to 0.
+		 *
+		 * @param prewarmConnections the number of connections to open
+		 * @return this builder
+		 */
+		public Builder setPrewarmConnections(int prewarmConnections) {
+			if (prewarmConnections < 0) {
+				throw new IllegalArgumentException("prewarmConnections must not be negative");
+			}
+			
+			this.prewarmConnections = prewarmConnections;
+			return this;
+		}
+		
 		/**
 		 * Set the <code>ObjectMapperConfigurer</code> for the created configuration. Allows
 		 * further configuration of the Jackson <code>ObjectMapper</code> used internally.
@@ -122,6 +258,182 @@ public final class Configuration {
 			this.objectMapperConfigurer = objectMapperConfigurer;
 			return this;
 		}
+		
+		/**
+		 * Set the <code>Executor</code> used to load linked resources concurrently, such as those named by a
+		 * {@link FetchPlan} or those of the other entities in a retrieved collection. Defaults to a shared pool
+		 * of 8 daemon threads.
+		 * 
+		 * <p>The executor is not shut down by Bowman.
+		 *
+		 * @param executor the <code>Executor</code>
+		 * @return this builder
+		 */
+		public Builder setExecutor(Executor executor) {
+			this.executor = executor;
+			return this;
+		}
+		
+		/**
+		 * Run Bowman's concurrent work, such as loading linked resources and retrieving pages, on a new virtual
+		 * thread for each task. Blocked tasks then cost little, so many linked resources can be loading at once;
+		 * the number of requests in flight is instead limited by {@link #setMaxConnections(int)} and
+		 * {@link #setMaxConnectionsPerRoute(int)}.
+		 * 
+		 * <p>Replaces any executor set by {@link #setExecutor(Executor)}.
+		 *
+		 * @return this builder
+		 * @throws IllegalStateException if the running JVM does not support virtual threads, which requires Java 21
+		 * or later
+		 */
+		public Builder useVirtualThreads() {
+			this.executor = VirtualThreadExecutor.create();
+			return this;
+		}
+		
+		/**
+		 * Remember up to the given number of URIs that were found not to exist for the given time, so that
+		 * retrieving them again within that time returns no result without making a request. Disabled by default.
+		 * 
+		 * <p>A URI is forgotten when an entity is created or updated at it through the client. Changes made by
+		 * other clients are not seen until the time has elapsed.
+		 *
+		 * @param maximumSize the maximum number of URIs to remember, or 0 to disable the cache
+		 * @param ttl the time to remember each URI for, unless overridden for the requested entity type
+		 * @param unit the unit of <code>ttl</code>
+		 * @return this builder
+		 * @see #setNotFoundCacheTtl(Class, long, TimeUnit)
+		 */
+		public Builder setNotFoundCache(int maximumSize, long ttl, TimeUnit unit) {
+			if (maximumSize < 0) {
+				throw new IllegalArgumentException("maximumSize must not be negative");
+			}
+			
+			this.notFoundCacheSize = maximumSize;
+			this.notFoundCacheTtl = unit.toNanos(ttl);
+			return this;
+		}
+		
+		/**
+		 * Set the time to remember URIs that were found not to exist when requested as the given entity type,
+		 * overriding the time given to {@link #setNotFoundCache(int, long, TimeUnit)}.
+		 *
+		 * @param entityType the requested entity type
+		 * @param ttl the time to remember each URI for, or 0 to not remember URIs of this type
+		 * @param unit the unit of <code>ttl</code>
+		 * @return this builder
+		 */
+		public Builder setNotFoundCacheTtl(Class<?> entityType, long ttl, TimeUnit unit) {
+			notFoundCacheTtls.put(entityType, unit.toNanos(ttl));
+			return this;
+		}
+		
+		/**
+		 * Share a single request between concurrent retrievals of the same resource as the same entity type.
+		 * Disabled by default.
+		 * 
+		 * <p>Each caller still receives its own entity, read from the shared response. This reduces the load on the
+		 * server when many threads retrieve the same resource at once, at the cost of buffering each shared response
+		 * in memory. Responses that are not shared by the response cache, as described for
+		 * {@link #setResponseCacheSize(long)}, are not given to other callers, which make their own requests.
+		 *
+		 * @param coalesceRequests whether to share concurrent identical requests
+		 * @return this builder
+		 */
+		public Builder setCoalesceRequests(boolean coalesceRequests) {
+			this.coalesceRequests = coalesceRequests;
+			return this;
+		}
+		
+		/**
+		 * Cache response bodies up to the given total size, reusing them for as long as their
+		 * <code>Cache-Control</code> or <code>Expires</code> headers allow. Disabled by default.
+		 * 
+		 * <p>Once a cached response is stale it is revalidated with a conditional request using its
+		 * <code>ETag</code> or <code>Last-Modified</code> header, and reused if the server responds that it is
+		 * unchanged. A cached response is discarded when an entity is created, updated or deleted at its URI through
+		 * the client. Collections retrieved as streams or publishers are not cached.
+		 * 
+		 * <p>This is a shared cache: responses are keyed by URI alone and reused for every request made through the
+		 * client factory, whatever its headers. Responses are therefore not cached when the request was sent with an
+		 * <code>Authorization</code> header, including one added by an interceptor, when they are marked
+		 * <code>Cache-Control: private</code>, or when they vary on any request header other than
+		 * <code>Accept</code>.
+		 *
+		 * @param maximumSize the maximum total size of the cached response bodies in bytes, or 0 to disable the cache
+		 * @return this builder
+		 * @see ClientFactory#getResponseCacheStats()
+		 */
+		public Builder setResponseCacheSize(long maximumSize) {
+			if (maximumSize < 0) {
+				throw new IllegalArgumentException("maximumSize must not be negative");
+			}
+			
+			this.responseCacheSize = maximumSize;
+			return this;
+		}
+		
+		/**
+		 * Also cache response bodies in memory-mapped files in the given directory, up to the given total size, so
+		 * that they are kept when the application restarts. Disabled by default.
+		 * 
+		 * <p>Responses are cached and revalidated as described for {@link #setResponseCacheSize(long)}. Responses
+		 * no longer cached in memory are read from disk, so the disk cache can be larger than the response cache,
+		 * which may be disabled to cache on disk alone. The directory is locked while the client factory is open;
+		 * if another client factory, in this process or another, already holds the lock, responses are not cached on
+		 * disk.
+		 *
+		 * @param directory the directory to keep the cache files in, which is created if necessary
+		 * @param maximumSize the maximum total size of the cache files in bytes
+		 * @return this builder
+		 */
+		public Builder setDiskCache(Path directory, long maximumSize) {
+			if (maximumSize < 1) {
+				throw new IllegalArgumentException("maximumSize must be at least 1");
+			}
+			
+			this.diskCacheDirectory = directory;
+			this.diskCacheSize = maximumSize;
+			return this;
+		}
+		
+		/**
+		 * Load a linked resource of the entities in a collection ahead of access, for up to the given number of
+		 * entities after the one accessed. Defaults to 0, which disables batch loading.
+		 * 
+		 * <p>Accessing a linked resource of an entity retrieved in a collection starts loading the same linked
+		 * resource concurrently for the following entities in the collection, so that iterating the collection does
+		 * not wait on one request per entity. Accessing it on an entity beyond those already loading starts the next
+		 * window. These requests are made on the client's executor whether or not the entities are then accessed, and
+		 * their failures are only reported when an entity's linked resource is itself accessed.
+		 *
+		 * @param batchLoadWindow the maximum number of entities to load ahead, or 0 to disable batch loading
+		 * @return this builder
+		 */
+		public Builder setBatchLoadWindow(int batchLoadWindow) {
+			if (batchLoadWindow < 0) {
+				throw new IllegalArgumentException("batchLoadWindow must not be negative");
+			}
+			
+			this.batchLoadWindow = batchLoadWindow;
+			return this;
+		}
+		
+		private static int requirePositive(int value, String name) {
+			if (value < 1) {
+				throw new IllegalArgumentException(name + " must be at least 1");
+			}
+			
+			return value;
+		}
+		
+		private static int toMillis(long duration, TimeUnit unit, String name) {
+			if (duration < 0) {
+				throw new IllegalArgumentException(name + " must not be negative");
+			}
+			
+			return (int) Math.min(unit.toMillis(duration), Integer.MAX_VALUE);
+		}
 	}
 	
 	private final URI baseUri;
@@ -132,11 +444,62 @@ public final class Configuration {
 	
 	private final ObjectMapperConfigurer objectMapperConfigurer;
 	
+	private final Executor executor;
+	
+	private final int maxConnections;
+	
+	private final int maxConnectionsPerRoute;
+	
+	private final int connectTimeout;
+	
+	private final int readTimeout;
+	
+	private final int connectionRequestTimeout;
+	
+	private final long keepAlive;
+	
+	private final long idleConnectionTimeout;
+	
+	private final int prewarmConnections;
+	
+	private final int notFoundCacheSize;
+	
+	private final long notFoundCacheTtl;
+	
+	private final Map<Class<?>, Long> notFoundCacheTtls;
+	
+	private final boolean coalesceRequests;
+	
+	private final long responseCacheSize;
+	
+	private final Path diskCacheDirectory;
+	
+	private final long diskCacheSize;
+	
+	private final int batchLoadWindow;
+	
 	private Configuration(Builder builder) {
 		baseUri = builder.baseUri;
 		restTemplateConfigurer = builder.restTemplateConfigurer;
 		clientHttpRequestFactory = builder.clientHttpRequestFactory;
 		objectMapperConfigurer = builder.objectMapperConfigurer;
+		executor = builder.executor;
+		maxConnections = builder.maxConnections;
+		maxConnectionsPerRoute = builder.maxConnectionsPerRoute;
+		connectTimeout = builder.connectTimeout;
+		readTimeout = builder.readTimeout;
+		connectionRequestTimeout = builder.connectionRequestTimeout;
+		keepAlive = builder.keepAlive;
+		idleConnectionTimeout = builder.idleConnectionTimeout;
+		prewarmConnections = builder.prewarmConnections;
+		notFoundCacheSize = builder.notFoundCacheSize;
+		notFoundCacheTtl = builder.notFoundCacheTtl;
+		notFoundCacheTtls = Collections.unmodifiableMap(new HashMap<>(builder.notFoundCacheTtls));
+		coalesceRequests = builder.coalesceRequests;
+		responseCacheSize = builder.responseCacheSize;
+		diskCacheDirectory = builder.diskCacheDirectory;
+		diskCacheSize = builder.diskCacheSize;
+		batchLoadWindow = builder.batchLoadWindow;
 	}
 	
 	/**
@@ -187,12 +550,86 @@ public final class Configuration {
 	/**
 	 * Get the <code>ClientHttpRequestFactory</code> for this configuration.
 	 * 
-	 * @return the configuration's <code>ClientHttpRequestFactory</code>.
+	 * @return the configuration's <code>ClientHttpRequestFactory</code>, or <code>null</code> to use a pool of
+	 * connections configured by this configuration's connection settings.
 	 */
 	public ClientHttpRequestFactory getClientHttpRequestFactory() {
 		return clientHttpRequestFactory;
 	}
 	
+	/**
+	 * Get the maximum number of pooled connections for this configuration.
+	 *
+	 * @return the maximum number of connections
+	 */
+	public int getMaxConnections() {
+		return maxConnections;
+	}
+	
+	/**
+	 * Get the maximum number of pooled connections to each host for this configuration.
+	 *
+	 * @return the maximum number of connections to each host
+	 */
+	public int getMaxConnectionsPerRoute() {
+		return maxConnectionsPerRoute;
+	}
+	
+	/**
+	 * Get the connect timeout for this configuration.
+	 *
+	 * @return the connect timeout in milliseconds, or 0 for none
+	 */
+	public int getConnectTimeout() {
+		return connectTimeout;
+	}
+	
+	/**
+	 * Get the read timeout for this configuration.
+	 *
+	 * @return the read timeout in milliseconds, or 0 for none
+	 */
+	public int getReadTimeout() {
+		return readTimeout;
+	}
+	
+	/**
+	 * Get the time to wait for a pooled connection for this configuration.
+	 *
+	 * @return the connection request timeout in milliseconds, or 0 for none
+	 */
+	public int getConnectionRequestTimeout() {
+		return connectionRequestTimeout;
+	}
+	
+	/**
+	 * Get the time to keep idle connections for reuse when the server does not say for this configuration.
+	 *
+	 * @return the keep-alive time in milliseconds, or 0 to keep connections indefinitely
+	 */
+	public long getKeepAlive() {
+		return keepAlive;
+	}
+	
+	/**
+	 * Get the time after which idle pooled connections are closed for this configuration.
+	 *
+	 * @return the idle connection timeout in milliseconds, or 0 to not evict idle connections
+	 */
+	public long getIdleConnectionTimeout() {
+		return idleConnectionTimeout;
+	}
+	
+	/**
+	 * Get the number of connections to the base URI opened when a <code>ClientFactory</code> is created for this
+	 * configuration.
+	 *
+	 * @return the number of connections to open
+	 */
+	public int getPrewarmConnections() {
+		return prewarmConnections;
+	}
+	
 	/**
 	 * Get the <code>ObjectMapperConfigurer</code> for this configuration.
 	 *
@@ -201,4 +638,79 @@ public final class Configuration {
 	public ObjectMapperConfigurer getObjectMapperConfigurer() {
 		return objectMapperConfigurer;
 	}
+	
+	/**
+	 * Get the <code>Executor</code> for this configuration.
+	 *
+	 * @return the configuration's <code>Executor</code>, or <code>null</code> to use the default.
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+	
+	/**
+	 * Get the maximum number of URIs remembered as not found for this configuration.
+	 *
+	 * @return the maximum size of the not found cache, or 0 if it is disabled
+	 */
+	public int getNotFoundCacheSize() {
+		return notFoundCacheSize;
+	}
+	
+	/**
+	 * Get the time URIs found not to exist are remembered for when requested as the given entity type.
+	 *
+	 * @param entityType the requested entity type
+	 * @param unit the unit to return the time in
+	 * @return the time to remember not found URIs for
+	 */
+	public long getNotFoundCacheTtl(Class<?> entityType, TimeUnit unit) {
+		Long ttl = notFoundCacheTtls.get(entityType);
+		return unit.convert(ttl != null ? ttl : notFoundCacheTtl, TimeUnit.NANOSECONDS);
+	}
+	
+	/**
+	 * Get whether concurrent identical requests share a single request for this configuration.
+	 *
+	 * @return <code>true</code> if concurrent identical requests are coalesced
+	 */
+	public boolean isCoalesceRequests() {
+		return coalesceRequests;
+	}
+	
+	/**
+	 * Get the maximum total size of the response bodies cached for this configuration.
+	 *
+	 * @return the maximum size of the response cache in bytes, or 0 if it is disabled
+	 */
+	public long getResponseCacheSize() {
+		return responseCacheSize;
+	}
+	
+	/**
+	 * Get the directory response bodies are cached in for this configuration.
+	 *
+	 * @return the directory of the disk cache, or <code>null</code> if it is disabled
+	 */
+	public Path getDiskCacheDirectory() {
+		return diskCacheDirectory;
+	}
+	
+	/**
+	 * Get the maximum total size of the files response bodies are cached in for this configuration.
+	 *
+	 * @return the maximum size of the disk cache in bytes
+	 */
+	public long getDiskCacheSize() {
+		return diskCacheSize;
+	}
+	
+	/**
+	 * Get the number of entities in a collection whose linked resources are loaded ahead for this configuration.
+	 *
+	 * @return the maximum number of entities to load ahead, or 0 if batch loading is disabled
+	 */
+	public int getBatchLoadWindow() {
+		return batchLoadWindow;
+	}
 }
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.SchemePortResolver;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.routing.HttpRoutePlanner;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.DefaultSchemePortResolver;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.conn.SystemDefaultRoutePlanner;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+/**
+ * The pool of HTTP connections used by a {@link ClientFactory} when no <code>ClientHttpRequestFactory</code> is
+ * configured, sized and timed out according to the {@link Configuration}.
+ */
+final class ConnectionPool implements Closeable {
+	
+	private final PoolingHttpClientConnectionManager connectionManager;
+	
+	private final HttpRoutePlanner routePlanner;
+	
+	private final CloseableHttpClient httpClient;
+	
+	private final HttpComponentsClientHttpRequestFactory requestFactory;
+	
+	private final int connectTimeout;
+	
+	private final long keepAlive;
+	
+	ConnectionPool(Configuration configuration) {
+		this(configuration, DefaultSchemePortResolver.INSTANCE);
+	}
+	
+	ConnectionPool(Configuration configuration, SchemePortResolver schemePortResolver) {
+		connectTimeout = configuration.getConnectTimeout();
+		keepAlive = configuration.getKeepAlive();
+		
+		connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setMaxTotal(configuration.getMaxConnections());
+		connectionManager.setDefaultMaxPerRoute(configuration.getMaxConnectionsPerRoute());
+		
+		// prewarmed connections are pooled under the routes that this planner gives requests
+		routePlanner = new SystemDefaultRoutePlanner(schemePortResolver, ProxySelector.getDefault());
+		
+		HttpClientBuilder builder = HttpClientBuilder.create()
+			.useSystemProperties()
+			.setConnectionManager(connectionManager)
+			.setRoutePlanner(routePlanner);
+		
+		if (keepAlive > 0) {
+			builder.setKeepAliveStrategy(new DefaultConnectionKeepAliveStrategy() {
+				@Override
+				public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+					// prefer the server's Keep-Alive timeout when it gives one
+					long duration = super.getKeepAliveDuration(response, context);
+					return duration > 0 ? duration : keepAlive;
+				}
+			});
+		}
+		
+		if (configuration.getIdleConnectionTimeout() > 0) {
+			builder.evictExpiredConnections()
+				.evictIdleConnections(configuration.getIdleConnectionTimeout(), TimeUnit.MILLISECONDS);
+		}
+		
+		httpClient = builder.build();
+		
+		requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+		requestFactory.setBufferRequestBody(false);
+		requestFactory.setConnectTimeout(connectTimeout);
+		requestFactory.setReadTimeout(configuration.getReadTimeout());
+		requestFactory.setConnectionRequestTimeout(configuration.getConnectionRequestTimeout());
+	}
+	
+	ClientHttpRequestFactory getRequestFactory() {
+		return requestFactory;
+	}
+	
+	ConnectionPoolStats getStats() {
+		PoolStats stats = connectionManager.getTotalStats();
+		return new ConnectionPoolStats(stats.getLeased(), stats.getPending(), stats.getAvailable(), stats.getMax());
+	}
+	
+	/**
+	 * Open up to the given number of connections to the host of the given URI and return them to the pool, so
+	 * that the first requests do not wait to connect. The connections are pooled under the route that requests to
+	 * the URI take, so a URI without a port warms the scheme's default port. Warming is best effort and stops at the
+	 * first connection that cannot be made.
+	 */
+	void prewarm(URI uri, int count) {
+		HttpContext context = new BasicHttpContext();
+		HttpRoute route;
+		
+		try {
+			route = routePlanner.determineRoute(new HttpHost(uri.getHost(), uri.getPort(), uri.getScheme()),
+				new HttpGet(uri), context);
+		}
+		catch (HttpException exception) {
+			return;
+		}
+		
+		// a tunnel through a proxy can only be established by a request
+		if (route.isTunnelled()) {
+			return;
+		}
+		
+		List<HttpClientConnection> connections = new ArrayList<>();
+		
+		// never wait on the pool for a connection this method holds itself
+		int limit = Math.min(count, Math.min(connectionManager.getMaxTotal(), connectionManager.getMaxPerRoute(route)));
+		
+		try {
+			for (int i = 0; i < limit; i++) {
+				ConnectionRequest request = connectionManager.requestConnection(route, null);
+				HttpClientConnection connection = request.get(connectTimeout, TimeUnit.MILLISECONDS);
+				connections.add(connection);
+				
+				if (!connection.isOpen()) {
+					connectionManager.connect(connection, route, connectTimeout, context);
+					connectionManager.routeComplete(connection, route, context);
+				}
+			}
+		}
+		catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+		}
+		catch (IOException | ExecutionException exception) {
+			// the connection will be made on demand instead
+		}
+		finally {
+			for (HttpClientConnection connection : connections) {
+				connectionManager.releaseConnection(connection, null, keepAlive, TimeUnit.MILLISECONDS);
+			}
+		}
+	}
+	
+	@Override
+	public void close() {
+		try {
+			httpClient.close();
+		}
+		catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+	}
+}
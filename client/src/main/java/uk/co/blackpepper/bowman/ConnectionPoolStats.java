@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+/**
+ * Statistics of a {@link ClientFactory}'s connection pool, for monitoring.
+ */
+public final class ConnectionPoolStats {
+	
+	private final int leased;
+	
+	private final int pending;
+	
+	private final int available;
+	
+	private final int max;
+	
+	ConnectionPoolStats(int leased, int pending, int available, int max) {
+		this.leased = leased;
+		this.pending = pending;
+		this.available = available;
+		this.max = max;
+	}
+	
+	/**
+	 * Get the number of connections currently in use by requests.
+	 * 
+	 * @return the leased connection count
+	 */
+	public int getLeased() {
+		return leased;
+	}
+	
+	/**
+	 * Get the number of requests waiting for a connection.
+	 * 
+	 * @return the pending request count
+	 */
+	public int getPending() {
+		return pending;
+	}
+	
+	/**
+	 * Get the number of idle connections kept open for reuse.
+	 * 
+	 * @return the available connection count
+	 */
+	public int getAvailable() {
+		return available;
+	}
+	
+	/**
+	 * Get the maximum number of connections the pool opens.
+	 * 
+	 * @return the maximum connection count
+	 */
+	public int getMax() {
+		return max;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("[leased: %d; pending: %d; available: %d; max: %d]", leased, pending, available, max);
+	}
+}
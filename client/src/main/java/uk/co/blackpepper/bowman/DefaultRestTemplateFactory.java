@@ -28,7 +28,6 @@ class DefaultRestTemplateFactory implements RestTemplateFactory {
 		RestTemplate restTemplate = new RestTemplate(clientHttpRequestFactory);
 		
 		restTemplate.getMessageConverters().add(0, new MappingJackson2HttpMessageConverter(objectMapper));
-		restTemplate.getInterceptors().add(new JsonClientHttpRequestInterceptor());
 		
 		return restTemplate;
 	}
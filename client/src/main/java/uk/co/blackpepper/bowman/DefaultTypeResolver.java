@@ -9,13 +9,39 @@ import uk.co.blackpepper.bowman.annotation.ResourceTypeInfo;
 
 class DefaultTypeResolver implements TypeResolver {
 	
+	// the resolver for each declared type, or null where it has no type info and so resolves to itself
+	private static final ClassValue<TypeResolver> DELEGATES = new ClassValue<TypeResolver>() {
+		@Override
+		protected TypeResolver computeValue(Class<?> declaredType) {
+			return createDelegate(declaredType);
+		}
+	};
+	
 	@Override
 	public Class<?> resolveType(Class<?> declaredType, Links resourceLinks, Configuration configuration) {
 		
+		TypeResolver delegateTypeResolver = DELEGATES.get(declaredType);
+		
+		if (delegateTypeResolver == null) {
+			return declaredType;
+		}
+		
+		return delegateTypeResolver.resolveType(declaredType, resourceLinks, configuration);
+	}
+	
+	/**
+	 * Get whether resources of the given declared type may resolve to a subtype, and so need their links to
+	 * resolve their type.
+	 */
+	boolean isPolymorphic(Class<?> declaredType) {
+		return DELEGATES.get(declaredType) != null;
+	}
+	
+	private static TypeResolver createDelegate(Class<?> declaredType) {
 		ResourceTypeInfo info = AnnotationUtils.findAnnotation(declaredType, ResourceTypeInfo.class);
 		
 		if (info == null) {
-			return declaredType;
+			return null;
 		}
 		
 		boolean customTypeResolverIsSpecified = info.typeResolver() != ResourceTypeInfo.NullTypeResolver.class;
@@ -23,10 +49,8 @@ class DefaultTypeResolver implements TypeResolver {
 		Assert.state(info.subtypes().length > 0 ^ customTypeResolverIsSpecified,
 			"one of subtypes or typeResolver must be specified");
 		
-		TypeResolver delegateTypeResolver = customTypeResolverIsSpecified
+		return customTypeResolverIsSpecified
 			? BeanUtils.instantiate(info.typeResolver())
 			: new SelfLinkTypeResolver(info.subtypes());
-		
-		return delegateTypeResolver.resolveType(declaredType, resourceLinks, configuration);
 	}
 }
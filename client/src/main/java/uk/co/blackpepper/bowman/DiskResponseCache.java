@@ -0,0 +1,558 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Cache of response bodies in memory-mapped segment files, which survives restarts of the application.
+ * 
+ * <p>Records are appended to the newest segment, and indexed in memory by URI. The index is rebuilt from the
+ * segment files when the cache is opened. A record replaced or removed is marked as dead in place, so that it is
+ * not restored on restart. Once the segments reach the maximum size, the segment holding no live records, or
+ * failing that the least recently read segment, is deleted with its records, so the space taken by dead records
+ * is reclaimed as their segments are recycled.
+ * 
+ * <p>Each record carries a CRC-32 checksum of its contents, and a record whose checksum does not match is dropped
+ * when the segment is loaded or the record is read. The directory is locked while the cache is open, so that no
+ * other cache, in this process or another, writes to the same segments.
+ * 
+ * <p>Segments are written through their mapping and are not forced to disk, so a record survives the failure of
+ * the application but not necessarily of the operating system. This is safe for a cache of data that can be
+ * retrieved again.
+ */
+final class DiskResponseCache implements Closeable {
+	
+	/**
+	 * A cached response body with its validators and expiry time.
+	 */
+	static final class Record {
+		
+		private final byte[] body;
+		
+		private final String eTag;
+		
+		private final long lastModified;
+		
+		private final long expires;
+		
+		Record(byte[] body, String eTag, long lastModified, long expires) {
+			this.body = body;
+			this.eTag = eTag;
+			this.lastModified = lastModified;
+			this.expires = expires;
+		}
+		
+		byte[] getBody() {
+			return body;
+		}
+		
+		String getETag() {
+			return eTag;
+		}
+		
+		long getLastModified() {
+			return lastModified;
+		}
+		
+		/**
+		 * Get the time after which the body is stale, in milliseconds since the epoch.
+		 */
+		long getExpires() {
+			return expires;
+		}
+	}
+	
+	private static final class Segment {
+		
+		private final long id;
+		
+		private final Path path;
+		
+		private final MappedByteBuffer buffer;
+		
+		private int position = HEADER_SIZE;
+		
+		private long liveBytes;
+		
+		private long lastAccess;
+		
+		Segment(long id, Path path, MappedByteBuffer buffer) {
+			this.id = id;
+			this.path = path;
+			this.buffer = buffer;
+		}
+	}
+	
+	private static final class Location {
+		
+		private final Segment segment;
+		
+		private final int offset;
+		
+		private final int length;
+		
+		Location(Segment segment, int offset, int length) {
+			this.segment = segment;
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+	
+	private static final int MAGIC = 0x424f574d;
+	
+	private static final int VERSION = 2;
+	
+	private static final int HEADER_SIZE = 8;
+	
+	/**
+	 * The offset within a record of the data covered by its checksum, which follows its length and checksum.
+	 */
+	private static final int CHECKED_OFFSET = 4 + 4;
+	
+	private static final int MINIMUM_RECORD_SIZE = CHECKED_OFFSET + 8 + 8 + 4 + 4 + 4;
+	
+	private static final int SEGMENT_COUNT = 8;
+	
+	private static final int MINIMUM_SEGMENT_SIZE = 64 * 1024;
+	
+	private static final int MAXIMUM_SEGMENT_SIZE = 1 << 30;
+	
+	private static final String LOCK_NAME = "cache.lock";
+	
+	private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{1,18})\\.bin");
+	
+	private final Path directory;
+	
+	private final int segmentSize;
+	
+	private final int maximumSegments;
+	
+	private final List<Segment> segments = new ArrayList<>();
+	
+	private final Map<URI, Location> index = new HashMap<>();
+	
+	private FileChannel lockChannel;
+	
+	private long clock;
+	
+	private boolean closed;
+	
+	private DiskResponseCache(Path directory, long maximumSize) {
+		this.directory = directory;
+		
+		segmentSize = (int) Math.min(Math.max(maximumSize / SEGMENT_COUNT, MINIMUM_SEGMENT_SIZE),
+			MAXIMUM_SEGMENT_SIZE);
+		maximumSegments = (int) Math.max(maximumSize / segmentSize, 2);
+	}
+	
+	/**
+	 * Open the cache in the given directory, restoring the records written to it before.
+	 * 
+	 * @return the cache, or <code>null</code> if the directory is locked by another open cache
+	 */
+	static DiskResponseCache open(Path directory, long maximumSize) {
+		DiskResponseCache cache = new DiskResponseCache(directory, maximumSize);
+		
+		try {
+			Files.createDirectories(directory);
+			
+			if (!cache.lock()) {
+				cache.close();
+				return null;
+			}
+			
+			cache.load();
+		}
+		catch (IOException exception) {
+			cache.close();
+			throw new UncheckedIOException("couldn't open disk cache in " + directory, exception);
+		}
+		
+		return cache;
+	}
+	
+	synchronized Record get(URI uri) {
+		Location location = closed ? null : index.get(uri);
+		
+		if (location == null) {
+			return null;
+		}
+		
+		ByteBuffer buffer = location.segment.buffer.duplicate();
+		
+		if (!isIntact(buffer, location.offset, location.length)) {
+			remove(uri);
+			return null;
+		}
+		
+		location.segment.lastAccess = ++clock;
+		
+		buffer.position(location.offset + CHECKED_OFFSET);
+		
+		long expires = buffer.getLong();
+		long lastModified = buffer.getLong();
+		readString(buffer);
+		String eTag = readString(buffer);
+		byte[] body = new byte[buffer.getInt()];
+		buffer.get(body);
+		
+		return new Record(body, eTag, lastModified, expires);
+	}
+	
+	synchronized void put(URI uri, Record record) {
+		if (closed) {
+			return;
+		}
+		
+		remove(uri);
+		
+		byte[] uriBytes = uri.toString().getBytes(StandardCharsets.UTF_8);
+		byte[] eTagBytes = record.eTag != null ? record.eTag.getBytes(StandardCharsets.UTF_8) : null;
+		int length = MINIMUM_RECORD_SIZE + uriBytes.length + (eTagBytes != null ? eTagBytes.length : 0)
+			+ record.body.length;
+		
+		if (length > segmentSize - HEADER_SIZE) {
+			return;
+		}
+		
+		Segment segment = getWritableSegment(length);
+		
+		if (segment == null) {
+			return;
+		}
+		
+		ByteBuffer buffer = segment.buffer.duplicate();
+		buffer.position(segment.position);
+		buffer.putInt(length);
+		buffer.putInt(0);
+		buffer.putLong(record.expires);
+		buffer.putLong(record.lastModified);
+		writeBytes(buffer, uriBytes);
+		writeBytes(buffer, eTagBytes);
+		writeBytes(buffer, record.body);
+		buffer.putInt(segment.position + 4, checksum(buffer, segment.position, length));
+		
+		index.put(uri, new Location(segment, segment.position, length));
+		segment.position += length;
+		segment.liveBytes += length;
+		segment.lastAccess = ++clock;
+	}
+	
+	synchronized void remove(URI uri) {
+		Location location = index.remove(uri);
+		
+		if (location != null) {
+			// mark the record as dead so that it is skipped when the segment is next loaded
+			location.segment.buffer.putInt(location.offset, -location.length);
+			location.segment.liveBytes -= location.length;
+		}
+	}
+	
+	synchronized int size() {
+		return index.size();
+	}
+	
+	/**
+	 * Write the segments to disk and unlock the directory. Segments are unmapped once they are no longer
+	 * referenced, and the cache neither returns nor stores records afterwards.
+	 */
+	@Override
+	public synchronized void close() {
+		closed = true;
+		
+		for (Segment segment : segments) {
+			segment.buffer.force();
+		}
+		
+		segments.clear();
+		index.clear();
+		
+		if (lockChannel != null) {
+			try {
+				// closing the channel releases its lock
+				lockChannel.close();
+			}
+			catch (IOException exception) {
+				// the lock is released when the process exits
+			}
+			
+			lockChannel = null;
+		}
+	}
+	
+	/**
+	 * Take an exclusive lock on the lock file in the directory, held until the cache is closed.
+	 * 
+	 * @return whether the lock was taken, or <code>false</code> if another cache holds it
+	 */
+	private boolean lock() throws IOException {
+		lockChannel = FileChannel.open(directory.resolve(LOCK_NAME), StandardOpenOption.CREATE,
+			StandardOpenOption.WRITE);
+		FileLock lock;
+		
+		try {
+			lock = lockChannel.tryLock();
+		}
+		catch (OverlappingFileLockException exception) {
+			// held by another cache in this process
+			lock = null;
+		}
+		
+		return lock != null;
+	}
+	
+	private void load() throws IOException {
+		List<Path> paths = new ArrayList<>();
+		
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "segment-*.bin")) {
+			for (Path path : stream) {
+				if (SEGMENT_NAME.matcher(path.getFileName().toString()).matches()) {
+					paths.add(path);
+				}
+			}
+		}
+		
+		Collections.sort(paths);
+		
+		for (Path path : paths) {
+			Segment segment = openSegment(path);
+			
+			if (segment == null) {
+				Files.deleteIfExists(path);
+				continue;
+			}
+			
+			segments.add(segment);
+			scan(segment);
+		}
+		
+		evictSegments();
+	}
+	
+	/**
+	 * Index the live records in the given segment, stopping at its end or at the first record that cannot be read.
+	 * Records whose checksum does not match are marked as dead.
+	 */
+	private void scan(Segment segment) {
+		ByteBuffer buffer = segment.buffer.duplicate();
+		int offset = HEADER_SIZE;
+		
+		try {
+			while (offset + 4 <= buffer.capacity()) {
+				int length = buffer.getInt(offset);
+				int size = Math.abs(length);
+				
+				if (size < MINIMUM_RECORD_SIZE || size > buffer.capacity() - offset) {
+					break;
+				}
+				
+				if (length > 0 && !isIntact(buffer, offset, length)) {
+					buffer.putInt(offset, -length);
+				}
+				else if (length > 0) {
+					buffer.position(offset + CHECKED_OFFSET + 8 + 8);
+					String uriString = readString(buffer);
+					
+					if (uriString == null) {
+						break;
+					}
+					
+					URI uri = URI.create(uriString);
+					remove(uri);
+					index.put(uri, new Location(segment, offset, length));
+					segment.liveBytes += length;
+				}
+				
+				offset += size;
+			}
+		}
+		catch (BufferUnderflowException | IllegalArgumentException exception) {
+			// a partly written record, which is overwritten by the next write to this segment
+		}
+		
+		segment.position = offset;
+		segment.lastAccess = ++clock;
+	}
+	
+	private Segment getWritableSegment(int length) {
+		Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+		
+		if (segment != null && segment.position + length <= segment.buffer.capacity()) {
+			return segment;
+		}
+		
+		try {
+			long id = segment != null ? segment.id + 1 : 0;
+			segment = createSegment(directory.resolve(String.format("segment-%010d.bin", id)), id);
+		}
+		catch (IOException exception) {
+			// the record is only cached in memory
+			return null;
+		}
+		
+		segments.add(segment);
+		evictSegments();
+		
+		return segment;
+	}
+	
+	private Segment createSegment(Path path, long id) throws IOException {
+		try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+			file.setLength(segmentSize);
+			
+			// the mapping remains valid once the file is closed
+			MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+			buffer.putInt(0, MAGIC);
+			buffer.putInt(4, VERSION);
+			
+			return new Segment(id, path, buffer);
+		}
+	}
+	
+	private static Segment openSegment(Path path) throws IOException {
+		Matcher matcher = SEGMENT_NAME.matcher(path.getFileName().toString());
+		
+		if (!matcher.matches()) {
+			return null;
+		}
+		
+		try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+			if (file.length() < HEADER_SIZE || file.length() > MAXIMUM_SEGMENT_SIZE) {
+				return null;
+			}
+			
+			MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, file.length());
+			
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+				return null;
+			}
+			
+			return new Segment(Long.parseLong(matcher.group(1)), path, buffer);
+		}
+	}
+	
+	/**
+	 * Delete segments until the cache is within its maximum size, never deleting the segment being written.
+	 */
+	private void evictSegments() {
+		while (segments.size() > maximumSegments) {
+			Segment victim = null;
+			
+			for (Segment segment : segments.subList(0, segments.size() - 1)) {
+				if (victim == null || isBetterVictim(segment, victim)) {
+					victim = segment;
+				}
+			}
+			
+			deleteSegment(victim);
+		}
+	}
+	
+	/**
+	 * Get whether the first segment should be deleted before the second: segments without live records first, then
+	 * the least recently used.
+	 */
+	private static boolean isBetterVictim(Segment segment, Segment victim) {
+		boolean empty = segment.liveBytes == 0;
+		boolean victimEmpty = victim.liveBytes == 0;
+		
+		if (empty != victimEmpty) {
+			return empty;
+		}
+		
+		return segment.lastAccess < victim.lastAccess;
+	}
+	
+	private void deleteSegment(Segment segment) {
+		segments.remove(segment);
+		
+		index.values().removeIf(location -> location.segment == segment);
+		
+		// invalidate the header first, in case the mapped file cannot be deleted
+		segment.buffer.putInt(0, 0);
+		
+		try {
+			Files.deleteIfExists(segment.path);
+		}
+		catch (IOException exception) {
+			// the segment is ignored when the cache is next opened
+		}
+	}
+	
+	private static boolean isIntact(ByteBuffer buffer, int offset, int length) {
+		return buffer.getInt(offset + 4) == checksum(buffer, offset, length);
+	}
+	
+	private static int checksum(ByteBuffer buffer, int offset, int length) {
+		ByteBuffer data = buffer.duplicate();
+		data.limit(offset + length);
+		data.position(offset + CHECKED_OFFSET);
+		
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		return (int) crc.getValue();
+	}
+	
+	private static void writeBytes(ByteBuffer buffer, byte[] bytes) {
+		if (bytes == null) {
+			buffer.putInt(-1);
+			return;
+		}
+		
+		buffer.putInt(bytes.length);
+		buffer.put(bytes);
+	}
+	
+	private static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		
+		if (length < 0) {
+			return null;
+		}
+		
+		if (length > buffer.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
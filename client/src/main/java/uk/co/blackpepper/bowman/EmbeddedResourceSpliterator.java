@@ -0,0 +1,202 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+import org.apache.http.conn.EofSensorInputStream;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Spliterator over the embedded resources of a HAL collection resource, reading each resource from the
+ * parser only as it is requested so that the collection is never held in memory.
+ *
+ * <p>Closing the spliterator before the end of the collection aborts the underlying connection where
+ * possible, rather than reading the rest of the response.
+ *
+ * <p>The collection's own links are captured as they are passed, so that they are all available once the
+ * spliterator has been advanced to the end.
+ */
+final class EmbeddedResourceSpliterator<T> extends Spliterators.AbstractSpliterator<Resource<T>>
+	implements Closeable {
+
+	private enum State {
+		START,
+		ROOT,
+		EMBEDDED,
+		ARRAY,
+		DONE
+	}
+
+	private final JsonParser parser;
+
+	private final ObjectReader reader;
+
+	private final Closeable response;
+
+	private State state = State.START;
+
+	private JsonNode links;
+
+	private boolean closed;
+
+	EmbeddedResourceSpliterator(JsonParser parser, ObjectReader reader, Closeable response) {
+		super(Long.MAX_VALUE, ORDERED | NONNULL);
+
+		this.parser = parser;
+		this.reader = reader;
+		this.response = response;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super Resource<T>> action) {
+		Resource<T> resource;
+
+		try {
+			if (!nextResource()) {
+				close();
+				return false;
+			}
+
+			resource = reader.readValue(parser);
+		}
+		catch (IOException exception) {
+			close();
+			throw new HttpMessageNotReadableException("Could not read JSON: " + exception.getMessage(), exception);
+		}
+
+		action.accept(resource);
+		return true;
+	}
+
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+
+		closed = true;
+
+		if (state != State.DONE) {
+			state = State.DONE;
+			abort();
+		}
+
+		try {
+			parser.close();
+			response.close();
+		}
+		catch (IOException exception) {
+			// nothing more to read
+		}
+	}
+
+	/**
+	 * Get the collection's link with the given relation, or <code>null</code> if it has none or its links have not
+	 * yet been read.
+	 */
+	Link getLink(String rel) {
+		JsonNode link = links != null ? links.get(rel) : null;
+
+		if (link != null && link.isArray()) {
+			link = link.get(0);
+		}
+
+		if (link == null || !link.hasNonNull("href")) {
+			return null;
+		}
+
+		return new Link(link.get("href").asText(), rel);
+	}
+
+	/**
+	 * Advance the parser to the start of the next embedded resource, returning whether there is one.
+	 */
+	private boolean nextResource() throws IOException {
+		while (state != State.DONE) {
+			JsonToken token = parser.nextToken();
+
+			if (token == null) {
+				state = State.DONE;
+			}
+			else if (state == State.START) {
+				state = token == JsonToken.START_OBJECT ? State.ROOT : State.DONE;
+			}
+			else if (state == State.ARRAY) {
+				if (token == JsonToken.START_OBJECT) {
+					return true;
+				}
+
+				if (token == JsonToken.END_ARRAY) {
+					state = State.EMBEDDED;
+				}
+				else {
+					parser.skipChildren();
+				}
+			}
+			else if (token == JsonToken.END_OBJECT) {
+				state = state == State.EMBEDDED ? State.ROOT : State.DONE;
+			}
+			else if (token == JsonToken.FIELD_NAME) {
+				String name = parser.getCurrentName();
+				token = parser.nextToken();
+
+				if (state == State.ROOT && token == JsonToken.START_OBJECT
+					&& ResourceContentParser.EMBEDDED_PROPERTY.equals(name)) {
+					state = State.EMBEDDED;
+				}
+				else if (state == State.ROOT && token == JsonToken.START_OBJECT
+					&& ResourceContentParser.LINKS_PROPERTY.equals(name)) {
+					links = reader.readTree(parser);
+				}
+				else if (state == State.EMBEDDED && token == JsonToken.START_ARRAY) {
+					state = State.ARRAY;
+				}
+				else if (state == State.EMBEDDED && token == JsonToken.START_OBJECT) {
+					return true;
+				}
+				else {
+					parser.skipChildren();
+				}
+			}
+		}
+
+		return false;
+	}
+
+	private void abort() {
+		Object body = parser.getInputSource();
+
+		if (body instanceof EofSensorInputStream) {
+			try {
+				((EofSensorInputStream) body).abortConnection();
+			}
+			catch (IOException exception) {
+				// the connection is being discarded anyway
+			}
+		}
+	}
+}
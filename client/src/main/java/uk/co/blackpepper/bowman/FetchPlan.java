@@ -0,0 +1,153 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The linked associations to load eagerly when retrieving entities through a {@link Client}.
+ *
+ * <p>Each path names a chain of {@link uk.co.blackpepper.bowman.annotation.LinkedResource} properties separated by
+ * dots, for example <code>"items.owner"</code>. The segment <code>*</code> matches every linked property at that
+ * level. The linked resources at each level are retrieved concurrently, and subsequent calls to their accessors
+ * return the loaded values without further requests.
+ *
+ * @author Ryan Pickett
+ *
+ */
+public final class FetchPlan {
+
+	/**
+	 * The path segment matching every linked property.
+	 */
+	public static final String ALL = "*";
+
+	private static final FetchPlan EMPTY = new FetchPlan(Collections.<String, FetchPlan>emptyMap(),
+		Integer.MAX_VALUE);
+
+	private final Map<String, FetchPlan> children;
+
+	private final int maxDepth;
+
+	private FetchPlan(Map<String, FetchPlan> children, int maxDepth) {
+		this.children = children;
+		this.maxDepth = maxDepth;
+	}
+
+	/**
+	 * Create a fetch plan loading the given property paths.
+	 *
+	 * @param paths the dot-separated linked property paths
+	 * @return the fetch plan
+	 */
+	public static FetchPlan of(String... paths) {
+		Map<String, Object> tree = new LinkedHashMap<>();
+
+		for (String path : paths) {
+			Map<String, Object> node = tree;
+
+			for (String segment : path.split("\\.")) {
+				if (segment.isEmpty()) {
+					throw new IllegalArgumentException("invalid fetch plan path: " + path);
+				}
+
+				@SuppressWarnings("unchecked")
+				Map<String, Object> child = (Map<String, Object>) node.get(segment);
+
+				if (child == null) {
+					child = new LinkedHashMap<>();
+					node.put(segment, child);
+				}
+
+				node = child;
+			}
+		}
+
+		return create(tree, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Create a fetch plan loading no linked associations.
+	 *
+	 * @return the fetch plan
+	 */
+	public static FetchPlan none() {
+		return EMPTY;
+	}
+
+	/**
+	 * Create a copy of this fetch plan that loads linked associations no deeper than the given depth.
+	 *
+	 * @param maxDepth the maximum depth of association to load, where 1 is the retrieved entities' own
+	 * associations
+	 * @return the new fetch plan
+	 */
+	public FetchPlan withMaxDepth(int maxDepth) {
+		if (maxDepth < 0) {
+			throw new IllegalArgumentException("maxDepth must not be negative");
+		}
+
+		return new FetchPlan(children, maxDepth);
+	}
+
+	/**
+	 * Get the maximum depth of association loaded by this plan.
+	 *
+	 * @return the maximum depth
+	 */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	boolean isEmpty() {
+		return children.isEmpty() || maxDepth == 0;
+	}
+
+	/**
+	 * Get the plan for the given linked property, or <code>null</code> if the property is not to be loaded.
+	 */
+	FetchPlan getChild(String property) {
+		if (maxDepth == 0) {
+			return null;
+		}
+
+		FetchPlan child = children.get(property);
+
+		if (child == null) {
+			child = children.get(ALL);
+		}
+
+		return child == null ? null : child.withMaxDepth(Math.min(child.maxDepth, maxDepth - 1));
+	}
+
+	Iterable<String> getProperties() {
+		return children.keySet();
+	}
+
+	private static FetchPlan create(Map<String, Object> tree, int maxDepth) {
+		Map<String, FetchPlan> children = new LinkedHashMap<>();
+
+		for (Map.Entry<String, Object> entry : tree.entrySet()) {
+			@SuppressWarnings("unchecked")
+			Map<String, Object> subtree = (Map<String, Object>) entry.getValue();
+			children.put(entry.getKey(), create(subtree, Integer.MAX_VALUE));
+		}
+
+		return new FetchPlan(Collections.unmodifiableMap(children), maxDepth);
+	}
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+import javassist.util.proxy.Proxy;
+
+/**
+ * Loads the linked associations named by a {@link FetchPlan} concurrently, one level of the plan at a time.
+ *
+ * <p>Associations are loaded by invoking their accessors on the entity proxies, so the results are memoized
+ * exactly as if client code had called them. The calling thread waits for each level to complete before
+ * submitting the next, so tasks never wait on queued work. While waiting it runs any task the executor has not
+ * yet started, so resolving plans from the executor's own threads cannot deadlock either.
+ */
+class FetchPlanResolver {
+
+	private static final class FetchTask extends FutureTask<Object> {
+
+		private final FetchPlan plan;
+
+		FetchTask(final Object entity, final Method accessor, FetchPlan plan) {
+			super(new Callable<Object>() {
+				@Override
+				public Object call() throws Exception {
+					return accessor.invoke(entity);
+				}
+			});
+
+			this.plan = plan;
+		}
+
+		FetchPlan getPlan() {
+			return plan;
+		}
+	}
+
+	private static final class Node {
+
+		private final Object entity;
+
+		private final FetchPlan plan;
+
+		Node(Object entity, FetchPlan plan) {
+			this.entity = entity;
+			this.plan = plan;
+		}
+	}
+
+	private final Executor executor;
+
+	FetchPlanResolver(Executor executor) {
+		this.executor = executor;
+	}
+
+	void resolve(Object entity, FetchPlan plan) {
+		resolveAll(Collections.singletonList(entity), plan);
+	}
+
+	void resolveAll(Iterable<?> entities, FetchPlan plan) {
+		List<Node> level = new ArrayList<>();
+
+		for (Object entity : entities) {
+			addNode(level, entity, plan);
+		}
+
+		while (!level.isEmpty()) {
+			level = resolveLevel(level);
+		}
+	}
+
+	private List<Node> resolveLevel(List<Node> level) {
+		List<FetchTask> tasks = new ArrayList<>();
+
+		for (Node node : level) {
+			MethodDispatchTable dispatchTable = MethodDispatchTable.forType(getEntityType(node.entity));
+
+			for (String property : getProperties(node.plan, dispatchTable)) {
+				Method accessor = dispatchTable.getLinkedAccessor(property);
+
+				if (accessor == null) {
+					throw new ClientProxyException(String.format("No linked resource '%s' on %s", property,
+						getEntityType(node.entity).getName()));
+				}
+
+				FetchTask task = new FetchTask(node.entity, accessor, node.plan.getChild(property));
+				executor.execute(task);
+				tasks.add(task);
+			}
+		}
+
+		List<Node> nextLevel = new ArrayList<>();
+		RuntimeException failure = null;
+
+		for (FetchTask task : tasks) {
+			try {
+				addNodes(nextLevel, await(task), task.getPlan());
+			}
+			catch (RuntimeException exception) {
+				if (failure == null) {
+					failure = exception;
+				}
+			}
+		}
+
+		if (failure != null) {
+			throw failure;
+		}
+
+		return nextLevel;
+	}
+
+	private static Set<String> getProperties(FetchPlan plan, MethodDispatchTable dispatchTable) {
+		Set<String> properties = new LinkedHashSet<>();
+
+		for (String property : plan.getProperties()) {
+			if (FetchPlan.ALL.equals(property)) {
+				properties.addAll(dispatchTable.getLinkedAccessors().keySet());
+			}
+			else {
+				properties.add(property);
+			}
+		}
+
+		return properties;
+	}
+
+	private static void addNodes(List<Node> nodes, Object value, FetchPlan plan) {
+		if (value instanceof Collection) {
+			for (Object element : (Collection<?>) value) {
+				addNode(nodes, element, plan);
+			}
+		}
+		else {
+			addNode(nodes, value, plan);
+		}
+	}
+
+	private static void addNode(List<Node> nodes, Object entity, FetchPlan plan) {
+		// only proxies have linked associations to load
+		if (entity instanceof Proxy && plan != null && !plan.isEmpty()) {
+			nodes.add(new Node(entity, plan));
+		}
+	}
+
+	private static Class<?> getEntityType(Object proxy) {
+		return proxy.getClass().getSuperclass();
+	}
+
+	private static Object await(FetchTask task) {
+		// a no-op if an executor thread has already started the task
+		task.run();
+
+		try {
+			return task.get();
+		}
+		catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new ClientProxyException("interrupted waiting for linked resources", exception);
+		}
+		catch (ExecutionException exception) {
+			throw unwrap(exception.getCause());
+		}
+	}
+
+	private static RuntimeException unwrap(Throwable throwable) {
+		Throwable cause = throwable instanceof InvocationTargetException
+			? ((InvocationTargetException) throwable).getTargetException()
+			: throwable;
+
+		if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+
+		return cause instanceof RuntimeException ? (RuntimeException) cause
+			: new ClientProxyException("couldn't load linked resource", cause);
+	}
+}
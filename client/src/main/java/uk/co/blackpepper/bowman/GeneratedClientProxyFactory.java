@@ -0,0 +1,142 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.lang.reflect.Constructor;
+import java.net.URI;
+
+import org.springframework.hateoas.Resource;
+
+/**
+ * Proxy factory using the proxy classes generated at compile time by the Bowman annotation processor,
+ * falling back to runtime generation for entity types that were not processed.
+ */
+class GeneratedClientProxyFactory implements ClientProxyFactory {
+
+	private static final ClassValue<Constructor<?>> PROXY_CONSTRUCTORS = new ClassValue<Constructor<?>>() {
+		@Override
+		protected Constructor<?> computeValue(Class<?> entityType) {
+			return findProxyConstructor(entityType);
+		}
+	};
+	
+	private final JavassistClientProxyFactory fallbackProxyFactory;
+	
+	GeneratedClientProxyFactory() {
+		this(new JavassistClientProxyFactory());
+	}
+	
+	GeneratedClientProxyFactory(JavassistClientProxyFactory fallbackProxyFactory) {
+		this.fallbackProxyFactory = fallbackProxyFactory;
+	}
+	
+	@Override
+	public <T> T create(Resource<T> resource, RestOperations restOperations) {
+		return create(resource, restOperations, null);
+	}
+	
+	@Override
+	public <T> T create(Resource<T> resource, RestOperations restOperations, LoadGroup loadGroup) {
+		return create(resource, restOperations, loadGroup, this);
+	}
+	
+	@Override
+	public <T> T create(Resource<T> resource, RestOperations restOperations, LoadGroup loadGroup,
+		ClientProxyFactory linkedProxyFactory) {
+		
+		@SuppressWarnings("unchecked")
+		Class<T> entityType = (Class<T>) resource.getContent().getClass();
+		
+		Constructor<?> constructor = PROXY_CONSTRUCTORS.get(entityType);
+		
+		if (constructor == null) {
+			return fallbackProxyFactory.create(resource, restOperations, loadGroup, linkedProxyFactory);
+		}
+		
+		T proxy = instantiateClass(constructor);
+		((GeneratedProxy) proxy).setHandler(new GetterSetterMethodHandler<>(resource, entityType, restOperations,
+			linkedProxyFactory, loadGroup));
+		return proxy;
+	}
+	
+	@Override
+	public <T> T create(URI uri, Class<T> entityType, RestOperations restOperations) {
+		return create(uri, entityType, restOperations, this);
+	}
+	
+	@Override
+	public <T> T create(URI uri, Class<T> entityType, RestOperations restOperations,
+		ClientProxyFactory linkedProxyFactory) {
+		
+		Constructor<?> constructor = PROXY_CONSTRUCTORS.get(entityType);
+		
+		if (constructor == null) {
+			return fallbackProxyFactory.create(uri, entityType, restOperations, linkedProxyFactory);
+		}
+		
+		T proxy = instantiateClass(constructor);
+		((GeneratedProxy) proxy).setHandler(new GetterSetterMethodHandler<>(uri, entityType, restOperations,
+			linkedProxyFactory));
+		return proxy;
+	}
+	
+	@Override
+	public <T> T find(URI uri, Class<T> entityType) {
+		return null;
+	}
+	
+	@Override
+	public void forget(URI uri) {
+		// proxies are not tracked
+	}
+	
+	private static Constructor<?> findProxyConstructor(Class<?> entityType) {
+		Class<?> proxyClass;
+		
+		try {
+			proxyClass = Class.forName(GeneratedProxySupport.getProxyClassName(entityType.getName()), true,
+				entityType.getClassLoader());
+		}
+		catch (ClassNotFoundException exception) {
+			return null;
+		}
+		
+		if (proxyClass.getSuperclass() != entityType || !GeneratedProxy.class.isAssignableFrom(proxyClass)) {
+			return null;
+		}
+		
+		try {
+			Constructor<?> constructor = proxyClass.getDeclaredConstructor();
+			constructor.setAccessible(true);
+			return constructor;
+		}
+		catch (NoSuchMethodException exception) {
+			throw new ClientProxyException("couldn't find proxy constructor of " + proxyClass, exception);
+		}
+	}
+
+	private static <T> T instantiateClass(Constructor<?> constructor) {
+		try {
+			@SuppressWarnings("unchecked")
+			T proxy = (T) constructor.newInstance();
+			return proxy;
+		}
+		catch (Exception exception) {
+			throw new ClientProxyException("couldn't create proxy instance of " + constructor.getDeclaringClass(),
+				exception);
+		}
+	}
+}
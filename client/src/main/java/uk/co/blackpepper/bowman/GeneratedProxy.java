@@ -0,0 +1,40 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import javassist.util.proxy.MethodHandler;
+import javassist.util.proxy.Proxy;
+
+/**
+ * Implemented by the proxy classes generated at compile time by the Bowman annotation processor.
+ * 
+ * <p>This interface is not intended to be used directly by client code.
+ * 
+ * @author Ryan Pickett
+ * 
+ */
+public interface GeneratedProxy extends Proxy {
+
+	/**
+	 * Get the handler the proxy dispatches its accessors to.
+	 * 
+	 * @return the handler, or <code>null</code> if it has not been set
+	 */
+	@JsonIgnore
+	MethodHandler getHandler();
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.lang.reflect.Method;
+import java.net.URI;
+
+import org.springframework.util.ReflectionUtils;
+
+import javassist.util.proxy.MethodHandler;
+import uk.co.blackpepper.bowman.MethodDispatchTable.MethodEntry;
+
+/**
+ * Support methods for the proxy classes generated at compile time by the Bowman annotation processor.
+ * 
+ * <p>This class is not intended to be used directly by client code.
+ * 
+ * @author Ryan Pickett
+ * 
+ */
+public final class GeneratedProxySupport {
+
+	/**
+	 * An intercepted method of an entity type, resolved once per generated proxy class.
+	 */
+	public static final class Accessor {
+		
+		private final Method method;
+		
+		private final MethodEntry entry;
+		
+		private final Method proceed;
+		
+		private Accessor(Method method, MethodEntry entry, Method proceed) {
+			this.method = method;
+			this.entry = entry;
+			this.proceed = proceed;
+		}
+	}
+	
+	/**
+	 * The suffix appended to the flattened binary name of an entity type to name its generated proxy class.
+	 */
+	public static final String PROXY_CLASS_SUFFIX = "BowmanProxy";
+	
+	private GeneratedProxySupport() {
+	}
+	
+	/**
+	 * Get the fully-qualified name of the generated proxy class for the given entity type.
+	 * 
+	 * @param entityBinaryName the binary name of the entity type
+	 * @return the name of its generated proxy class
+	 */
+	public static String getProxyClassName(String entityBinaryName) {
+		int packageEnd = entityBinaryName.lastIndexOf('.');
+		
+		return entityBinaryName.substring(0, packageEnd + 1)
+			+ entityBinaryName.substring(packageEnd + 1).replace('$', '_')
+			+ PROXY_CLASS_SUFFIX;
+	}
+	
+	/**
+	 * Find the most specific declaration of a method on the given type or its supertypes.
+	 * 
+	 * @param type the type to search
+	 * @param name the method name
+	 * @param parameterTypes the method parameter types
+	 * @return the method
+	 */
+	public static Method findMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+		Method method = ReflectionUtils.findMethod(type, name, parameterTypes);
+		
+		if (method == null) {
+			throw new ClientProxyException(String.format("Method '%s' could not be found on %s", name,
+				type.getName()));
+		}
+		
+		return method;
+	}
+	
+	/**
+	 * Resolve an intercepted method of the given entity type.
+	 * 
+	 * @param entityType the proxied entity type
+	 * @param method the intercepted method
+	 * @param proceed a method invoking the intercepted method's original implementation on the proxy, or
+	 * <code>null</code> if the proxy calls the entity directly
+	 * @return the accessor
+	 */
+	public static Accessor getAccessor(Class<?> entityType, Method method, Method proceed) {
+		return new Accessor(method, MethodDispatchTable.forType(entityType).getEntry(method), proceed);
+	}
+	
+	/**
+	 * Get the URI of the resource backing a proxy, for its resource id accessor.
+	 * 
+	 * @param handler the proxy's handler
+	 * @return the resource URI
+	 */
+	public static URI getId(MethodHandler handler) {
+		return ((GetterSetterMethodHandler<?>) handler).getUri();
+	}
+	
+	/**
+	 * Get the entity backing a proxy, retrieving its resource if it has not been loaded, for the proxy to call
+	 * its property accessors on directly.
+	 * 
+	 * @param handler the proxy's handler
+	 * @return the entity
+	 */
+	public static Object getContent(MethodHandler handler) {
+		// CHECKSTYLE:OFF
+		
+		try {
+			return ((GetterSetterMethodHandler<?>) handler).getContent();
+		}
+		catch (Throwable throwable) {
+			throw GeneratedProxySupport.<RuntimeException>propagate(throwable);
+		}
+		
+		// CHECKSTYLE:ON
+	}
+	
+	/**
+	 * Get the value of a linked resource accessor of a proxy, propagating any exception unchanged.
+	 * 
+	 * @param handler the proxy's handler
+	 * @param self the proxy
+	 * @param accessor the linked resource accessor
+	 * @return the linked resource
+	 */
+	public static Object getLinkedResource(MethodHandler handler, Object self, Accessor accessor) {
+		// CHECKSTYLE:OFF
+		
+		try {
+			return ((GetterSetterMethodHandler<?>) handler).getLinkedResource(self, accessor.method, accessor.entry,
+				accessor.proceed);
+		}
+		catch (Throwable throwable) {
+			throw GeneratedProxySupport.<RuntimeException>propagate(throwable);
+		}
+		
+		// CHECKSTYLE:ON
+	}
+	
+	/**
+	 * Record that a proxy has called a setter on its entity directly.
+	 * 
+	 * @param handler the proxy's handler
+	 * @param accessor the setter
+	 */
+	public static void setterInvoked(MethodHandler handler, Accessor accessor) {
+		((GetterSetterMethodHandler<?>) handler).setterInvoked(accessor.entry);
+	}
+	
+	/**
+	 * Dispatch an intercepted method call to the proxy's handler, propagating any exception it throws unchanged.
+	 * 
+	 * <p>Proxies use this for the methods they cannot call on their entity directly.
+	 * 
+	 * @param handler the proxy's handler
+	 * @param self the proxy
+	 * @param accessor the intercepted method
+	 * @param args the method arguments
+	 * @return the result of the call
+	 */
+	public static Object invoke(MethodHandler handler, Object self, Accessor accessor, Object[] args) {
+		// CHECKSTYLE:OFF
+		
+		try {
+			return ((GetterSetterMethodHandler<?>) handler).invoke(self, accessor.method, accessor.entry,
+				accessor.proceed, args);
+		}
+		catch (Throwable throwable) {
+			throw GeneratedProxySupport.<RuntimeException>propagate(throwable);
+		}
+		
+		// CHECKSTYLE:ON
+	}
+	
+	private static <E extends Throwable> E propagate(Throwable throwable) throws E {
+		@SuppressWarnings("unchecked")
+		E exception = (E) throwable;
+		throw exception;
+	}
+}
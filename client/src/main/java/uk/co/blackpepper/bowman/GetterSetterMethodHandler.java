@@ -17,23 +17,26 @@ package uk.co.blackpepper.bowman;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.ParameterizedType;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.Resource;
-import org.springframework.hateoas.Resources;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreType;
+import com.fasterxml.jackson.databind.JsonNode;
 
 import javassist.util.proxy.MethodHandler;
-import uk.co.blackpepper.bowman.annotation.LinkedResource;
-import uk.co.blackpepper.bowman.annotation.ResourceId;
-
-import static uk.co.blackpepper.bowman.HalSupport.toLinkName;
+import javassist.util.proxy.Proxy;
+import javassist.util.proxy.ProxyFactory;
+import uk.co.blackpepper.bowman.MethodDispatchTable.MethodEntry;
+import uk.co.blackpepper.bowman.MethodDispatchTable.MethodKind;
 
 @JsonIgnoreType
 class GetterSetterMethodHandler<T> implements MethodHandler {
@@ -43,27 +46,50 @@ class GetterSetterMethodHandler<T> implements MethodHandler {
 	private final Class<T> entityType;
 	
 	private final RestOperations restOperations;
-
-	private Resource<T> resource;
 	
 	private final ClientProxyFactory proxyFactory;
 	
 	private final PropertyValueFactory propertyValueFactory = new DefaultPropertyValueFactory();
 	
-	private final Map<String, Object> linkedResourceResults = new HashMap<>();
+	private final MethodDispatchTable dispatchTable;
+	
+	private final SingleFlightSlots slots;
+	
+	private final int resourceSlot;
+	
+	private final LoadGroup loadGroup;
+	
+	private final AtomicIntegerArray modifiedSlots;
 	
 	GetterSetterMethodHandler(Resource<T> resource, Class<T> entityType, RestOperations restOperations,
 		ClientProxyFactory proxyFactory) {
-		this(getResourceURI(resource), resource, entityType, restOperations, proxyFactory);
+		this(resource, entityType, restOperations, proxyFactory, null);
 	}
 
-	private GetterSetterMethodHandler(URI uri, Resource<T> resource, Class<T> entityType, RestOperations restOperations,
+	GetterSetterMethodHandler(Resource<T> resource, Class<T> entityType, RestOperations restOperations,
+		ClientProxyFactory proxyFactory, LoadGroup loadGroup) {
+		this(getResourceURI(resource), resource, entityType, restOperations, proxyFactory, loadGroup);
+	}
+
+	GetterSetterMethodHandler(URI uri, Class<T> entityType, RestOperations restOperations,
 		ClientProxyFactory proxyFactory) {
+		this(uri, null, entityType, restOperations, proxyFactory, null);
+	}
+
+	private GetterSetterMethodHandler(URI uri, Resource<T> resource, Class<T> entityType, RestOperations restOperations,
+		ClientProxyFactory proxyFactory, LoadGroup loadGroup) {
 		this.uri = uri;
-		this.resource = resource;
 		this.entityType = entityType;
 		this.restOperations = restOperations;
 		this.proxyFactory = proxyFactory;
+		this.loadGroup = loadGroup;
+		this.dispatchTable = MethodDispatchTable.forType(entityType);
+		
+		// linked resource results occupy the slots indexed by the dispatch table, followed by the resource itself
+		this.resourceSlot = dispatchTable.getLinkedResourceCount();
+		this.slots = new SingleFlightSlots(resourceSlot + 1);
+		this.slots.set(resourceSlot, resource);
+		this.modifiedSlots = new AtomicIntegerArray(resourceSlot);
 	}
 
 	// CHECKSTYLE:OFF
@@ -73,36 +99,163 @@ class GetterSetterMethodHandler<T> implements MethodHandler {
 		
 		// CHECKSTYLE:ON
 		
-		if (method.getName().startsWith("set")) {
-			return method.invoke(resource.getContent(), args);
-		}
+		return invoke(self, method, dispatchTable.getEntry(method), proceed, args);
+	}
+	
+	// CHECKSTYLE:OFF
+	
+	/**
+	 * Invoke an intercepted method whose dispatch table entry has already been resolved.
+	 */
+	Object invoke(Object self, Method method, MethodEntry entry, Method proceed, Object[] args) throws Throwable {
+		
+		// CHECKSTYLE:ON
 		
-		if (method.isAnnotationPresent(ResourceId.class)) {
+		if (entry.getKind() == MethodKind.RESOURCE_ID) {
 			return uri;
 		}
 		
-		if (resource == null) {
-			resource = restOperations.getResource(uri, entityType);
+		if (entry.isLinked()) {
+			return getLinkedResource(self, method, entry, proceed);
+		}
+		
+		Object result = entry.invoke(getContent(), args);
+		
+		if (entry.getKind() == MethodKind.SETTER) {
+			setterInvoked(entry);
 		}
+		
+		return result;
+	}
+	
+	URI getUri() {
+		return uri;
+	}
+	
+	/**
+	 * Get the entity backing the proxy, retrieving its resource if it has not been loaded.
+	 */
+	T getContent() throws Exception {
+		return getResource().getContent();
+	}
+	
+	// CHECKSTYLE:OFF
+	
+	/**
+	 * Get the value of a linked resource accessor, resolving its link unless the property has been set.
+	 */
+	Object getLinkedResource(Object self, Method method, MethodEntry entry, Method proceed) throws Throwable {
+		
+		// CHECKSTYLE:ON
+		
+		Resource<T> resource = getResource();
+		
+		if (modifiedSlots.get(entry.getSlot()) == 0) {
+			return getLinkedResource(resource, self, method, entry, proceed);
+		}
+		
+		return entry.invoke(resource.getContent(), null);
+	}
+	
+	/**
+	 * Record that a setter has been invoked on the entity backing the proxy.
+	 */
+	void setterInvoked(MethodEntry entry) {
+		// once set, a linked resource is read from the entity rather than its link
+		if (entry.getSlot() >= 0) {
+			modifiedSlots.set(entry.getSlot(), 1);
+		}
+	}
+	
+	/**
+	 * Get whether the given linked resource property can be read without a remote request, because it has
+	 * been loaded, set or embedded.
+	 */
+	boolean isLinkedResourceAvailable(String property) {
+		Method accessor = dispatchTable.getLinkedAccessor(property);
+		
+		if (accessor == null) {
+			return true;
+		}
+		
+		MethodEntry entry = dispatchTable.getEntry(accessor);
+		
+		if (modifiedSlots.get(entry.getSlot()) != 0 || slots.peek(entry.getSlot()) != null) {
+			return true;
+		}
+		
+		@SuppressWarnings("unchecked")
+		Resource<T> resource = (Resource<T>) slots.peek(resourceSlot);
+		
+		return resource != null && HalResource.getEmbedded(resource, entry.getLinkName()) != null;
+	}
+	
+	/**
+	 * Get the handler of the given proxy, or <code>null</code> if it is not a proxy created by Bowman.
+	 */
+	static GetterSetterMethodHandler<?> forProxy(Object object) {
+		MethodHandler handler;
+		
+		if (object instanceof GeneratedProxy) {
+			handler = ((GeneratedProxy) object).getHandler();
+		}
+		else if (object instanceof Proxy && ProxyFactory.isProxyClass(object.getClass())) {
+			handler = ProxyFactory.getHandler((Proxy) object);
+		}
+		else {
+			return null;
+		}
+		
+		return handler instanceof GetterSetterMethodHandler ? (GetterSetterMethodHandler<?>) handler : null;
+	}
 
-		if (method.isAnnotationPresent(LinkedResource.class)) {
-			Object linkedResourceResult = linkedResourceResults.get(method.getName());
-			
-			if (linkedResourceResult == null) {
-				linkedResourceResult = resolveLinkedResource(self, method, proceed);
-				linkedResourceResults.put(method.getName(), linkedResourceResult);
+	private Resource<T> getResource() throws Exception {
+		@SuppressWarnings("unchecked")
+		Resource<T> resource = (Resource<T>) slots.get(resourceSlot, new Callable<Object>() {
+			@Override
+			public Object call() {
+				return restOperations.getResource(uri, entityType);
 			}
-			
-			return linkedResourceResult;
+		});
+		
+		if (resource == null) {
+			throw new ClientProxyException(String.format("Resource '%s' could not be found!", uri));
+		}
+		
+		return resource;
+	}
+	
+	private Object getLinkedResource(final Resource<T> resource, final Object self, Method method,
+		final MethodEntry entry, final Method proceed) throws Exception {
+		
+		if (loadGroup != null && slots.peek(entry.getSlot()) == null) {
+			loadGroup.batch(self, method);
 		}
 		
-		return method.invoke(resource.getContent(), args);
+		return slots.get(entry.getSlot(), new Callable<Object>() {
+			@Override
+			public Object call() throws Exception {
+				return resolveLinkedResource(resource, self, entry, proceed);
+			}
+		});
 	}
 
-	private Object resolveLinkedResource(Object self, Method method, Method proceed)
-			throws IllegalAccessException, InvocationTargetException {
+	private Object resolveLinkedResource(Resource<T> resource, Object self, MethodEntry entry, Method proceed)
+			throws Exception {
+		
+		String linkName = entry.getLinkName();
+		
+		if (entry.getKind() == MethodKind.LINKED_COLLECTION && entry.getLinkedEntityType() == null) {
+			throw new ClientProxyException(String.format("Element type of linked collection '%s' could not be "
+				+ "determined!", linkName));
+		}
+		
+		JsonNode embedded = HalResource.getEmbedded(resource, linkName);
+		
+		if (embedded != null) {
+			return resolveEmbeddedLinkedResource(embedded, entry.getLinkedEntityType(), entry, self, proceed);
+		}
 		
-		String linkName = getLinkName(method);
 		Link link = resource.getLink(linkName);
 		
 		if (link == null) {
@@ -111,19 +264,83 @@ class GetterSetterMethodHandler<T> implements MethodHandler {
 		
 		URI associationResource = URI.create(link.getHref());
 		
-		if (Collection.class.isAssignableFrom(method.getReturnType())) {
-			Class<?> linkedEntityType = (Class<?>) ((ParameterizedType) method.getGenericReturnType())
-				.getActualTypeArguments()[0];
-			
-			return resolveCollectionLinkedResource(associationResource, linkedEntityType, self, proceed);
+		if (entry.getKind() == MethodKind.LINKED_COLLECTION) {
+			return resolveCollectionLinkedResource(associationResource, entry.getLinkedEntityType(), self, proceed);
 		}
 
-		return resolveSingleLinkedResource(associationResource, method.getReturnType());
+		return resolveSingleLinkedResource(associationResource, entry.getLinkedEntityType());
+	}
+
+	private <F> F resolveSingleLinkedResource(final URI associationResource, final Class<F> linkedEntityType)
+			throws Exception {
+		
+		Callable<Object> loader = new Callable<Object>() {
+			@Override
+			public Object call() {
+				F proxy = proxyFactory.find(associationResource, linkedEntityType);
+				
+				if (proxy != null) {
+					return proxy;
+				}
+				
+				return createProxy(restOperations.getResource(associationResource, linkedEntityType));
+			}
+		};
+		
+		@SuppressWarnings("unchecked")
+		F linkedResource = (F) (loadGroup == null ? loader.call()
+			: loadGroup.load(Arrays.asList(MethodKind.LINKED_RESOURCE, associationResource), loader));
+		
+		return linkedResource;
 	}
 
-	private <F> F resolveSingleLinkedResource(URI associationResource, Class<F> linkedEntityType) {
-		Resource<F> linkedResource = restOperations.getResource(associationResource, linkedEntityType);
+	private <F> Collection<F> resolveCollectionLinkedResource(final URI associationResource,
+		final Class<F> linkedEntityType, Object contextEntity, Method originalMethod) throws Exception {
+		
+		Callable<Object> loader = new Callable<Object>() {
+			@Override
+			public Object call() {
+				return createProxies(restOperations.getResources(associationResource, linkedEntityType));
+			}
+		};
+		
+		@SuppressWarnings("unchecked")
+		List<F> linkedResources = (List<F>) (loadGroup == null ? loader.call()
+			: loadGroup.load(Arrays.asList(MethodKind.LINKED_COLLECTION, associationResource), loader));
 		
+		return createCollection(linkedResources, contextEntity, originalMethod);
+	}
+	
+	private <F> Object resolveEmbeddedLinkedResource(JsonNode embedded, Class<F> linkedEntityType, MethodEntry entry,
+		Object contextEntity, Method originalMethod) throws IllegalAccessException, InvocationTargetException {
+		
+		if (entry.getKind() == MethodKind.LINKED_COLLECTION) {
+			Iterable<JsonNode> nodes = embedded;
+			
+			if (embedded.isNull()) {
+				nodes = Collections.emptyList();
+			}
+			else if (!embedded.isArray()) {
+				nodes = Collections.singletonList(embedded);
+			}
+			
+			List<Resource<F>> resources = new ArrayList<>();
+			
+			for (JsonNode node : nodes) {
+				resources.add(restOperations.readResource(node, linkedEntityType));
+			}
+			
+			return createCollection(createProxies(resources), contextEntity, originalMethod);
+		}
+		
+		if (embedded.isNull()) {
+			return null;
+		}
+		
+		return createProxy(restOperations.readResource(embedded, linkedEntityType));
+	}
+	
+	private <F> F createProxy(Resource<F> linkedResource) {
 		if (linkedResource == null) {
 			return null;
 		}
@@ -131,10 +348,27 @@ class GetterSetterMethodHandler<T> implements MethodHandler {
 		return proxyFactory.create(linkedResource, restOperations);
 	}
 
-	private <F> Collection<F> resolveCollectionLinkedResource(URI associationResource, Class<F> linkedEntityType,
-		Object contextEntity, Method originalMethod) throws IllegalAccessException, InvocationTargetException {
+	private <F> List<F> createProxies(Iterable<Resource<F>> resources) {
+		List<F> proxies = new ArrayList<>();
+		int batchLoadWindow = restOperations.getBatchLoadWindow();
+		LoadGroup elementLoadGroup = batchLoadWindow > 0 ? new LoadGroup(restOperations.getExecutor(), batchLoadWindow)
+			: null;
 		
-		Resources<Resource<F>> resources = restOperations.getResources(associationResource, linkedEntityType);
+		for (Resource<F> resource : resources) {
+			F proxy = proxyFactory.create(resource, restOperations, elementLoadGroup);
+			
+			if (elementLoadGroup != null) {
+				elementLoadGroup.add(proxy);
+			}
+			
+			proxies.add(proxy);
+		}
+		
+		return proxies;
+	}
+
+	private <F> Collection<F> createCollection(List<F> proxies, Object contextEntity,
+		Method originalMethod) throws IllegalAccessException, InvocationTargetException {
 		
 		@SuppressWarnings("unchecked")
 		Collection<F> collection = (Collection<F>) originalMethod.invoke(contextEntity);
@@ -146,23 +380,11 @@ class GetterSetterMethodHandler<T> implements MethodHandler {
 			collection.clear();
 		}
 		
-		for (Resource<F> resource : resources) {
-			collection.add(proxyFactory.create(resource, restOperations));
-		}
+		collection.addAll(proxies);
 		
 		return collection;
 	}
 	
-	private static String getLinkName(Method method) {
-		String rel = method.getAnnotation(LinkedResource.class).rel();
-		
-		if ("".equals(rel)) {
-			rel = toLinkName(method.getName());
-		}
-		
-		return rel;
-	}
-
 	private static <T> URI getResourceURI(Resource<T> resource) {
 		Link selfLink = resource.getLink(Link.REL_SELF);
 		return selfLink == null ? null : URI.create(selfLink.getHref());
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.util.Map;
+
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A {@link Resource} that retains the sub-resources of its HAL <code>_embedded</code> property, keyed by rel,
+ * until the type of the association they belong to is known.
+ *
+ * @param <T> the content type
+ */
+class HalResource<T> extends Resource<T> {
+	
+	private final Map<String, JsonNode> embedded;
+	
+	HalResource(T content, Iterable<Link> links, Map<String, JsonNode> embedded) {
+		super(content, links);
+		
+		this.embedded = embedded;
+	}
+	
+	static JsonNode getEmbedded(Resource<?> resource, String rel) {
+		if (!(resource instanceof HalResource)) {
+			return null;
+		}
+		
+		return ((HalResource<?>) resource).embedded.get(rel);
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		return super.equals(obj) && embedded.equals(((HalResource<?>) obj).embedded);
+	}
+	
+	@Override
+	public int hashCode() {
+		return super.hashCode() + 31 * embedded.hashCode();
+	}
+}
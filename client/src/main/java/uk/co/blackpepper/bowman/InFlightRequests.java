@@ -0,0 +1,135 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * The GET requests currently being made, so that concurrent requests for the same resource share a single
+ * response.
+ * 
+ * <p>Only the raw response body is shared, and each caller reads its own copy of the resource from it. Proxies
+ * delegate to their resource's content, so sharing deserialized resources would let callers see each other's
+ * changes. A request is forgotten as soon as it completes, so nothing is cached beyond its lifetime.
+ * 
+ * <p>Requests are identified by URI and entity type alone, so a response is only handed to the other callers if
+ * it is {@link Response#isShared() shared}; callers waiting on a response that is not make their own request.
+ */
+final class InFlightRequests {
+	
+	/**
+	 * The response body of a request, and whether it may be given to other callers.
+	 */
+	static final class Response {
+		
+		private final byte[] body;
+		
+		private final boolean shared;
+		
+		Response(byte[] body, boolean shared) {
+			this.body = body;
+			this.shared = shared;
+		}
+		
+		/**
+		 * @return the response body, or <code>null</code> if the resource was not found
+		 */
+		byte[] getBody() {
+			return body;
+		}
+		
+		/**
+		 * @return whether the response is the same for every caller, as determined by
+		 * {@link ResponseCache#isShared(org.springframework.http.HttpHeaders, org.springframework.http.HttpHeaders)}
+		 */
+		boolean isShared() {
+			return shared;
+		}
+	}
+	
+	private final ConcurrentMap<Object, FutureTask<Response>> requests = new ConcurrentHashMap<>();
+	
+	/**
+	 * Get the response body for the given resource, making the request only if there is no identical request in
+	 * flight whose response is shared.
+	 * 
+	 * @return the response body, or <code>null</code> if the resource was not found
+	 */
+	byte[] get(URI uri, Class<?> entityType, Callable<Response> request) {
+		Object key = Arrays.asList(uri, entityType);
+		FutureTask<Response> task = new FutureTask<>(request);
+		FutureTask<Response> existing = requests.putIfAbsent(key, task);
+		
+		if (existing == null) {
+			try {
+				task.run();
+			}
+			finally {
+				requests.remove(key, task);
+			}
+			
+			return getBody(task);
+		}
+		
+		Response response = await(existing);
+		
+		return response.isShared() ? response.getBody() : getBody(request);
+	}
+	
+	int size() {
+		return requests.size();
+	}
+	
+	private static byte[] getBody(Callable<Response> request) {
+		FutureTask<Response> task = new FutureTask<>(request);
+		task.run();
+		return getBody(task);
+	}
+	
+	private static byte[] getBody(FutureTask<Response> task) {
+		return await(task).getBody();
+	}
+	
+	private static Response await(FutureTask<Response> task) {
+		try {
+			return task.get();
+		}
+		catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new ClientProxyException("interrupted waiting for a concurrent request", exception);
+		}
+		catch (ExecutionException exception) {
+			throw unwrap(exception);
+		}
+	}
+	
+	private static RuntimeException unwrap(ExecutionException exception) {
+		Throwable cause = exception.getCause();
+		
+		if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+		
+		return cause instanceof RuntimeException ? (RuntimeException) cause
+			: new ClientProxyException("couldn't make request", cause);
+	}
+}
@@ -52,6 +52,9 @@ public class InlineAssociationDeserializer<T> extends StdDeserializer<T> impleme
 
 	private ClientProxyFactory proxyFactory;
 	
+	// resolved on first use rather than in createContextual, which may run while a cyclic type is being resolved
+	private transient volatile JsonDeserializer<Object> resourceDeserializer;
+	
 	InlineAssociationDeserializer(Class<T> type, RestOperations restOperations,
 			ClientProxyFactory proxyFactory) {
 		super(type);
@@ -63,9 +66,23 @@ public class InlineAssociationDeserializer<T> extends StdDeserializer<T> impleme
 
 	@Override
 	public T deserialize(JsonParser p, DeserializationContext ctxt) throws IOException, JsonProcessingException {
-		JavaType resourceType = ctxt.getTypeFactory().constructParametricType(Resource.class, type);
+		JsonDeserializer<Object> deserializer = resourceDeserializer;
+		
+		if (deserializer == null) {
+			JavaType resourceType = ctxt.getTypeFactory().constructParametricType(Resource.class, type);
+			deserializer = ctxt.findRootValueDeserializer(resourceType);
+			resourceDeserializer = deserializer;
+		}
+		
+		@SuppressWarnings("unchecked")
+		Resource<T> resource = (Resource<T>) deserializer.deserialize(p, ctxt);
+		
+		// operations with their own proxy factory, such as a session's, are passed by the reader
+		RestOperations sessionOperations = (RestOperations) ctxt.getAttribute(RestOperations.class);
 		
-		Resource<T> resource = p.getCodec().readValue(p, resourceType);
+		if (sessionOperations != null) {
+			return sessionOperations.getProxyFactory().create(resource, sessionOperations);
+		}
 		
 		return proxyFactory.create(resource, restOperations);
 	}
@@ -17,6 +17,7 @@ package uk.co.blackpepper.bowman;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.ListIterator;
 
 import org.springframework.hateoas.Resource;
 
@@ -84,6 +85,33 @@ public class JacksonClientModule extends SimpleModule {
 		}
 	}
 	
+	/**
+	 * Omits linked resources of proxies that have not been loaded, which the remote resource already holds,
+	 * rather than loading them only to serialize their URIs.
+	 */
+	private static class LinkedResourcePropertyWriter extends BeanPropertyWriter {
+
+		private static final long serialVersionUID = 2952297932339577530L;
+
+		private final String property;
+
+		LinkedResourcePropertyWriter(BeanPropertyWriter base) {
+			super(base);
+			property = HalSupport.toLinkName(base.getMember().getName());
+		}
+
+		@Override
+		public void serializeAsField(Object bean, JsonGenerator gen, SerializerProvider prov) throws Exception {
+			GetterSetterMethodHandler<?> handler = GetterSetterMethodHandler.forProxy(bean);
+
+			if (handler != null && !handler.isLinkedResourceAvailable(property)) {
+				return;
+			}
+
+			super.serializeAsField(bean, gen, prov);
+		}
+	}
+	
 	public JacksonClientModule() {
 		setSerializerModifier(new BeanSerializerModifier() {
 
@@ -91,9 +119,15 @@ public class JacksonClientModule extends SimpleModule {
 			public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
 					List<BeanPropertyWriter> beanProperties) {
 				
-				for (BeanPropertyWriter writer : beanProperties) {
+				ListIterator<BeanPropertyWriter> writers = beanProperties.listIterator();
+				
+				while (writers.hasNext()) {
+					BeanPropertyWriter writer = writers.next();
+					
 					if (writer.getAnnotation(LinkedResource.class) != null) {
+						writer = new LinkedResourcePropertyWriter(writer);
 						writer.assignSerializer(new LinkedResourceUriSerializer());
+						writers.set(writer);
 					}
 				}
 				
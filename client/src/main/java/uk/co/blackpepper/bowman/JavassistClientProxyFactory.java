@@ -15,7 +15,9 @@
  */
 package uk.co.blackpepper.bowman;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.net.URI;
 
 import org.springframework.hateoas.Resource;
 
@@ -35,35 +37,89 @@ class JavassistClientProxyFactory implements ClientProxyFactory {
 	}
 	
 	private static final MethodFilter FILTER_INSTANCE = new GetterSetterMethodFilter();
+	
+	private static final ClassValue<Constructor<?>> PROXY_CONSTRUCTORS = new ClassValue<Constructor<?>>() {
+		@Override
+		protected Constructor<?> computeValue(Class<?> entityType) {
+			return createProxyConstructor(entityType);
+		}
+	};
 
 	@Override
 	public <T> T create(Resource<T> resource, RestOperations restOperations) {
+		return create(resource, restOperations, null, this);
+	}
+	
+	@Override
+	public <T> T create(Resource<T> resource, RestOperations restOperations, LoadGroup loadGroup) {
+		return create(resource, restOperations, loadGroup, this);
+	}
+	
+	@Override
+	public <T> T create(Resource<T> resource, RestOperations restOperations, LoadGroup loadGroup,
+		ClientProxyFactory linkedProxyFactory) {
+		
 		@SuppressWarnings("unchecked")
 		Class<T> entityType = (Class<T>) resource.getContent().getClass();
 		
 		return createProxyInstance(entityType,
-			new GetterSetterMethodHandler<>(resource, entityType, restOperations, this));
+			new GetterSetterMethodHandler<>(resource, entityType, restOperations, linkedProxyFactory, loadGroup));
+	}
+
+	@Override
+	public <T> T create(URI uri, Class<T> entityType, RestOperations restOperations) {
+		return create(uri, entityType, restOperations, this);
+	}
+	
+	@Override
+	public <T> T create(URI uri, Class<T> entityType, RestOperations restOperations,
+		ClientProxyFactory linkedProxyFactory) {
+		return createProxyInstance(entityType,
+			new GetterSetterMethodHandler<>(uri, entityType, restOperations, linkedProxyFactory));
+	}
+	
+	@Override
+	public <T> T find(URI uri, Class<T> entityType) {
+		return null;
+	}
+	
+	@Override
+	public void forget(URI uri) {
+		// proxies are not tracked
 	}
 
 	private static <T> T createProxyInstance(Class<T> entityType, MethodHandler methodHandler) {
+		T proxy = instantiateClass(PROXY_CONSTRUCTORS.get(entityType));
+		((Proxy) proxy).setHandler(methodHandler);
+		return proxy;
+	}
+
+	private static Constructor<?> createProxyConstructor(Class<?> entityType) {
 		ProxyFactory factory = new ProxyFactory();
 		factory.setSuperclass(entityType);
 		factory.setFilter(FILTER_INSTANCE);
 		
 		Class<?> clazz = factory.createClass();
-		T proxy = instantiateClass(clazz);
-		((Proxy) proxy).setHandler(methodHandler);
-		return proxy;
+		
+		try {
+			Constructor<?> constructor = clazz.getDeclaredConstructor();
+			constructor.setAccessible(true);
+			return constructor;
+		}
+		catch (NoSuchMethodException exception) {
+			throw new ClientProxyException("couldn't find proxy constructor of " + clazz, exception);
+		}
 	}
 
-	private static <T> T instantiateClass(Class<?> clazz) {
+	private static <T> T instantiateClass(Constructor<?> constructor) {
 		try {
 			@SuppressWarnings("unchecked")
-			T proxy = (T) clazz.newInstance();
+			T proxy = (T) constructor.newInstance();
 			return proxy;
 		}
 		catch (Exception exception) {
-			throw new ClientProxyException("couldn't create proxy instance of " + clazz, exception);
+			throw new ClientProxyException("couldn't create proxy instance of " + constructor.getDeclaringClass(),
+				exception);
 		}
 	}
 }
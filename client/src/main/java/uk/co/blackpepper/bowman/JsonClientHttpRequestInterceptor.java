@@ -1,39 +0,0 @@
-/*
- * Copyright 2016 Black Pepper Software
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *     http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-package uk.co.blackpepper.bowman;
-
-import java.io.IOException;
-
-import org.springframework.hateoas.MediaTypes;
-import org.springframework.http.HttpRequest;
-import org.springframework.http.client.ClientHttpRequestExecution;
-import org.springframework.http.client.ClientHttpRequestInterceptor;
-import org.springframework.http.client.ClientHttpResponse;
-import org.springframework.http.client.support.HttpRequestWrapper;
-
-import static java.util.Arrays.asList;
-
-class JsonClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
-
-	@Override
-	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
-			throws IOException {
-		HttpRequestWrapper wrapped = new HttpRequestWrapper(request);
-		wrapped.getHeaders().put("Content-Type", asList(MediaTypes.HAL_JSON_VALUE));
-		wrapped.getHeaders().put("Accept", asList(MediaTypes.HAL_JSON_VALUE));
-		return execution.execute(wrapped, body);
-	}
-}
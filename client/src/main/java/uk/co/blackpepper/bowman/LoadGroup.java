@@ -0,0 +1,162 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Proxies created from the same collection response, which load their linked resources together.
+ * 
+ * <p>The first access to a linked resource accessor on a member starts loading that linked resource concurrently
+ * for a window of the members following it, and members linking to the same resource while it is loading share a
+ * single request. This removes the N+1 pattern of iterating a collection and loading each element's linked resource
+ * in turn, without requesting the whole collection's linked resources at once.
+ */
+final class LoadGroup {
+	
+	private final Executor executor;
+	
+	private final int window;
+	
+	private final List<Object> members = new ArrayList<>();
+	
+	private final Map<Object, Integer> memberIndexes = new IdentityHashMap<>();
+	
+	private final Map<Method, BitSet> startedMembers = new HashMap<>();
+	
+	private final ConcurrentMap<Object, FutureTask<Object>> loads = new ConcurrentHashMap<>();
+	
+	LoadGroup(Executor executor, int window) {
+		this.executor = executor;
+		this.window = window;
+	}
+	
+	synchronized void add(Object member) {
+		memberIndexes.put(member, members.size());
+		members.add(member);
+	}
+	
+	/**
+	 * Start loading the given linked resource accessor on up to the window's number of members following the
+	 * requester, unless the requester's own access was started by an earlier window.
+	 */
+	void batch(Object requester, final Method accessor) {
+		for (final Object member : startWindow(requester, accessor)) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						accessor.invoke(member);
+					}
+					catch (Exception exception) {
+						// failures are not retained, so the member's own access will retry and report them
+					}
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Load the value for the given key at most once for the group while it is loading, however many members
+	 * request it.
+	 */
+	Object load(Object key, Callable<Object> loader) throws Exception {
+		FutureTask<Object> task = new FutureTask<>(loader);
+		FutureTask<Object> existing = loads.putIfAbsent(key, task);
+		
+		if (existing == null) {
+			task.run();
+		}
+		else {
+			task = existing;
+		}
+		
+		try {
+			return task.get();
+		}
+		catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new ClientProxyException("interrupted waiting for a concurrent load", exception);
+		}
+		catch (ExecutionException exception) {
+			loads.remove(key, task);
+			throw unwrap(exception);
+		}
+	}
+	
+	private synchronized List<Object> startWindow(Object requester, Method accessor) {
+		Integer index = memberIndexes.get(requester);
+		BitSet started = startedMembers.get(accessor);
+		
+		if (started == null) {
+			started = new BitSet(members.size());
+			startedMembers.put(accessor, started);
+		}
+		
+		// members loaded by a window do not start windows of their own, so loading never cascades through the group
+		if (index == null || started.get(index)) {
+			return Collections.emptyList();
+		}
+		
+		started.set(index);
+		
+		// the loads of earlier windows have been handed to their members by now, so stop retaining them
+		removeCompletedLoads();
+		
+		List<Object> windowMembers = new ArrayList<>();
+		int next = started.nextClearBit(index + 1);
+		
+		while (windowMembers.size() < window && next < members.size()) {
+			started.set(next);
+			Object member = members.get(next);
+			
+			if (accessor.getDeclaringClass().isInstance(member)) {
+				windowMembers.add(member);
+			}
+			
+			next = started.nextClearBit(next + 1);
+		}
+		
+		return windowMembers;
+	}
+	
+	private void removeCompletedLoads() {
+		loads.values().removeIf(FutureTask::isDone);
+	}
+	
+	private static Exception unwrap(ExecutionException exception) {
+		Throwable cause = exception.getCause();
+		
+		if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+		
+		return cause instanceof Exception ? (Exception) cause : exception;
+	}
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.beans.Introspector;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.util.ReflectionUtils;
+
+import uk.co.blackpepper.bowman.annotation.LinkedResource;
+import uk.co.blackpepper.bowman.annotation.ResourceId;
+
+import static uk.co.blackpepper.bowman.HalSupport.toLinkName;
+
+/**
+ * Per-entity-type table of the accessors intercepted by {@link GetterSetterMethodHandler}, resolved once
+ * so that proxied calls avoid repeated annotation and name inspection.
+ */
+final class MethodDispatchTable {
+
+	enum MethodKind {
+		SETTER,
+		RESOURCE_ID,
+		LINKED_RESOURCE,
+		LINKED_COLLECTION,
+		PROPERTY
+	}
+
+	static final class MethodEntry {
+
+		private static final MethodType GENERIC_TYPE = MethodType.methodType(Object.class, Object.class,
+			Object[].class);
+
+		private static final Object[] NO_ARGS = new Object[0];
+
+		private final MethodKind kind;
+
+		private final MethodHandle handle;
+
+		private final String linkName;
+
+		private final Class<?> linkedEntityType;
+
+		private final int slot;
+
+		MethodEntry(MethodKind kind, MethodHandle handle, String linkName, Class<?> linkedEntityType, int slot) {
+			this.kind = kind;
+			this.handle = handle;
+			this.linkName = linkName;
+			this.linkedEntityType = linkedEntityType;
+			this.slot = slot;
+		}
+
+		MethodKind getKind() {
+			return kind;
+		}
+
+		boolean isLinked() {
+			return kind == MethodKind.LINKED_RESOURCE || kind == MethodKind.LINKED_COLLECTION;
+		}
+
+		String getLinkName() {
+			return linkName;
+		}
+
+		Class<?> getLinkedEntityType() {
+			return linkedEntityType;
+		}
+
+		int getSlot() {
+			return slot;
+		}
+
+		// CHECKSTYLE:OFF
+
+		Object invoke(Object target, Object[] args) throws Throwable {
+
+			// CHECKSTYLE:ON
+
+			Object[] arguments = args == null ? NO_ARGS : args;
+			return (Object) handle.invokeExact(target, arguments);
+		}
+	}
+
+	private static final ClassValue<MethodDispatchTable> TABLES = new ClassValue<MethodDispatchTable>() {
+		@Override
+		protected MethodDispatchTable computeValue(Class<?> entityType) {
+			return new MethodDispatchTable(entityType);
+		}
+	};
+
+	private final Class<?> entityType;
+
+	private final Map<Method, MethodEntry> entries = new HashMap<>();
+
+	private final Map<String, Method> linkedAccessors = new LinkedHashMap<>();
+
+	private final int linkedResourceCount;
+
+	private MethodDispatchTable(Class<?> entityType) {
+		this.entityType = entityType;
+
+		Map<String, Integer> slots = new HashMap<>();
+		List<Method> setters = new ArrayList<>();
+
+		for (Method method : ReflectionUtils.getAllDeclaredMethods(entityType)) {
+			if (!isDispatched(method)) {
+				continue;
+			}
+
+			if (isSetter(method)) {
+				setters.add(method);
+				continue;
+			}
+
+			MethodEntry entry = createEntry(method, slots);
+			entries.put(method, entry);
+
+			// methods are visited subclass first, so keep the most specific accessor for each property
+			String property = entry.isLinked() ? toLinkName(method.getName()) : null;
+			if (property != null && !linkedAccessors.containsKey(property)) {
+				linkedAccessors.put(property, method);
+			}
+		}
+
+		// setters share the slot of their linked resource accessor, if any, once all accessors are known
+		for (Method setter : setters) {
+			Integer slot = slots.get(Introspector.decapitalize(setter.getName().substring(3)));
+			entries.put(setter, new MethodEntry(MethodKind.SETTER, createHandle(setter), null, null,
+				slot == null ? -1 : slot));
+		}
+
+		linkedResourceCount = slots.size();
+	}
+
+	static MethodDispatchTable forType(Class<?> entityType) {
+		return TABLES.get(entityType);
+	}
+
+	MethodEntry getEntry(Method method) {
+		MethodEntry entry = entries.get(method);
+
+		if (entry == null) {
+			throw new ClientProxyException(String.format("Method '%s' is not an accessor of %s", method,
+				entityType.getName()));
+		}
+
+		return entry;
+	}
+
+	/**
+	 * Get the linked resource accessor for the given property name, or <code>null</code> if there is none.
+	 */
+	Method getLinkedAccessor(String property) {
+		return linkedAccessors.get(property);
+	}
+
+	Map<String, Method> getLinkedAccessors() {
+		return Collections.unmodifiableMap(linkedAccessors);
+	}
+
+	int getLinkedResourceCount() {
+		return linkedResourceCount;
+	}
+
+	private static boolean isSetter(Method method) {
+		return method.getName().startsWith("set");
+	}
+
+	private static boolean isDispatched(Method method) {
+		return method.getDeclaringClass() != Object.class
+			&& !Modifier.isStatic(method.getModifiers())
+			&& !Modifier.isPrivate(method.getModifiers())
+			&& (method.getName().startsWith("get") || method.getName().startsWith("is")
+				|| method.getName().startsWith("set"));
+	}
+
+	private static MethodEntry createEntry(Method method, Map<String, Integer> slots) {
+		MethodHandle handle = createHandle(method);
+
+		if (method.isAnnotationPresent(ResourceId.class)) {
+			return new MethodEntry(MethodKind.RESOURCE_ID, handle, null, null, -1);
+		}
+
+		if (method.isAnnotationPresent(LinkedResource.class)) {
+			String property = toLinkName(method.getName());
+			Integer slot = slots.get(property);
+
+			if (slot == null) {
+				slot = slots.size();
+				slots.put(property, slot);
+			}
+
+			if (Collection.class.isAssignableFrom(method.getReturnType())) {
+				return new MethodEntry(MethodKind.LINKED_COLLECTION, handle, getLinkName(method),
+					getCollectionElementType(method), slot);
+			}
+
+			return new MethodEntry(MethodKind.LINKED_RESOURCE, handle, getLinkName(method), method.getReturnType(),
+				slot);
+		}
+
+		return new MethodEntry(MethodKind.PROPERTY, handle, null, null, -1);
+	}
+
+	private static MethodHandle createHandle(Method method) {
+		if (!Modifier.isPublic(method.getModifiers())
+			|| !Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+			method.setAccessible(true);
+		}
+
+		try {
+			return MethodHandles.lookup().unreflect(method)
+				.asSpreader(Object[].class, method.getParameterTypes().length)
+				.asType(MethodEntry.GENERIC_TYPE);
+		}
+		catch (IllegalAccessException exception) {
+			throw new ClientProxyException("couldn't access method " + method, exception);
+		}
+	}
+
+	private static String getLinkName(Method method) {
+		String rel = method.getAnnotation(LinkedResource.class).rel();
+
+		if ("".equals(rel)) {
+			rel = toLinkName(method.getName());
+		}
+
+		return rel;
+	}
+
+	private static Class<?> getCollectionElementType(Method method) {
+		Type returnType = method.getGenericReturnType();
+
+		if (!(returnType instanceof ParameterizedType)) {
+			return null;
+		}
+
+		Type elementType = ((ParameterizedType) returnType).getActualTypeArguments()[0];
+		return elementType instanceof Class<?> ? (Class<?>) elementType : null;
+	}
+}
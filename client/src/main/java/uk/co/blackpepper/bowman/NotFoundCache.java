@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded record of the URIs recently found not to exist, so that repeated lookups of a missing resource can be
+ * answered without a request.
+ * 
+ * <p>Each URI is remembered for the time-to-live configured for the entity type it was requested as. The least
+ * recently used URIs are evicted once the configured maximum size is reached.
+ */
+final class NotFoundCache {
+	
+	private final Configuration configuration;
+	
+	private final LongSupplier ticker;
+	
+	private final Map<URI, Long> expiries;
+	
+	NotFoundCache(Configuration configuration) {
+		this(configuration, System::nanoTime);
+	}
+	
+	NotFoundCache(Configuration configuration, LongSupplier ticker) {
+		this.configuration = configuration;
+		this.ticker = ticker;
+		
+		final int maximumSize = configuration.getNotFoundCacheSize();
+		
+		expiries = new LinkedHashMap<URI, Long>(16, 0.75f, true) {
+			
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<URI, Long> eldest) {
+				return size() > maximumSize;
+			}
+		};
+	}
+	
+	synchronized boolean contains(URI uri) {
+		Long expiry = expiries.get(uri);
+		
+		if (expiry == null) {
+			return false;
+		}
+		
+		if (ticker.getAsLong() - expiry >= 0) {
+			expiries.remove(uri);
+			return false;
+		}
+		
+		return true;
+	}
+	
+	void put(URI uri, Class<?> entityType) {
+		long ttl = configuration.getNotFoundCacheTtl(entityType, TimeUnit.NANOSECONDS);
+		
+		if (ttl <= 0) {
+			return;
+		}
+		
+		long expiry = ticker.getAsLong() + ttl;
+		
+		synchronized (this) {
+			expiries.put(uri, expiry);
+		}
+	}
+	
+	synchronized void remove(URI uri) {
+		expiries.remove(uri);
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.function.Function;
+
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
+import org.springframework.hateoas.Resources;
+
+/**
+ * Iterates over the pages of a paginated collection resource by following their <code>next</code> links,
+ * retrieving up to a given number of pages in the background ahead of the page last returned.
+ *
+ * <p>Each page is retrieved by its own task once the link to it is known, so no thread is held while the
+ * caller reads a page, and the caller only waits on tasks it has already submitted.
+ */
+final class PageIterator<T> implements Iterator<Resources<Resource<T>>>, Closeable {
+
+	private final Function<URI, Resources<Resource<T>>> fetcher;
+
+	private final Executor executor;
+
+	private final int prefetch;
+
+	// guarded by this: pages submitted but not yet returned, in order
+	private final Deque<FutureTask<Resources<Resource<T>>>> pages = new ArrayDeque<>();
+
+	// guarded by this: the link to the page after the last submitted, once known and if not yet submitted
+	private URI nextUri;
+
+	// guarded by this
+	private boolean closed;
+
+	PageIterator(URI firstUri, Function<URI, Resources<Resource<T>>> fetcher, Executor executor, int prefetch) {
+		this.fetcher = fetcher;
+		this.executor = executor;
+		this.prefetch = prefetch;
+
+		nextUri = firstUri;
+	}
+
+	@Override
+	public synchronized boolean hasNext() {
+		return !pages.isEmpty() || nextUri != null;
+	}
+
+	@Override
+	public Resources<Resource<T>> next() {
+		FutureTask<Resources<Resource<T>>> page;
+
+		synchronized (this) {
+			if (pages.isEmpty() && nextUri != null) {
+				submit();
+			}
+
+			page = pages.poll();
+		}
+
+		if (page == null) {
+			throw new NoSuchElementException();
+		}
+
+		Resources<Resource<T>> result = await(page);
+
+		synchronized (this) {
+			if (nextUri != null && pages.size() < prefetch) {
+				submit();
+			}
+		}
+
+		return result;
+	}
+
+	@Override
+	public synchronized void close() {
+		closed = true;
+		nextUri = null;
+
+		for (FutureTask<Resources<Resource<T>>> page : pages) {
+			page.cancel(true);
+		}
+
+		pages.clear();
+	}
+
+	private void submit() {
+		final URI uri = nextUri;
+		nextUri = null;
+
+		FutureTask<Resources<Resource<T>>> page = new FutureTask<>(() -> {
+			Resources<Resource<T>> result = fetcher.apply(uri);
+			fetched(result);
+			return result;
+		});
+
+		pages.add(page);
+		executor.execute(page);
+	}
+
+	private synchronized void fetched(Resources<Resource<T>> page) {
+		Link next = page.getLink(Link.REL_NEXT);
+
+		if (next == null || closed) {
+			return;
+		}
+
+		nextUri = URI.create(next.expand().getHref());
+
+		if (pages.size() < prefetch) {
+			submit();
+		}
+	}
+
+	private static <P> P await(FutureTask<P> page) {
+		try {
+			return page.get();
+		}
+		catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new ClientProxyException("interrupted waiting for page", exception);
+		}
+		catch (ExecutionException exception) {
+			Throwable cause = exception.getCause();
+
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+
+			throw cause instanceof RuntimeException ? (RuntimeException) cause
+				: new ClientProxyException("couldn't retrieve page", cause);
+		}
+	}
+}
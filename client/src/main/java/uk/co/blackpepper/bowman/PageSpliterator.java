@@ -0,0 +1,227 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Splittable spliterator over the pages of a paginated collection resource whose page count is known,
+ * retrieving the pages concurrently.
+ *
+ * <p>Up to the given parallelism of pages are retrieved in the background ahead of being consumed, in page
+ * order. A page that is needed before it has been submitted is retrieved by the consuming thread itself, so
+ * consumers of different splits never wait on each other's pages. When unordered, each split returns its
+ * pages as they arrive rather than in page order.
+ *
+ * @param <P> the page type
+ */
+final class PageSpliterator<P> implements Spliterator<P> {
+
+	/**
+	 * The retrieval state of all the pages, shared between splits.
+	 */
+	static final class Pages<P> {
+
+		private final List<FutureTask<P>> tasks = new ArrayList<>();
+
+		private final Executor executor;
+
+		private final int parallelism;
+
+		// guarded by this: pages whose retrieval has been started by the executor or a consumer
+		private final boolean[] claimed;
+
+		// guarded by this: pages submitted to the executor and not yet consumed
+		private final boolean[] windowed;
+
+		// guarded by this
+		private int windowSize;
+
+		// guarded by this
+		private int nextToSubmit = 1;
+
+		Pages(final P firstPage, int totalPages, final IntFunction<P> fetcher, Executor executor,
+			int parallelism) {
+
+			this.executor = executor;
+			this.parallelism = parallelism;
+
+			claimed = new boolean[totalPages];
+			windowed = new boolean[totalPages];
+
+			for (int index = 0; index < totalPages; index++) {
+				final int page = index;
+				tasks.add(new FutureTask<>(() -> page == 0 ? firstPage : fetcher.apply(page)));
+			}
+
+			tasks.get(0).run();
+			claimed[0] = true;
+
+			fill();
+		}
+
+		int size() {
+			return tasks.size();
+		}
+
+		boolean isDone(int index) {
+			return tasks.get(index).isDone();
+		}
+
+		P take(int index) {
+			FutureTask<P> task = tasks.get(index);
+			boolean runHere;
+
+			synchronized (this) {
+				runHere = !claimed[index];
+				claimed[index] = true;
+			}
+
+			if (runHere) {
+				task.run();
+			}
+
+			P page = await(task);
+
+			synchronized (this) {
+				if (windowed[index]) {
+					windowed[index] = false;
+					windowSize--;
+					fill();
+				}
+			}
+
+			return page;
+		}
+
+		synchronized void close() {
+			nextToSubmit = tasks.size();
+		}
+
+		private synchronized void fill() {
+			while (windowSize < parallelism && nextToSubmit < tasks.size()) {
+				int index = nextToSubmit++;
+
+				if (!claimed[index]) {
+					claimed[index] = true;
+					windowed[index] = true;
+					windowSize++;
+					executor.execute(tasks.get(index));
+				}
+			}
+		}
+
+		private static <R> R await(FutureTask<R> task) {
+			try {
+				return task.get();
+			}
+			catch (InterruptedException exception) {
+				Thread.currentThread().interrupt();
+				throw new ClientProxyException("interrupted waiting for page", exception);
+			}
+			catch (ExecutionException exception) {
+				Throwable cause = exception.getCause();
+
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+
+				throw cause instanceof RuntimeException ? (RuntimeException) cause
+					: new ClientProxyException("couldn't retrieve page", cause);
+			}
+		}
+	}
+
+	private final Pages<P> pages;
+
+	// the indexes of the pages yet to be returned by this split, in page order
+	private final List<Integer> remaining;
+
+	private final boolean ordered;
+
+	PageSpliterator(Pages<P> pages, boolean ordered) {
+		this(pages, new ArrayList<Integer>(), ordered);
+
+		for (int index = 0; index < pages.size(); index++) {
+			remaining.add(index);
+		}
+	}
+
+	private PageSpliterator(Pages<P> pages, List<Integer> remaining, boolean ordered) {
+		this.pages = pages;
+		this.remaining = remaining;
+		this.ordered = ordered;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super P> action) {
+		if (remaining.isEmpty()) {
+			return false;
+		}
+
+		action.accept(pages.take(nextIndex()));
+		return true;
+	}
+
+	@Override
+	public Spliterator<P> trySplit() {
+		if (remaining.size() < 2) {
+			return null;
+		}
+
+		// the prefix is split off so that encounter order is kept across splits
+		List<Integer> prefix = remaining.subList(0, remaining.size() / 2);
+		PageSpliterator<P> split = new PageSpliterator<>(pages, new ArrayList<>(prefix), ordered);
+		prefix.clear();
+
+		return split;
+	}
+
+	@Override
+	public long estimateSize() {
+		return remaining.size();
+	}
+
+	@Override
+	public int characteristics() {
+		return (ordered ? ORDERED : 0) | SIZED | SUBSIZED | NONNULL;
+	}
+
+	private int nextIndex() {
+		if (!ordered) {
+			Iterator<Integer> iterator = remaining.iterator();
+
+			while (iterator.hasNext()) {
+				int index = iterator.next();
+
+				if (pages.isDone(index)) {
+					iterator.remove();
+					return index;
+				}
+			}
+		}
+
+		return remaining.remove(0);
+	}
+}
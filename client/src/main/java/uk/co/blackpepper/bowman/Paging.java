@@ -0,0 +1,187 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Options for reading a paginated collection resource page by page, following its <code>next</code> links.
+ *
+ * <p><code>Paging</code> instances are created via {@link #builder()}.
+ *
+ * @author Ryan Pickett
+ *
+ */
+public final class Paging {
+
+	/**
+	 * The direction of a sort property.
+	 */
+	public enum Direction {
+		ASC,
+		DESC
+	}
+
+	/**
+	 * Fluent builder for <code>Paging</code> instances.
+	 *
+	 * @author Ryan Pickett
+	 *
+	 */
+	public static final class Builder {
+
+		private int pageSize;
+
+		private int prefetch = 1;
+
+		private final List<String> sort = new ArrayList<>();
+
+		private Builder() {
+		}
+
+		/**
+		 * Build a <code>Paging</code> from the provided settings.
+		 *
+		 * @return the new Paging
+		 */
+		public Paging build() {
+			return new Paging(this);
+		}
+
+		/**
+		 * Set the number of entities requested per page. Defaults to the remote service's page size.
+		 *
+		 * @param pageSize the page size
+		 * @return this builder
+		 */
+		public Builder setPageSize(int pageSize) {
+			if (pageSize < 1) {
+				throw new IllegalArgumentException("pageSize must be positive");
+			}
+
+			this.pageSize = pageSize;
+			return this;
+		}
+
+		/**
+		 * Set the number of pages to retrieve in the background ahead of the page being read. Defaults to 1;
+		 * 0 retrieves each page only when it is reached.
+		 *
+		 * @param prefetch the number of pages to prefetch
+		 * @return this builder
+		 */
+		public Builder setPrefetch(int prefetch) {
+			if (prefetch < 0) {
+				throw new IllegalArgumentException("prefetch must not be negative");
+			}
+
+			this.prefetch = prefetch;
+			return this;
+		}
+
+		/**
+		 * @see #addSort(String, Direction)
+		 * @param property the property to sort by in ascending order
+		 * @return this builder
+		 */
+		public Builder addSort(String property) {
+			return addSort(property, Direction.ASC);
+		}
+
+		/**
+		 * Add a property to sort the collection by, after any already added.
+		 *
+		 * @param property the property to sort by
+		 * @param direction the direction to sort the property in
+		 * @return this builder
+		 */
+		public Builder addSort(String property, Direction direction) {
+			sort.add(property + "," + direction.name().toLowerCase());
+			return this;
+		}
+	}
+
+	private final int pageSize;
+
+	private final int prefetch;
+
+	private final List<String> sort;
+
+	private Paging(Builder builder) {
+		pageSize = builder.pageSize;
+		prefetch = builder.prefetch;
+		sort = Collections.unmodifiableList(new ArrayList<>(builder.sort));
+	}
+
+	/**
+	 * Create a new <code>Paging</code> builder.
+	 *
+	 * @return the builder
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Get the number of entities requested per page, or 0 for the remote service's default.
+	 *
+	 * @return the page size
+	 */
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * Get the number of pages to retrieve ahead of the page being read.
+	 *
+	 * @return the number of pages to prefetch
+	 */
+	public int getPrefetch() {
+		return prefetch;
+	}
+
+	/**
+	 * Get the sort parameters, each of the form <code>property,direction</code>.
+	 *
+	 * @return the sort parameters
+	 */
+	public List<String> getSort() {
+		return sort;
+	}
+
+	/**
+	 * Get the URI of the first page of the given collection resource, using Spring Data REST's
+	 * <code>size</code> and <code>sort</code> parameters.
+	 */
+	URI getFirstPageUri(URI uri) {
+		UriComponentsBuilder builder = UriComponentsBuilder.fromUri(uri);
+
+		if (pageSize > 0) {
+			builder.replaceQueryParam("size", pageSize);
+		}
+
+		if (!sort.isEmpty()) {
+			builder.replaceQueryParam("sort", sort.toArray());
+		}
+
+		return builder.build().toUri();
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.hal.Jackson2HalModule.HalLinkListDeserializer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Parser over a HAL resource object that hides its <code>_links</code> and <code>_embedded</code> properties
+ * from the caller, capturing them as they are passed, so that the resource content can be bound in the same
+ * pass that reads the links.
+ * 
+ * <p>The delegate must be positioned at the start of the resource object.
+ */
+final class ResourceContentParser extends JsonParserDelegate {
+	
+	static final String LINKS_PROPERTY = "_links";
+	
+	static final String EMBEDDED_PROPERTY = "_embedded";
+	
+	private static final HalLinkListDeserializer LINKS_DESERIALIZER = new HalLinkListDeserializer();
+	
+	private final DeserializationContext context;
+	
+	// nesting depth within the resource object, which is depth 1
+	private int depth = 1;
+	
+	private List<Link> links = Collections.emptyList();
+	
+	private Map<String, JsonNode> embedded = Collections.emptyMap();
+	
+	ResourceContentParser(JsonParser delegate, DeserializationContext context) {
+		super(delegate);
+		this.context = context;
+	}
+	
+	/**
+	 * Read the links of the resource object at the current position, skipping its other properties.
+	 */
+	static List<Link> readLinks(JsonParser parser, DeserializationContext context) throws IOException {
+		List<Link> links = Collections.emptyList();
+		
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String name = parser.getCurrentName();
+			
+			if (parser.nextToken() == JsonToken.START_OBJECT && LINKS_PROPERTY.equals(name)) {
+				links = LINKS_DESERIALIZER.deserialize(parser, context);
+			}
+			else {
+				parser.skipChildren();
+			}
+		}
+		
+		return links;
+	}
+	
+	List<Link> getLinks() {
+		return links;
+	}
+	
+	Map<String, JsonNode> getEmbedded() {
+		return embedded;
+	}
+	
+	@Override
+	public JsonToken nextToken() throws IOException {
+		JsonToken token = delegate.nextToken();
+		
+		while (depth == 1 && token == JsonToken.FIELD_NAME && isHalProperty(delegate.getCurrentName())) {
+			capture(delegate.getCurrentName());
+			token = delegate.nextToken();
+		}
+		
+		if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+			depth++;
+		}
+		else if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+			depth--;
+		}
+		
+		return token;
+	}
+	
+	@Override
+	public JsonToken nextValue() throws IOException {
+		JsonToken token = nextToken();
+		return token == JsonToken.FIELD_NAME ? nextToken() : token;
+	}
+	
+	@Override
+	public JsonParser skipChildren() throws IOException {
+		JsonToken token = delegate.getCurrentToken();
+		
+		if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+			delegate.skipChildren();
+			depth--;
+		}
+		
+		return this;
+	}
+	
+	// the following would otherwise advance the delegate directly, bypassing nextToken
+	
+	@Override
+	public String nextFieldName() throws IOException {
+		return nextToken() == JsonToken.FIELD_NAME ? getCurrentName() : null;
+	}
+	
+	@Override
+	public boolean nextFieldName(SerializableString str) throws IOException {
+		return nextToken() == JsonToken.FIELD_NAME && str.getValue().equals(getCurrentName());
+	}
+	
+	@Override
+	public String nextTextValue() throws IOException {
+		return nextToken() == JsonToken.VALUE_STRING ? getText() : null;
+	}
+	
+	@Override
+	public int nextIntValue(int defaultValue) throws IOException {
+		return nextToken() == JsonToken.VALUE_NUMBER_INT ? getIntValue() : defaultValue;
+	}
+	
+	@Override
+	public long nextLongValue(long defaultValue) throws IOException {
+		return nextToken() == JsonToken.VALUE_NUMBER_INT ? getLongValue() : defaultValue;
+	}
+	
+	@Override
+	public Boolean nextBooleanValue() throws IOException {
+		JsonToken token = nextToken();
+		
+		if (token == JsonToken.VALUE_TRUE) {
+			return Boolean.TRUE;
+		}
+		
+		return token == JsonToken.VALUE_FALSE ? Boolean.FALSE : null;
+	}
+	
+	private void capture(String name) throws IOException {
+		JsonToken token = delegate.nextToken();
+		
+		if (token != JsonToken.START_OBJECT) {
+			delegate.skipChildren();
+		}
+		else if (LINKS_PROPERTY.equals(name)) {
+			links = LINKS_DESERIALIZER.deserialize(delegate, context);
+		}
+		else {
+			embedded = toMap(context.readValue(delegate, JsonNode.class));
+		}
+	}
+	
+	private static boolean isHalProperty(String name) {
+		return LINKS_PROPERTY.equals(name) || EMBEDDED_PROPERTY.equals(name);
+	}
+	
+	private static Map<String, JsonNode> toMap(JsonNode embeddedNode) {
+		Map<String, JsonNode> embedded = new HashMap<>();
+		Iterator<Entry<String, JsonNode>> fields = embeddedNode.fields();
+		
+		while (fields.hasNext()) {
+			Entry<String, JsonNode> field = fields.next();
+			embedded.put(field.getKey(), field.getValue());
+		}
+		
+		return embedded;
+	}
+}
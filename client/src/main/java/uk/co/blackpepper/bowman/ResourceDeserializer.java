@@ -4,18 +4,17 @@ import java.io.IOException;
 
 import org.springframework.hateoas.Links;
 import org.springframework.hateoas.Resource;
-import org.springframework.hateoas.ResourceSupport;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.BeanProperty;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 
 class ResourceDeserializer extends StdDeserializer<Resource<?>> implements ContextualDeserializer {
 
@@ -42,22 +41,45 @@ class ResourceDeserializer extends StdDeserializer<Resource<?>> implements Conte
 	@Override
 	public Resource<?> deserialize(JsonParser p, DeserializationContext ctxt) throws IOException,
 		JsonProcessingException {
-
-		ObjectNode node = p.readValueAs(ObjectNode.class);
-
-		ObjectMapper mapper = (ObjectMapper) p.getCodec();
-
-		ResourceSupport resource = mapper.convertValue(node, ResourceSupport.class);
-		Links links = new Links(resource.getLinks());
+		
+		if (p.getCurrentToken() != JsonToken.START_OBJECT) {
+			return (Resource<?>) ctxt.handleUnexpectedToken(handledType(), p);
+		}
+		
+		if (!isTypeResolvedFromLinks()) {
+			return createResource(handledType(), new ResourceContentParser(p, ctxt), ctxt);
+		}
+		
+		// the links are needed to resolve the content type, so buffer the resource to read them first
+		TokenBuffer buffer = new TokenBuffer(p, ctxt);
+		buffer.copyCurrentStructure(p);
+		
+		JsonParser linksParser = buffer.asParser();
+		linksParser.nextToken();
+		Links links = new Links(ResourceContentParser.readLinks(linksParser, ctxt));
 		
 		Class<?> resourceContentType = typeResolver.resolveType(handledType(), links, configuration);
-		return createResource(resourceContentType, node, links, mapper);
+		
+		JsonParser contentParser = buffer.asParser();
+		contentParser.nextToken();
+		return createResource(resourceContentType, new ResourceContentParser(contentParser, ctxt), ctxt);
+	}
+	
+	private boolean isTypeResolvedFromLinks() {
+		return !(typeResolver instanceof DefaultTypeResolver)
+			|| ((DefaultTypeResolver) typeResolver).isPolymorphic(handledType());
 	}
 	
-	private static <T> Resource<T> createResource(Class<T> contentType, ObjectNode sourceTree,
-		Links links, ObjectMapper mapper) {
+	private static <T> Resource<T> createResource(Class<T> contentType, ResourceContentParser parser,
+		DeserializationContext ctxt) throws IOException {
+		
+		T content = ctxt.readValue(parser, contentType);
+		Links links = new Links(parser.getLinks());
+		
+		if (parser.getEmbedded().isEmpty()) {
+			return new Resource<>(content, links);
+		}
 		
-		T content = mapper.convertValue(sourceTree, contentType);
-		return new Resource<>(content, links);
+		return new HalResource<>(content, links, parser.getEmbedded());
 	}
 }
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.net.URI;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
+
+/**
+ * Publishes the entities of a collection resource, reading each from the response only once a subscriber has
+ * requested it and following the collection's <code>next</code> link only once the current page is exhausted.
+ *
+ * <p>Every subscription reads the collection afresh. Its entities are read and signalled by a single task at a
+ * time on the executor, so <code>request</code> never blocks on the connection and signals are never concurrent.
+ */
+final class ResourcePublisher<T> implements Publisher<T> {
+
+	private final class ResourceSubscription implements Subscription, Runnable {
+
+		private final Subscriber<? super T> subscriber;
+
+		private final AtomicLong demand = new AtomicLong();
+
+		// the number of requests to drain, of which one task is draining while it is positive
+		private final AtomicInteger work = new AtomicInteger();
+
+		private volatile boolean cancelled;
+
+		private volatile IllegalArgumentException invalidRequest;
+
+		// the remaining fields are accessed only by the draining task
+		private URI nextUri = firstUri;
+
+		private EmbeddedResourceSpliterator<T> page;
+
+		private Resource<T> resource;
+
+		private boolean done;
+
+		ResourceSubscription(Subscriber<? super T> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				invalidRequest = new IllegalArgumentException("request must be positive: " + n);
+			}
+			else {
+				demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+			}
+
+			schedule();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			schedule();
+		}
+
+		@Override
+		public void run() {
+			int missed = 1;
+
+			do {
+				drain();
+				missed = work.addAndGet(-missed);
+			}
+			while (missed != 0);
+		}
+
+		private void schedule() {
+			if (work.getAndIncrement() == 0) {
+				executor.execute(this);
+			}
+		}
+
+		private void drain() {
+			if (done) {
+				return;
+			}
+
+			if (cancelled) {
+				finish();
+				return;
+			}
+
+			if (invalidRequest != null) {
+				finish();
+				subscriber.onError(invalidRequest);
+				return;
+			}
+
+			while (demand.get() > 0 && !cancelled) {
+				T next;
+
+				try {
+					next = next();
+				}
+				catch (RuntimeException exception) {
+					finish();
+					subscriber.onError(exception);
+					return;
+				}
+
+				if (next == null) {
+					finish();
+					subscriber.onComplete();
+					return;
+				}
+
+				if (demand.get() != Long.MAX_VALUE) {
+					demand.decrementAndGet();
+				}
+
+				subscriber.onNext(next);
+			}
+
+			if (cancelled) {
+				finish();
+			}
+		}
+
+		/**
+		 * Read the next entity, retrieving the next page if the current one is exhausted, or return
+		 * <code>null</code> at the end of the collection.
+		 */
+		private T next() {
+			while (true) {
+				if (page == null) {
+					if (nextUri == null) {
+						return null;
+					}
+
+					page = pageOpener.apply(nextUri);
+					nextUri = null;
+
+					if (page == null) {
+						return null;
+					}
+				}
+
+				if (page.tryAdvance(advanced -> resource = advanced)) {
+					T entity = mapper.apply(resource);
+					resource = null;
+					return entity;
+				}
+
+				Link next = page.getLink(Link.REL_NEXT);
+				page = null;
+
+				if (next != null) {
+					nextUri = URI.create(next.expand().getHref());
+				}
+			}
+		}
+
+		private void finish() {
+			done = true;
+			nextUri = null;
+
+			if (page != null) {
+				page.close();
+				page = null;
+			}
+		}
+	}
+
+	private final URI firstUri;
+
+	private final Function<URI, EmbeddedResourceSpliterator<T>> pageOpener;
+
+	private final Function<Resource<T>, T> mapper;
+
+	private final Executor executor;
+
+	ResourcePublisher(URI firstUri, Function<URI, EmbeddedResourceSpliterator<T>> pageOpener,
+			Function<Resource<T>, T> mapper, Executor executor) {
+		this.firstUri = firstUri;
+		this.pageOpener = pageOpener;
+		this.mapper = mapper;
+		this.executor = executor;
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super T> subscriber) {
+		if (subscriber == null) {
+			throw new NullPointerException("subscriber must not be null");
+		}
+
+		subscriber.onSubscribe(new ResourceSubscription(subscriber));
+	}
+}
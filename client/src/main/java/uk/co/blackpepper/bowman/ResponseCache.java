@@ -0,0 +1,465 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Bounded cache of GET response bodies, honouring the freshness and validators given by their
+ * <code>Cache-Control</code>, <code>Expires</code>, <code>ETag</code> and <code>Last-Modified</code> headers.
+ * 
+ * <p>Fresh bodies are reused without a request. Stale bodies are revalidated with a conditional request, and
+ * reused if the server responds <code>304 Not Modified</code>. Responses marked <code>no-store</code>, or with
+ * neither a freshness lifetime nor a validator, are not cached.
+ * 
+ * <p>Cached responses are keyed by URI alone and given to every caller of the client, so the cache only keeps
+ * responses that are the same for every caller: see {@link #isShared(HttpHeaders, HttpHeaders)}.
+ * 
+ * <p>The cache is bounded by the total size of the cached bodies, and evicts with a segmented LRU policy: new
+ * entries are admitted to a probationary segment, and promoted to a protected segment when they are used again.
+ * Entries are evicted from the probationary segment first, so a burst of resources read once does not flush the
+ * frequently read ones.
+ * 
+ * <p>If a disk cache is configured, every cached response is also written to a {@link DiskResponseCache}, which
+ * is consulted when a response is not cached in memory. This keeps responses across restarts of the application,
+ * and allows more to be cached than fit in memory. If the disk cache's directory is in use by another cache,
+ * responses are cached in memory alone.
+ */
+final class ResponseCache implements Closeable {
+	
+	/**
+	 * A cached response body with its validators.
+	 */
+	static final class Entry {
+		
+		private final byte[] body;
+		
+		private final String eTag;
+		
+		private final long lastModified;
+		
+		private final long expiry;
+		
+		Entry(byte[] body, String eTag, long lastModified, long expiry) {
+			this.body = body;
+			this.eTag = eTag;
+			this.lastModified = lastModified;
+			this.expiry = expiry;
+		}
+		
+		byte[] getBody() {
+			return body;
+		}
+		
+		/**
+		 * Make the given request headers conditional on this entry's validators.
+		 */
+		void addValidators(HttpHeaders headers) {
+			if (eTag != null) {
+				headers.setIfNoneMatch(eTag);
+			}
+			
+			if (lastModified != -1) {
+				headers.setIfModifiedSince(lastModified);
+			}
+		}
+		
+		private boolean hasValidators() {
+			return eTag != null || lastModified != -1;
+		}
+		
+		private long getWeight() {
+			return body.length;
+		}
+	}
+	
+	private static final int PROTECTED_PERCENT = 80;
+	
+	private final LongSupplier ticker;
+	
+	private final DiskResponseCache diskCache;
+	
+	private final long maximumWeight;
+	
+	private final long maximumProtectedWeight;
+	
+	private final Map<URI, Entry> probation = new LinkedHashMap<>(16, 0.75f, true);
+	
+	private final Map<URI, Entry> protectedEntries = new LinkedHashMap<>(16, 0.75f, true);
+	
+	private long probationWeight;
+	
+	private long protectedWeight;
+	
+	private long hitCount;
+	
+	private long missCount;
+	
+	private long revalidationCount;
+	
+	private long evictionCount;
+	
+	ResponseCache(Configuration configuration) {
+		this(configuration, System::nanoTime);
+	}
+	
+	ResponseCache(Configuration configuration, LongSupplier ticker) {
+		this.ticker = ticker;
+		
+		maximumWeight = configuration.getResponseCacheSize();
+		maximumProtectedWeight = maximumWeight * PROTECTED_PERCENT / 100;
+		
+		diskCache = configuration.getDiskCacheDirectory() != null
+			? DiskResponseCache.open(configuration.getDiskCacheDirectory(), configuration.getDiskCacheSize())
+			: null;
+	}
+	
+	/**
+	 * Get the cached entry for the given URI, whether fresh or stale, counting a hit if it is fresh.
+	 * 
+	 * @return the entry, or <code>null</code> if none is cached
+	 */
+	Entry get(URI uri) {
+		Entry entry = getFromMemory(uri);
+		
+		if (entry == null) {
+			entry = getFromDisk(uri);
+		}
+		
+		if (entry != null && isFresh(entry)) {
+			synchronized (this) {
+				hitCount++;
+			}
+		}
+		
+		return entry;
+	}
+	
+	/**
+	 * Get whether a response may be given to callers other than the one whose request it answered. A response is
+	 * specific to its caller if the request was sent with an <code>Authorization</code> header, if it is marked
+	 * <code>private</code>, or if it varies with request headers other than <code>Accept</code>, which the client
+	 * always sends alike.
+	 */
+	static boolean isShared(HttpHeaders requestHeaders, HttpHeaders responseHeaders) {
+		if (requestHeaders.containsKey(HttpHeaders.AUTHORIZATION)) {
+			return false;
+		}
+		
+		for (String directive : getCacheControlDirectives(responseHeaders)) {
+			if ("private".equals(directive) || directive.startsWith("private=")) {
+				return false;
+			}
+		}
+		
+		for (String field : splitList(responseHeaders.get(HttpHeaders.VARY))) {
+			if (!HttpHeaders.ACCEPT.equalsIgnoreCase(field)) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	boolean isFresh(Entry entry) {
+		return ticker.getAsLong() - entry.expiry < 0;
+	}
+	
+	/**
+	 * Cache the body of a full response, counting a miss.
+	 */
+	void put(URI uri, byte[] body, HttpHeaders headers) {
+		Entry entry = createEntry(body, headers.getETag(), headers.getLastModified(), headers);
+		
+		synchronized (this) {
+			missCount++;
+			
+			if (entry == null) {
+				remove(uri);
+			}
+			else {
+				store(uri, entry);
+				putOnDisk(uri, entry);
+			}
+		}
+	}
+	
+	/**
+	 * Renew a stale entry after the server confirmed it is unchanged, counting a revalidation.
+	 */
+	void revalidate(URI uri, Entry entry, HttpHeaders headers) {
+		String eTag = headers.getETag() != null ? headers.getETag() : entry.eTag;
+		long lastModified = headers.getLastModified() != -1 ? headers.getLastModified() : entry.lastModified;
+		Entry renewed = createEntry(entry.body, eTag, lastModified, headers);
+		
+		synchronized (this) {
+			revalidationCount++;
+			
+			if (renewed == null) {
+				remove(uri);
+			}
+			else {
+				store(uri, renewed);
+				putOnDisk(uri, renewed);
+			}
+		}
+	}
+	
+	synchronized void remove(URI uri) {
+		removeFromMemory(uri);
+		
+		if (diskCache != null) {
+			diskCache.remove(uri);
+		}
+	}
+	
+	synchronized ResponseCacheStats getStats() {
+		return new ResponseCacheStats(hitCount, missCount, revalidationCount, evictionCount,
+			probation.size() + protectedEntries.size(), probationWeight + protectedWeight);
+	}
+	
+	@Override
+	public void close() {
+		if (diskCache != null) {
+			diskCache.close();
+		}
+	}
+	
+	/**
+	 * Get the entry for the given URI from memory, if any, promoting it to the protected segment.
+	 */
+	private synchronized Entry getFromMemory(URI uri) {
+		Entry entry = protectedEntries.get(uri);
+		
+		if (entry != null) {
+			return entry;
+		}
+		
+		entry = probation.remove(uri);
+		
+		if (entry == null) {
+			return null;
+		}
+		
+		probationWeight -= entry.getWeight();
+		protectedEntries.put(uri, entry);
+		protectedWeight += entry.getWeight();
+		demoteProtected();
+		
+		return entry;
+	}
+	
+	private void removeFromMemory(URI uri) {
+		Entry entry = probation.remove(uri);
+		
+		if (entry != null) {
+			probationWeight -= entry.getWeight();
+		}
+		
+		entry = protectedEntries.remove(uri);
+		
+		if (entry != null) {
+			protectedWeight -= entry.getWeight();
+		}
+	}
+	
+	private void store(URI uri, Entry entry) {
+		removeFromMemory(uri);
+		
+		if (entry.getWeight() > maximumWeight) {
+			return;
+		}
+		
+		probation.put(uri, entry);
+		probationWeight += entry.getWeight();
+		evict();
+	}
+	
+	/**
+	 * Get the entry for the given URI from the disk cache, if any, and cache it in memory as a new entry. The disk
+	 * is read without holding this cache's lock, so reads of other entries from memory are not held up.
+	 */
+	private Entry getFromDisk(URI uri) {
+		DiskResponseCache.Record record = diskCache != null ? diskCache.get(uri) : null;
+		
+		if (record == null) {
+			return null;
+		}
+		
+		long lifetime = TimeUnit.MILLISECONDS.toNanos(record.getExpires() - System.currentTimeMillis());
+		Entry entry = new Entry(record.getBody(), record.getETag(), record.getLastModified(),
+			ticker.getAsLong() + lifetime);
+		
+		synchronized (this) {
+			// prefer a response cached in memory while the disk was read, as it is at least as recent
+			Entry current = getFromMemory(uri);
+			
+			if (current != null) {
+				return current;
+			}
+			
+			store(uri, entry);
+		}
+		
+		return entry;
+	}
+	
+	private void putOnDisk(URI uri, Entry entry) {
+		if (diskCache == null) {
+			return;
+		}
+		
+		long lifetime = TimeUnit.NANOSECONDS.toMillis(entry.expiry - ticker.getAsLong());
+		diskCache.put(uri, new DiskResponseCache.Record(entry.body, entry.eTag, entry.lastModified,
+			System.currentTimeMillis() + lifetime));
+	}
+	
+	/**
+	 * Move the least recently used protected entries back to probation until the protected segment fits.
+	 */
+	private void demoteProtected() {
+		Iterator<Map.Entry<URI, Entry>> iterator = protectedEntries.entrySet().iterator();
+		
+		while (protectedWeight > maximumProtectedWeight && iterator.hasNext()) {
+			Map.Entry<URI, Entry> eldest = iterator.next();
+			iterator.remove();
+			protectedWeight -= eldest.getValue().getWeight();
+			probation.put(eldest.getKey(), eldest.getValue());
+			probationWeight += eldest.getValue().getWeight();
+		}
+	}
+	
+	private void evict() {
+		evict(probation.entrySet().iterator(), false);
+		evict(protectedEntries.entrySet().iterator(), true);
+	}
+	
+	private void evict(Iterator<Map.Entry<URI, Entry>> iterator, boolean isProtected) {
+		while (probationWeight + protectedWeight > maximumWeight && iterator.hasNext()) {
+			long weight = iterator.next().getValue().getWeight();
+			iterator.remove();
+			evictionCount++;
+			
+			if (isProtected) {
+				protectedWeight -= weight;
+			}
+			else {
+				probationWeight -= weight;
+			}
+		}
+	}
+	
+	/**
+	 * Create an entry expiring after the freshness lifetime given by the response headers, or <code>null</code> if
+	 * the response may not be cached or would be of no use.
+	 */
+	private Entry createEntry(byte[] body, String eTag, long lastModified, HttpHeaders headers) {
+		long lifetime = 0;
+		boolean explicit = false;
+		boolean noCache = false;
+		
+		for (String directive : getCacheControlDirectives(headers)) {
+			if ("no-store".equals(directive)) {
+				return null;
+			}
+			
+			if ("no-cache".equals(directive)) {
+				noCache = true;
+			}
+			else if (directive.startsWith("max-age=")) {
+				lifetime = parseSeconds(directive.substring("max-age=".length()));
+				explicit = true;
+			}
+		}
+		
+		if (noCache) {
+			lifetime = 0;
+		}
+		else if (!explicit) {
+			long expires = headers.getExpires();
+			
+			if (expires != -1) {
+				lifetime = TimeUnit.MILLISECONDS.toNanos(Math.max(expires - getDate(headers), 0));
+			}
+		}
+		
+		List<String> age = headers.get("Age");
+		
+		if (age != null && !age.isEmpty()) {
+			lifetime -= parseSeconds(age.get(0));
+		}
+		
+		Entry entry = new Entry(body, eTag, lastModified, ticker.getAsLong() + lifetime);
+		
+		return lifetime > 0 || entry.hasValidators() ? entry : null;
+	}
+	
+	private static String[] getCacheControlDirectives(HttpHeaders headers) {
+		String[] directives = splitList(headers.get(HttpHeaders.CACHE_CONTROL));
+		
+		for (int index = 0; index < directives.length; index++) {
+			directives[index] = directives[index].toLowerCase(Locale.ROOT).replace("\"", "");
+		}
+		
+		return directives;
+	}
+	
+	/**
+	 * Split the values of a header holding a comma-separated list.
+	 */
+	private static String[] splitList(List<String> values) {
+		if (values == null || values.isEmpty()) {
+			return new String[0];
+		}
+		
+		String[] elements = String.join(",", values).split(",");
+		
+		for (int index = 0; index < elements.length; index++) {
+			elements[index] = elements[index].trim();
+		}
+		
+		return elements;
+	}
+	
+	private static long getDate(HttpHeaders headers) {
+		try {
+			long date = headers.getDate();
+			return date != -1 ? date : System.currentTimeMillis();
+		}
+		catch (IllegalArgumentException exception) {
+			return System.currentTimeMillis();
+		}
+	}
+	
+	private static long parseSeconds(String value) {
+		try {
+			return TimeUnit.SECONDS.toNanos(Math.max(Long.parseLong(value.trim()), 0));
+		}
+		catch (NumberFormatException exception) {
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+/**
+ * Statistics of a {@link ClientFactory}'s response cache, for monitoring.
+ */
+public final class ResponseCacheStats {
+	
+	private final long hitCount;
+	
+	private final long missCount;
+	
+	private final long revalidationCount;
+	
+	private final long evictionCount;
+	
+	private final int entryCount;
+	
+	private final long size;
+	
+	ResponseCacheStats(long hitCount, long missCount, long revalidationCount, long evictionCount, int entryCount,
+			long size) {
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.revalidationCount = revalidationCount;
+		this.evictionCount = evictionCount;
+		this.entryCount = entryCount;
+		this.size = size;
+	}
+	
+	/**
+	 * Get the number of retrievals answered from the cache without a request.
+	 * 
+	 * @return the hit count
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+	
+	/**
+	 * Get the number of retrievals that downloaded the response body.
+	 * 
+	 * @return the miss count
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+	
+	/**
+	 * Get the number of retrievals answered from the cache after the server confirmed the cached response was
+	 * unchanged.
+	 * 
+	 * @return the revalidation count
+	 */
+	public long getRevalidationCount() {
+		return revalidationCount;
+	}
+	
+	/**
+	 * Get the number of responses evicted to keep the cache within its maximum size.
+	 * 
+	 * @return the eviction count
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+	
+	/**
+	 * Get the number of responses currently cached.
+	 * 
+	 * @return the entry count
+	 */
+	public int getEntryCount() {
+		return entryCount;
+	}
+	
+	/**
+	 * Get the total size of the response bodies currently cached.
+	 * 
+	 * @return the size in bytes
+	 */
+	public long getSize() {
+		return size;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("[hits: %d; misses: %d; revalidations: %d; evictions: %d; entries: %d; size: %d]",
+			hitCount, missCount, revalidationCount, evictionCount, entryCount, size);
+	}
+}
@@ -15,79 +15,563 @@
  */
 package uk.co.blackpepper.bowman;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.PagedResources;
 import org.springframework.hateoas.Resource;
 import org.springframework.hateoas.Resources;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import static java.util.Collections.singletonList;
 
 class RestOperations {
 
+	private static final RequestCallback ACCEPT_HAL_JSON = new RequestCallback() {
+		@Override
+		public void doWithRequest(ClientHttpRequest request) {
+			request.getHeaders().setAccept(singletonList(MediaTypes.HAL_JSON));
+		}
+	};
+	
+	/**
+	 * Accepts HAL, adds the validators of any cached response, and keeps the request headers so that the response
+	 * can be checked against them once any interceptors have added to them.
+	 */
+	private static final class ConditionalGetCallback implements RequestCallback {
+		
+		private final ResponseCache.Entry cached;
+		
+		private HttpHeaders headers;
+		
+		ConditionalGetCallback(ResponseCache.Entry cached) {
+			this.cached = cached;
+		}
+		
+		@Override
+		public void doWithRequest(ClientHttpRequest request) throws IOException {
+			ACCEPT_HAL_JSON.doWithRequest(request);
+			
+			if (cached != null) {
+				cached.addValidators(request.getHeaders());
+			}
+			
+			headers = request.getHeaders();
+		}
+		
+		HttpHeaders getHeaders() {
+			return headers;
+		}
+	}
+	
+	/**
+	 * Writes an object as the JSON request body, as RestTemplate's message converter would.
+	 */
+	private final class WriteObjectCallback implements RequestCallback {
+		
+		private final Object object;
+		
+		WriteObjectCallback(Object object) {
+			this.object = object;
+		}
+		
+		@Override
+		public void doWithRequest(ClientHttpRequest request) throws IOException {
+			ACCEPT_HAL_JSON.doWithRequest(request);
+			request.getHeaders().setContentType(MediaTypes.HAL_JSON);
+			
+			// unbuffered requests do not support getBody and take the body as a callback instead
+			if (request instanceof StreamingHttpOutputMessage) {
+				((StreamingHttpOutputMessage) request).setBody(new StreamingHttpOutputMessage.Body() {
+					@Override
+					public void writeTo(OutputStream outputStream) throws IOException {
+						write(outputStream);
+					}
+				});
+			}
+			else {
+				write(request.getBody());
+			}
+		}
+		
+		private void write(OutputStream outputStream) throws IOException {
+			JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+			getWriter(object.getClass()).writeValue(generator, object);
+			generator.flush();
+		}
+	}
+	
 	private final RestTemplate restTemplate;
 	
 	private final ObjectMapper objectMapper;
 	
+	private final Executor executor;
+	
+	private final NotFoundCache notFoundCache;
+	
+	private final InFlightRequests inFlightRequests;
+	
+	private final ResponseCache responseCache;
+	
+	private final int batchLoadWindow;
+	
+	private final ClientProxyFactory proxyFactory;
+	
+	// readers and writers resolve their root (de)serializer once, so cache them per entity type
+	
+	private final ConcurrentMap<Class<?>, ObjectReader> resourceReaders = new ConcurrentHashMap<>();
+	
+	private final ConcurrentMap<Class<?>, ObjectReader> resourcesReaders = new ConcurrentHashMap<>();
+	
+	private final ConcurrentMap<Class<?>, ObjectReader> pagedResourcesReaders = new ConcurrentHashMap<>();
+	
+	private final ConcurrentMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+	
 	RestOperations(RestTemplate restTemplate, ObjectMapper objectMapper) {
+		this(restTemplate, objectMapper, SharedExecutor.getInstance());
+	}
+	
+	RestOperations(RestTemplate restTemplate, ObjectMapper objectMapper, Executor executor) {
+		this(restTemplate, objectMapper, executor, null);
+	}
+	
+	RestOperations(RestTemplate restTemplate, ObjectMapper objectMapper, Executor executor,
+			NotFoundCache notFoundCache) {
+		this(restTemplate, objectMapper, executor, notFoundCache, null);
+	}
+	
+	RestOperations(RestTemplate restTemplate, ObjectMapper objectMapper, Executor executor,
+			NotFoundCache notFoundCache, InFlightRequests inFlightRequests) {
+		this(restTemplate, objectMapper, executor, notFoundCache, inFlightRequests, null);
+	}
+	
+	RestOperations(RestTemplate restTemplate, ObjectMapper objectMapper, Executor executor,
+			NotFoundCache notFoundCache, InFlightRequests inFlightRequests, ResponseCache responseCache) {
+		this(restTemplate, objectMapper, executor, notFoundCache, inFlightRequests, responseCache, 0);
+	}
+	
+	RestOperations(RestTemplate restTemplate, ObjectMapper objectMapper, Executor executor,
+			NotFoundCache notFoundCache, InFlightRequests inFlightRequests, ResponseCache responseCache,
+			int batchLoadWindow) {
 		this.restTemplate = restTemplate;
 		this.objectMapper = objectMapper;
+		this.executor = executor;
+		this.notFoundCache = notFoundCache;
+		this.inFlightRequests = inFlightRequests;
+		this.responseCache = responseCache;
+		this.batchLoadWindow = batchLoadWindow;
+		proxyFactory = null;
+	}
+	
+	private RestOperations(RestOperations restOperations, ClientProxyFactory proxyFactory) {
+		restTemplate = restOperations.restTemplate;
+		objectMapper = restOperations.objectMapper;
+		executor = restOperations.executor;
+		notFoundCache = restOperations.notFoundCache;
+		inFlightRequests = restOperations.inFlightRequests;
+		responseCache = restOperations.responseCache;
+		batchLoadWindow = restOperations.batchLoadWindow;
+		this.proxyFactory = proxyFactory;
+	}
+	
+	/**
+	 * Get operations that share this one's HTTP client and caches, but create the proxies of inline associations
+	 * they read with the given factory rather than the client factory's. The returned operations are passed to
+	 * {@link InlineAssociationDeserializer} as a deserialization attribute, so that inline associations are created
+	 * with them too.
+	 */
+	RestOperations withProxyFactory(ClientProxyFactory proxyFactory) {
+		return new RestOperations(this, proxyFactory);
+	}
+	
+	/**
+	 * @return the factory to create the proxies of inline associations with, or <code>null</code> to use the
+	 * client factory's
+	 */
+	ClientProxyFactory getProxyFactory() {
+		return proxyFactory;
+	}
+	
+	public Executor getExecutor() {
+		return executor;
+	}
+	
+	int getBatchLoadWindow() {
+		return batchLoadWindow;
+	}
+	
+	ResponseCache getResponseCache() {
+		return responseCache;
 	}
 	
 	public <T> Resource<T> getResource(URI uri, Class<T> entityType) {
-		ObjectNode node;
+		return getObject(uri, entityType, getResourceReader(entityType), null);
+	}
+	
+	public <T> Resource<T> readResource(JsonNode node, Class<T> entityType) {
+		try {
+			return getResourceReader(entityType).readValue(node);
+		}
+		catch (IOException exception) {
+			throw new IllegalArgumentException(exception.getMessage(), exception);
+		}
+	}
+
+	public <T> Resources<Resource<T>> getResources(URI uri, Class<T> entityType) {
+		return getObject(uri, entityType, getResourcesReader(entityType),
+			Resources.wrap(Collections.<T>emptyList()));
+	}
+	
+	public <T> PagedResources<Resource<T>> getPagedResources(URI uri, Class<T> entityType) {
+		return getObject(uri, entityType, getPagedResourcesReader(entityType),
+			new PagedResources<>(Collections.<Resource<T>>emptyList(), null));
+	}
+	
+	/**
+	 * GET the resources embedded in the collection resource at the given URI, reading them from the response
+	 * as the returned stream is consumed. The stream must be closed to release the connection if it is not
+	 * consumed to the end.
+	 */
+	public <T> Stream<Resource<T>> streamResources(URI uri, Class<T> entityType) {
+		EmbeddedResourceSpliterator<T> spliterator = openResources(uri, entityType);
+		
+		if (spliterator == null) {
+			return Stream.empty();
+		}
+		
+		return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+	}
+	
+	/**
+	 * GET the collection resource at the given URI, returning a spliterator that reads its embedded resources
+	 * from the response as it is advanced, or <code>null</code> if it was not found. The spliterator must be
+	 * closed to release the connection if it is not advanced to the end.
+	 */
+	<T> EmbeddedResourceSpliterator<T> openResources(URI uri, Class<T> entityType) {
+		ClientHttpResponse response = get(uri, entityType, ACCEPT_HAL_JSON);
+		
+		if (response == null) {
+			return null;
+		}
+		
+		boolean streaming = false;
 		
 		try {
-			node = restTemplate.getForObject(uri, ObjectNode.class);
+			EmbeddedResourceSpliterator<T> spliterator = new EmbeddedResourceSpliterator<>(
+				objectMapper.getFactory().createParser(response.getBody()), getResourceReader(entityType), response);
+			streaming = true;
+			
+			return spliterator;
 		}
-		catch (HttpClientErrorException exception) {
-			if (exception.getStatusCode() == HttpStatus.NOT_FOUND) {
-				return null;
+		catch (IOException exception) {
+			throw new ResourceAccessException("I/O error on GET request for \"" + uri + "\": "
+				+ exception.getMessage(), exception);
+		}
+		finally {
+			if (!streaming) {
+				response.close();
 			}
+		}
+	}
+	
+	public URI postObject(URI uri, Object object) {
+		URI location = restTemplate.execute(uri, HttpMethod.POST, new WriteObjectCallback(object),
+			new ResponseExtractor<URI>() {
+				@Override
+				public URI extractData(ClientHttpResponse response) {
+					return response.getHeaders().getLocation();
+				}
+			});
+		
+		if (notFoundCache != null && location != null) {
+			notFoundCache.remove(location);
+		}
+		
+		if (responseCache != null) {
+			responseCache.remove(uri);
 			
-			throw exception;
+			if (location != null) {
+				responseCache.remove(location);
+			}
 		}
 		
-		JavaType targetType = objectMapper.getTypeFactory().constructParametricType(Resource.class, entityType);
+		return location;
+	}
+	
+	public void putObject(URI uri, Object object) {
+		restTemplate.execute(uri, HttpMethod.PUT, new WriteObjectCallback(object), null);
+		
+		if (notFoundCache != null) {
+			notFoundCache.remove(uri);
+		}
 		
-		return objectMapper.convertValue(node, targetType);
+		if (responseCache != null) {
+			responseCache.remove(uri);
+		}
 	}
-
-	public <T> Resources<Resource<T>> getResources(URI uri, Class<T> entityType) {
-		ObjectNode node;
+	
+	public void deleteResource(URI uri) {
+		restTemplate.execute(uri, HttpMethod.DELETE, ACCEPT_HAL_JSON, null);
+		
+		if (responseCache != null) {
+			responseCache.remove(uri);
+		}
+	}
+	
+	/**
+	 * Binds the response body straight from the stream into the reader's type, without first reading it into a
+	 * tree.
+	 */
+	private <R> R getObject(URI uri, Class<?> entityType, ObjectReader reader, R notFound) {
+		if (inFlightRequests != null || responseCache != null) {
+			return getBufferedObject(uri, entityType, reader, notFound);
+		}
+		
+		ClientHttpResponse response = get(uri, entityType, ACCEPT_HAL_JSON);
+		
+		if (response == null) {
+			return notFound;
+		}
+		
+		try {
+			return readObject(response.getBody(), reader);
+		}
+		catch (IOException exception) {
+			throw new HttpMessageNotReadableException("Could not read JSON: " + exception.getMessage(), exception);
+		}
+		finally {
+			response.close();
+		}
+	}
+	
+	/**
+	 * Reads the response body into memory first, so that it can be shared between concurrent requests or cached.
+	 */
+	private <R> R getBufferedObject(final URI uri, final Class<?> entityType, ObjectReader reader, R notFound) {
+		byte[] body = inFlightRequests == null ? getResponse(uri, entityType).getBody()
+			: inFlightRequests.get(uri, entityType, new Callable<InFlightRequests.Response>() {
+				@Override
+				public InFlightRequests.Response call() {
+					return getResponse(uri, entityType);
+				}
+			});
+		
+		if (body == null) {
+			return notFound;
+		}
 		
 		try {
-			node = restTemplate.getForObject(uri, ObjectNode.class);
+			return readObject(new ByteArrayInputStream(body), reader);
+		}
+		catch (IOException exception) {
+			throw new HttpMessageNotReadableException("Could not read JSON: " + exception.getMessage(), exception);
+		}
+	}
+	
+	/**
+	 * Gets the response body from the cache, or by making a conditional request if the cached response is stale.
+	 * Only responses that are {@link ResponseCache#isShared(HttpHeaders, HttpHeaders) shared} are cached, and
+	 * any cached response is removed otherwise.
+	 */
+	private InFlightRequests.Response getResponse(URI uri, Class<?> entityType) {
+		ResponseCache.Entry cached = responseCache != null ? responseCache.get(uri) : null;
+		
+		if (cached != null && responseCache.isFresh(cached)) {
+			return new InFlightRequests.Response(cached.getBody(), true);
+		}
+		
+		ConditionalGetCallback requestCallback = new ConditionalGetCallback(cached);
+		ClientHttpResponse response = get(uri, entityType, requestCallback);
+		
+		if (response == null) {
+			if (responseCache != null) {
+				responseCache.remove(uri);
+			}
+			
+			return new InFlightRequests.Response(null, true);
+		}
+		
+		try {
+			boolean shared = ResponseCache.isShared(requestCallback.getHeaders(), response.getHeaders());
+			
+			if (cached != null && response.getRawStatusCode() == HttpStatus.NOT_MODIFIED.value()) {
+				if (shared) {
+					responseCache.revalidate(uri, cached, response.getHeaders());
+				}
+				
+				return new InFlightRequests.Response(cached.getBody(), shared);
+			}
+			
+			byte[] body = StreamUtils.copyToByteArray(response.getBody());
+			
+			if (responseCache != null) {
+				cacheResponse(uri, body, response.getHeaders(), shared);
+			}
+			
+			return new InFlightRequests.Response(body, shared);
+		}
+		catch (IOException exception) {
+			throw new ResourceAccessException("I/O error on GET request for \"" + uri + "\": "
+				+ exception.getMessage(), exception);
 		}
-		catch (HttpClientErrorException exception) {
-			if (exception.getStatusCode() == HttpStatus.NOT_FOUND) {
-				return Resources.wrap(Collections.<T>emptyList());
+		finally {
+			response.close();
+		}
+	}
+	
+	private void cacheResponse(URI uri, byte[] body, HttpHeaders headers, boolean shared) {
+		if (shared) {
+			responseCache.put(uri, body, headers);
+		}
+		else {
+			responseCache.remove(uri);
+		}
+	}
+	
+	private <R> R readObject(InputStream body, ObjectReader reader) throws IOException {
+		try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+			if (parser.nextToken() == null) {
+				return null;
 			}
 			
-			throw exception;
+			return reader.readValue(parser);
+		}
+	}
+	
+	/**
+	 * Executes a GET request and returns the successful response, or <code>null</code> if the resource was not
+	 * found. A 404 is a normal result rather than an error here, so it is checked before the error handler to
+	 * avoid raising an exception for every missing resource.
+	 */
+	private ClientHttpResponse get(URI uri, Class<?> entityType, RequestCallback requestCallback) {
+		if (notFoundCache != null && notFoundCache.contains(uri)) {
+			return null;
+		}
+		
+		ClientHttpResponse response = null;
+		boolean found = false;
+		
+		try {
+			ClientHttpRequest request = restTemplate.getRequestFactory().createRequest(uri, HttpMethod.GET);
+			requestCallback.doWithRequest(request);
+			response = request.execute();
+			
+			if (response.getRawStatusCode() == HttpStatus.NOT_FOUND.value()) {
+				if (notFoundCache != null) {
+					notFoundCache.put(uri, entityType);
+				}
+				
+				return null;
+			}
+			
+			ResponseErrorHandler errorHandler = restTemplate.getErrorHandler();
+			
+			if (errorHandler.hasError(response)) {
+				errorHandler.handleError(response);
+			}
+			
+			found = true;
+			return response;
+		}
+		catch (IOException exception) {
+			throw new ResourceAccessException("I/O error on GET request for \"" + uri + "\": "
+				+ exception.getMessage(), exception);
 		}
+		finally {
+			if (response != null && !found) {
+				response.close();
+			}
+		}
+	}
+	
+	private ObjectReader getResourceReader(Class<?> entityType) {
+		ObjectReader reader = resourceReaders.get(entityType);
 		
-		JavaType innerType = objectMapper.getTypeFactory().constructParametricType(Resource.class, entityType);
-		JavaType targetType = objectMapper.getTypeFactory().constructParametricType(Resources.class, innerType);
+		if (reader == null) {
+			reader = putIfAbsent(resourceReaders, entityType, createReader(getResourceType(entityType)));
+		}
 		
-		return objectMapper.convertValue(node, targetType);
+		return reader;
 	}
 	
-	public URI postObject(URI uri, Object object) {
-		return restTemplate.postForLocation(uri, object);
+	private ObjectReader getResourcesReader(Class<?> entityType) {
+		ObjectReader reader = resourcesReaders.get(entityType);
+		
+		if (reader == null) {
+			JavaType type = objectMapper.getTypeFactory().constructParametricType(Resources.class,
+				getResourceType(entityType));
+			reader = putIfAbsent(resourcesReaders, entityType, createReader(type));
+		}
+		
+		return reader;
 	}
 	
-	public void putObject(URI uri, Object object) {
-		restTemplate.put(uri, object);
+	private ObjectReader getPagedResourcesReader(Class<?> entityType) {
+		ObjectReader reader = pagedResourcesReaders.get(entityType);
+		
+		if (reader == null) {
+			JavaType type = objectMapper.getTypeFactory().constructParametricType(PagedResources.class,
+				getResourceType(entityType));
+			reader = putIfAbsent(pagedResourcesReaders, entityType, createReader(type));
+		}
+		
+		return reader;
 	}
 	
-	public void deleteResource(URI uri) {
-		restTemplate.delete(uri);
+	private ObjectReader createReader(JavaType type) {
+		ObjectReader reader = objectMapper.readerFor(type);
+		return proxyFactory != null ? reader.withAttribute(RestOperations.class, this) : reader;
+	}
+	
+	private ObjectWriter getWriter(Class<?> type) {
+		ObjectWriter writer = writers.get(type);
+		
+		if (writer == null) {
+			writer = putIfAbsent(writers, type, objectMapper.writerFor(type));
+		}
+		
+		return writer;
+	}
+	
+	private JavaType getResourceType(Class<?> entityType) {
+		return objectMapper.getTypeFactory().constructParametricType(Resource.class, entityType);
+	}
+	
+	private static <V> V putIfAbsent(ConcurrentMap<Class<?>, V> map, Class<?> key, V value) {
+		V existing = map.putIfAbsent(key, value);
+		return existing != null ? existing : value;
 	}
 	
 	RestTemplate getRestTemplate() {
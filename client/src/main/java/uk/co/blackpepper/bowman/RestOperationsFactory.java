@@ -17,8 +17,10 @@ package uk.co.blackpepper.bowman;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.springframework.beans.BeanUtils;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 import com.fasterxml.jackson.databind.DeserializationConfig;
@@ -42,11 +44,11 @@ class RestOperationsFactory {
 		private final Map<Class<?>, Object> handlerMap = new HashMap<>();
 		
 		RestOperationsInstantiation(Configuration configuration, ClientProxyFactory proxyFactory,
-				ObjectMapperFactory objectMapperFactory, RestTemplateFactory restTemplateFactory) {
+				ClientHttpRequestFactory clientHttpRequestFactory, ObjectMapperFactory objectMapperFactory,
+				RestTemplateFactory restTemplateFactory) {
 			
 			ObjectMapper objectMapper = objectMapperFactory.create(this);
-			RestTemplate restTemplate = restTemplateFactory.create(configuration.getClientHttpRequestFactory(),
-					objectMapper);
+			RestTemplate restTemplate = restTemplateFactory.create(clientHttpRequestFactory, objectMapper);
 			
 			if (configuration.getRestTemplateConfigurer() != null) {
 				configuration.getRestTemplateConfigurer().configure(restTemplate);
@@ -56,7 +58,19 @@ class RestOperationsFactory {
 				configuration.getObjectMapperConfigurer().configure(objectMapper);
 			}
 			
-			restOperations = new RestOperations(restTemplate, objectMapper);
+			Executor executor = configuration.getExecutor() != null ? configuration.getExecutor()
+				: SharedExecutor.getInstance();
+			
+			NotFoundCache notFoundCache = configuration.getNotFoundCacheSize() > 0 ? new NotFoundCache(configuration)
+				: null;
+			
+			InFlightRequests inFlightRequests = configuration.isCoalesceRequests() ? new InFlightRequests() : null;
+			
+			ResponseCache responseCache = configuration.getResponseCacheSize() > 0
+				|| configuration.getDiskCacheDirectory() != null ? new ResponseCache(configuration) : null;
+			
+			restOperations = new RestOperations(restTemplate, objectMapper, executor, notFoundCache,
+				inFlightRequests, responseCache, configuration.getBatchLoadWindow());
 			
 			handlerMap.put(ResourceDeserializer.class,
 					new ResourceDeserializer(Object.class, new DefaultTypeResolver(), configuration));
@@ -108,25 +122,31 @@ class RestOperationsFactory {
 	private final Configuration configuration;
 	
 	private final ClientProxyFactory proxyFactory;
+	
+	private final ClientHttpRequestFactory clientHttpRequestFactory;
 
 	private final ObjectMapperFactory objectMapperFactory;
 
 	private final RestTemplateFactory restTemplateFactory;
 	
-	RestOperationsFactory(Configuration configuration, ClientProxyFactory proxyFactory) {
-		this(configuration, proxyFactory, new DefaultObjectMapperFactory(), new DefaultRestTemplateFactory());
+	RestOperationsFactory(Configuration configuration, ClientProxyFactory proxyFactory,
+			ClientHttpRequestFactory clientHttpRequestFactory) {
+		this(configuration, proxyFactory, clientHttpRequestFactory, new DefaultObjectMapperFactory(),
+			new DefaultRestTemplateFactory());
 	}
 	
 	RestOperationsFactory(Configuration configuration, ClientProxyFactory proxyFactory,
-			ObjectMapperFactory objectMapperFactory, RestTemplateFactory restTemplateFactory) {
+			ClientHttpRequestFactory clientHttpRequestFactory, ObjectMapperFactory objectMapperFactory,
+			RestTemplateFactory restTemplateFactory) {
 		this.configuration = configuration;
 		this.proxyFactory = proxyFactory;
+		this.clientHttpRequestFactory = clientHttpRequestFactory;
 		this.objectMapperFactory = objectMapperFactory;
 		this.restTemplateFactory = restTemplateFactory;
 	}
 	
 	public RestOperations create() {
-		return new RestOperationsInstantiation(configuration, proxyFactory, objectMapperFactory, restTemplateFactory)
-				.getRestOperations();
+		return new RestOperationsInstantiation(configuration, proxyFactory, clientHttpRequestFactory,
+				objectMapperFactory, restTemplateFactory).getRestOperations();
 	}
 }
@@ -1,6 +1,10 @@
 package uk.co.blackpepper.bowman;
 
 import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.hateoas.Link;
@@ -11,8 +15,63 @@ import uk.co.blackpepper.bowman.annotation.RemoteResource;
 
 class SelfLinkTypeResolver implements TypeResolver {
 
+	/**
+	 * Index of subtypes by the path segments of their absolute collection URIs, so that a self link is matched
+	 * in a single walk of its segments rather than against each subtype in turn.
+	 */
+	private static final class PrefixIndex {
+		
+		private final Map<String, PrefixIndex> children = new HashMap<>();
+		
+		private Class<?> subtype;
+		
+		// position of the subtype in the declared order, where the first declared match wins
+		private int order = Integer.MAX_VALUE;
+		
+		void put(String prefix, Class<?> candidateClass, int candidateOrder) {
+			PrefixIndex node = this;
+			
+			for (String segment : prefix.split("/", -1)) {
+				PrefixIndex child = node.children.get(segment);
+				
+				if (child == null) {
+					child = new PrefixIndex();
+					node.children.put(segment, child);
+				}
+				
+				node = child;
+			}
+			
+			if (candidateOrder < node.order) {
+				node.subtype = candidateClass;
+				node.order = candidateOrder;
+			}
+		}
+		
+		Class<?> find(String uri) {
+			String[] segments = uri.split("/", -1);
+			PrefixIndex node = this;
+			Class<?> match = null;
+			int matchOrder = Integer.MAX_VALUE;
+			
+			// a prefix only matches when another segment follows it, i.e. the URI starts with the prefix and "/"
+			for (int i = 0; i < segments.length - 1 && node != null; i++) {
+				node = node.children.get(segments[i]);
+				
+				if (node != null && node.order < matchOrder) {
+					match = node.subtype;
+					matchOrder = node.order;
+				}
+			}
+			
+			return match;
+		}
+	}
+	
 	private Class<?>[] subtypes;
 	
+	private final ConcurrentMap<URI, PrefixIndex> indexes = new ConcurrentHashMap<>();
+	
 	SelfLinkTypeResolver(Class<?>[] subtypes) {
 		this.subtypes = subtypes;
 	}
@@ -26,31 +85,49 @@ class SelfLinkTypeResolver implements TypeResolver {
 			return declaredType;
 		}
 
-		for (Class<?> candidateClass : subtypes) {
-			RemoteResource candidateClassInfo = AnnotationUtils.findAnnotation(candidateClass, RemoteResource.class);
+		String selfLinkUriString = toAbsoluteUriString(self.getHref(), configuration.getBaseUri());
+		Class<?> subtype = getIndex(configuration.getBaseUri()).find(selfLinkUriString);
+		
+		return subtype != null ? subtype : declaredType;
+	}
+	
+	private PrefixIndex getIndex(URI baseUri) {
+		PrefixIndex index = indexes.get(baseUri);
+		
+		if (index == null) {
+			index = createIndex(baseUri);
+			PrefixIndex existing = indexes.putIfAbsent(baseUri, index);
+			
+			if (existing != null) {
+				index = existing;
+			}
+		}
+		
+		return index;
+	}
+	
+	private PrefixIndex createIndex(URI baseUri) {
+		PrefixIndex index = new PrefixIndex();
+		
+		for (int i = 0; i < subtypes.length; i++) {
+			RemoteResource candidateClassInfo = AnnotationUtils.findAnnotation(subtypes[i], RemoteResource.class);
 			
 			if (candidateClassInfo == null) {
 				continue;
 			}
 			
-			String resourcePath = candidateClassInfo.value();
-			
-			String resourceBaseUriString = UriComponentsBuilder.fromUri(configuration.getBaseUri())
-				.path(resourcePath)
+			String resourceBaseUriString = UriComponentsBuilder.fromUri(baseUri)
+				.path(candidateClassInfo.value())
 				.toUriString();
 			
-			String selfLinkUriString = toAbsoluteUriString(self.getHref(), configuration.getBaseUri());
-			
-			if (selfLinkUriString.startsWith(resourceBaseUriString + "/")) {
-				return candidateClass;
-			}
+			index.put(resourceBaseUriString, subtypes[i], i);
 		}
 		
-		return declaredType;
+		return index;
 	}
 	
 	private static String toAbsoluteUriString(String uri, URI baseUri) {
-		if (UriComponentsBuilder.fromUriString(uri).build().getHost() != null) {
+		if (hasScheme(uri) || UriComponentsBuilder.fromUriString(uri).build().getHost() != null) {
 			return uri;
 		}
 		
@@ -58,4 +135,25 @@ class SelfLinkTypeResolver implements TypeResolver {
 			.path(uri)
 			.toUriString();
 	}
+	
+	/**
+	 * Cheaply recognise the usual absolute link, of the form <code>scheme://...</code>, without parsing it.
+	 */
+	private static boolean hasScheme(String uri) {
+		int schemeEnd = uri.indexOf("://");
+		
+		if (schemeEnd <= 0 || !Character.isLetter(uri.charAt(0))) {
+			return false;
+		}
+		
+		for (int i = 1; i < schemeEnd; i++) {
+			char c = uri.charAt(i);
+			
+			if (!Character.isLetterOrDigit(c) && c != '+' && c != '-' && c != '.') {
+				return false;
+			}
+		}
+		
+		return true;
+	}
 }
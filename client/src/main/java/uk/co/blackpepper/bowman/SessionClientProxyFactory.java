@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
+
+/**
+ * Proxy factory for a {@link ClientSession}, returning the same proxy for every retrieval of a resource.
+ * 
+ * <p>Proxies are tracked by the URI of their resource's self link. A resource already tracked is returned as the
+ * existing proxy rather than a new one, so its linked resources are not loaded again, and linked resources whose
+ * links name a tracked URI are resolved without a request. Linked resources are created through this factory, so
+ * whole graphs of entities are tracked.
+ */
+final class SessionClientProxyFactory implements ClientProxyFactory {
+	
+	private final ClientProxyFactory delegate;
+	
+	private final ConcurrentMap<URI, Object> proxies = new ConcurrentHashMap<>();
+	
+	SessionClientProxyFactory(ClientProxyFactory delegate) {
+		this.delegate = delegate;
+	}
+	
+	@Override
+	public <T> T create(Resource<T> resource, RestOperations restOperations) {
+		return create(resource, restOperations, null, this);
+	}
+	
+	@Override
+	public <T> T create(Resource<T> resource, RestOperations restOperations, LoadGroup loadGroup) {
+		return create(resource, restOperations, loadGroup, this);
+	}
+	
+	@Override
+	public <T> T create(Resource<T> resource, RestOperations restOperations, LoadGroup loadGroup,
+		ClientProxyFactory linkedProxyFactory) {
+		
+		Link selfLink = resource.getLink(Link.REL_SELF);
+		
+		if (selfLink == null) {
+			return delegate.create(resource, restOperations, loadGroup, linkedProxyFactory);
+		}
+		
+		URI uri = URI.create(selfLink.getHref());
+		
+		@SuppressWarnings("unchecked")
+		Class<T> entityType = (Class<T>) resource.getContent().getClass();
+		
+		T proxy = find(uri, entityType);
+		
+		if (proxy != null) {
+			return proxy;
+		}
+		
+		return track(uri, entityType, delegate.create(resource, restOperations, loadGroup, linkedProxyFactory));
+	}
+	
+	@Override
+	public <T> T create(URI uri, Class<T> entityType, RestOperations restOperations) {
+		return create(uri, entityType, restOperations, this);
+	}
+	
+	@Override
+	public <T> T create(URI uri, Class<T> entityType, RestOperations restOperations,
+		ClientProxyFactory linkedProxyFactory) {
+		
+		T proxy = find(uri, entityType);
+		
+		if (proxy != null) {
+			return proxy;
+		}
+		
+		return track(uri, entityType, delegate.create(uri, entityType, restOperations, linkedProxyFactory));
+	}
+	
+	@Override
+	public <T> T find(URI uri, Class<T> entityType) {
+		Object proxy = proxies.get(uri);
+		return entityType.isInstance(proxy) ? entityType.cast(proxy) : null;
+	}
+	
+	@Override
+	public void forget(URI uri) {
+		proxies.remove(uri);
+	}
+	
+	void clear() {
+		proxies.clear();
+	}
+	
+	int size() {
+		return proxies.size();
+	}
+	
+	/**
+	 * Track the given proxy, unless another thread created one for the same URI first, in which case that proxy
+	 * is returned instead.
+	 */
+	private <T> T track(URI uri, Class<T> entityType, T proxy) {
+		Object existing = proxies.putIfAbsent(uri, proxy);
+		return entityType.isInstance(existing) ? entityType.cast(existing) : proxy;
+	}
+}
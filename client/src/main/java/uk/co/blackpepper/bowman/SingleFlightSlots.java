@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed number of lazily loaded values, each loaded at most once however many threads request it
+ * concurrently.
+ * 
+ * <p>A slot is claimed with a compare-and-set; the claiming thread runs the loader while other threads wait
+ * for its result. Null results and failures are not retained, so the next request loads the slot again.
+ */
+final class SingleFlightSlots {
+	
+	private static final class Loading extends FutureTask<Object> {
+		
+		Loading(Callable<Object> loader) {
+			super(loader);
+		}
+	}
+	
+	private final AtomicReferenceArray<Object> slots;
+	
+	SingleFlightSlots(int size) {
+		slots = new AtomicReferenceArray<>(size);
+	}
+	
+	Object get(int slot, Callable<Object> loader) throws Exception {
+		while (true) {
+			Object value = slots.get(slot);
+			
+			if (value != null && !(value instanceof Loading)) {
+				return value;
+			}
+			
+			Loading loading;
+			
+			if (value == null) {
+				loading = new Loading(loader);
+				
+				if (!slots.compareAndSet(slot, null, loading)) {
+					continue;
+				}
+				
+				loading.run();
+			}
+			else {
+				loading = (Loading) value;
+			}
+			
+			return await(slot, loading);
+		}
+	}
+	
+	Object peek(int slot) {
+		Object value = slots.get(slot);
+		return value instanceof Loading ? null : value;
+	}
+	
+	void set(int slot, Object value) {
+		slots.set(slot, value);
+	}
+	
+	private Object await(int slot, Loading loading) throws Exception {
+		Object result;
+		
+		try {
+			result = loading.get();
+		}
+		catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new ClientProxyException("interrupted waiting for a concurrent load", exception);
+		}
+		catch (ExecutionException exception) {
+			slots.compareAndSet(slot, loading, null);
+			throw unwrap(exception);
+		}
+		
+		slots.compareAndSet(slot, loading, result);
+		return result;
+	}
+	
+	private static Exception unwrap(ExecutionException exception) {
+		Throwable cause = exception.getCause();
+		
+		if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+		
+		return cause instanceof Exception ? (Exception) cause : exception;
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates executors that start a new virtual thread for each task, on JVMs that support them.
+ * 
+ * <p>Bowman is built for Java 8, so the executor is looked up reflectively.
+ */
+final class VirtualThreadExecutor {
+
+	private VirtualThreadExecutor() {
+	}
+
+	static boolean isSupported() {
+		try {
+			Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return true;
+		}
+		catch (NoSuchMethodException exception) {
+			return false;
+		}
+	}
+
+	static Executor create() {
+		try {
+			return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}
+		catch (NoSuchMethodException exception) {
+			throw new IllegalStateException("virtual threads require Java 21 or later", exception);
+		}
+		catch (IllegalAccessException | InvocationTargetException exception) {
+			throw new IllegalStateException("couldn't create virtual thread executor", exception);
+		}
+	}
+}
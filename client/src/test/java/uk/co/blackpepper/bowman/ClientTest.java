@@ -16,9 +16,17 @@
 package uk.co.blackpepper.bowman;
 
 import java.net.URI;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedResources;
+import org.springframework.hateoas.PagedResources.PageMetadata;
 import org.springframework.hateoas.Resource;
 import org.springframework.hateoas.Resources;
 
@@ -29,10 +37,16 @@ import static java.util.Arrays.asList;
 
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 public class ClientTest {
@@ -56,16 +70,19 @@ public class ClientTest {
 
 	private ClientProxyFactory proxyFactory;
 	
+	private FetchPlanResolver fetchPlanResolver;
+	
 	@Before
 	public void setup() {
 		restOperations = mock(RestOperations.class);
 		proxyFactory = mock(ClientProxyFactory.class);
+		fetchPlanResolver = mock(FetchPlanResolver.class);
 		
 		Configuration config = Configuration.builder()
 				.setBaseUri(BASE_URI)
 				.build();
 		
-		client = new Client<>(Entity.class, config, restOperations, proxyFactory);
+		client = new Client<>(Entity.class, config, restOperations, proxyFactory, fetchPlanResolver);
 	}
 	
 	@Test
@@ -81,6 +98,17 @@ public class ClientTest {
 		assertThat(proxy, is(expected));
 	}
 	
+	@Test
+	public void getReturnsTrackedProxyWithoutRequest() {
+		Entity expected = new Entity();
+		when(proxyFactory.find(URI.create("http://www.example.com/1"), Entity.class)).thenReturn(expected);
+		
+		Entity proxy = client.get(URI.create("http://www.example.com/1"));
+		
+		assertThat(proxy, is(expected));
+		verify(restOperations, never()).getResource(URI.create("http://www.example.com/1"), Entity.class);
+	}
+	
 	@Test
 	public void getReturnsNullWhenRestOperationsReturnsNull() {
 		when(restOperations.getResource(URI.create("http://www.example.com/1"), Entity.class)).thenReturn(null);
@@ -90,6 +118,54 @@ public class ClientTest {
 		assertThat(proxy, is(nullValue()));
 	}
 	
+	@Test
+	public void getWithFetchPlanResolvesFetchPlan() {
+		Entity expected = new Entity();
+		FetchPlan fetchPlan = FetchPlan.of("linked");
+		
+		Resource<Entity> resource = new Resource<>(new Entity());
+		when(restOperations.getResource(URI.create("http://www.example.com/1"), Entity.class)).thenReturn(resource);
+		when(proxyFactory.create(resource, restOperations)).thenReturn(expected);
+		
+		Entity proxy = client.get(URI.create("http://www.example.com/1"), fetchPlan);
+		
+		assertThat(proxy, is(expected));
+		verify(fetchPlanResolver).resolve(expected, fetchPlan);
+	}
+	
+	@Test
+	public void getWithFetchPlanReturnsNullWhenRestOperationsReturnsNull() {
+		when(restOperations.getResource(URI.create("http://www.example.com/1"), Entity.class)).thenReturn(null);
+		
+		Entity proxy = client.get(URI.create("http://www.example.com/1"), FetchPlan.of("linked"));
+		
+		assertThat(proxy, is(nullValue()));
+		verifyZeroInteractions(fetchPlanResolver);
+	}
+	
+	@Test
+	public void loadResolvesFetchPlan() {
+		Entity entity = new Entity();
+		FetchPlan fetchPlan = FetchPlan.of("linked");
+		
+		Entity result = client.load(entity, fetchPlan);
+		
+		assertThat(result, is(entity));
+		verify(fetchPlanResolver).resolve(entity, fetchPlan);
+	}
+	
+	@Test
+	public void getReferenceReturnsProxy() {
+		Entity expected = new Entity();
+		when(proxyFactory.create(URI.create("http://www.example.com/1"), Entity.class, restOperations))
+				.thenReturn(expected);
+		
+		Entity proxy = client.getReference(URI.create("http://www.example.com/1"));
+		
+		assertThat(proxy, is(expected));
+		verifyZeroInteractions(restOperations);
+	}
+	
 	@Test
 	public void getAllWithNoArgumentsReturnsProxyIterable() {
 		Entity expected = new Entity();
@@ -97,13 +173,155 @@ public class ClientTest {
 		Resource<Entity> resource = new Resource<>(new Entity());
 		when(restOperations.getResources(URI.create(BASE_URI + "/entities"), Entity.class)).thenReturn(
 				new Resources<>(asList(resource)));
-		when(proxyFactory.create(resource, restOperations)).thenReturn(expected);
+		when(proxyFactory.create(eq(resource), eq(restOperations), any(LoadGroup.class))).thenReturn(expected);
 		
 		Iterable<Entity> proxies = client.getAll();
 		
 		assertThat(proxies, contains(expected));
 	}
 
+	@Test
+	public void getAllCreatesProxiesInSameLoadGroup() {
+		Resource<Entity> resource1 = new Resource<>(new Entity());
+		Resource<Entity> resource2 = new Resource<>(new Entity());
+		when(restOperations.getBatchLoadWindow()).thenReturn(1);
+		when(restOperations.getResources(URI.create(BASE_URI + "/entities"), Entity.class)).thenReturn(
+				new Resources<>(asList(resource1, resource2)));
+		
+		client.getAll();
+		
+		ArgumentCaptor<LoadGroup> loadGroup1 = ArgumentCaptor.forClass(LoadGroup.class);
+		ArgumentCaptor<LoadGroup> loadGroup2 = ArgumentCaptor.forClass(LoadGroup.class);
+		verify(proxyFactory).create(eq(resource1), eq(restOperations), loadGroup1.capture());
+		verify(proxyFactory).create(eq(resource2), eq(restOperations), loadGroup2.capture());
+		assertThat(loadGroup1.getValue(), is(notNullValue()));
+		assertThat(loadGroup1.getValue(), is(sameInstance(loadGroup2.getValue())));
+	}
+	
+	@Test
+	public void getAllWithBatchLoadingDisabledCreatesProxiesWithoutLoadGroup() {
+		Resource<Entity> resource = new Resource<>(new Entity());
+		when(restOperations.getBatchLoadWindow()).thenReturn(0);
+		when(restOperations.getResources(URI.create(BASE_URI + "/entities"), Entity.class)).thenReturn(
+				new Resources<>(asList(resource)));
+		
+		client.getAll();
+		
+		verify(proxyFactory).create(resource, restOperations, (LoadGroup) null);
+	}
+
+	@Test
+	public void getAllWithFetchPlanResolvesFetchPlan() {
+		Entity expected = new Entity();
+		FetchPlan fetchPlan = FetchPlan.of("linked");
+		
+		Resource<Entity> resource = new Resource<>(new Entity());
+		when(restOperations.getResources(URI.create(BASE_URI + "/entities"), Entity.class)).thenReturn(
+				new Resources<>(asList(resource)));
+		when(proxyFactory.create(eq(resource), eq(restOperations), any(LoadGroup.class))).thenReturn(expected);
+		
+		Iterable<Entity> proxies = client.getAll(fetchPlan);
+		
+		assertThat(proxies, contains(expected));
+		verify(fetchPlanResolver).resolveAll(proxies, fetchPlan);
+	}
+
+	@Test
+	public void streamWithNoArgumentsReturnsProxyStream() {
+		Entity expected = new Entity();
+		
+		Resource<Entity> resource = new Resource<>(new Entity());
+		when(restOperations.streamResources(URI.create(BASE_URI + "/entities"), Entity.class))
+			.thenReturn(Stream.of(resource));
+		when(proxyFactory.create(resource, restOperations)).thenReturn(expected);
+		
+		Stream<Entity> proxies = client.stream();
+		
+		assertThat(proxies.collect(Collectors.toList()), contains(expected));
+	}
+	
+	@Test
+	public void streamCreatesProxiesAsConsumed() {
+		Resource<Entity> resource = new Resource<>(new Entity());
+		when(restOperations.streamResources(URI.create("http://www.example.com/1"), Entity.class))
+			.thenReturn(Stream.of(resource));
+		
+		client.stream(URI.create("http://www.example.com/1"));
+		
+		verifyZeroInteractions(proxyFactory);
+	}
+	
+	@Test
+	public void streamWithPagingReturnsProxiesOfEachPage() {
+		Entity expected1 = new Entity();
+		Entity expected2 = new Entity();
+		
+		Resource<Entity> resource1 = new Resource<>(new Entity());
+		Resource<Entity> resource2 = new Resource<>(new Entity());
+		when(restOperations.getExecutor()).thenReturn(Runnable::run);
+		when(restOperations.getResources(URI.create(BASE_URI + "/entities?size=1"), Entity.class))
+			.thenReturn(new Resources<>(asList(resource1), new Link(BASE_URI + "/entities?page=1&size=1", "next")));
+		when(restOperations.getResources(URI.create(BASE_URI + "/entities?page=1&size=1"), Entity.class))
+			.thenReturn(new Resources<>(asList(resource2)));
+		when(proxyFactory.create(eq(resource1), eq(restOperations), any(LoadGroup.class))).thenReturn(expected1);
+		when(proxyFactory.create(eq(resource2), eq(restOperations), any(LoadGroup.class))).thenReturn(expected2);
+		
+		Stream<Entity> proxies = client.stream(Paging.builder().setPageSize(1).build());
+		
+		assertThat(proxies.collect(Collectors.toList()), contains(expected1, expected2));
+	}
+	
+	@Test
+	public void scanReturnsProxiesOfEachPage() {
+		Entity expected1 = new Entity();
+		Entity expected2 = new Entity();
+		
+		Resource<Entity> resource1 = new Resource<>(new Entity());
+		Resource<Entity> resource2 = new Resource<>(new Entity());
+		when(restOperations.getExecutor()).thenReturn(Runnable::run);
+		when(restOperations.getPagedResources(URI.create(BASE_URI + "/entities"), Entity.class))
+			.thenReturn(new PagedResources<>(asList(resource1), new PageMetadata(1, 0, 2, 2)));
+		when(restOperations.getPagedResources(URI.create(BASE_URI + "/entities?page=1&size=1"), Entity.class))
+			.thenReturn(new PagedResources<>(asList(resource2), new PageMetadata(1, 1, 2, 2)));
+		when(proxyFactory.create(eq(resource1), eq(restOperations), any(LoadGroup.class))).thenReturn(expected1);
+		when(proxyFactory.create(eq(resource2), eq(restOperations), any(LoadGroup.class))).thenReturn(expected2);
+		
+		Stream<Entity> proxies = client.scan(URI.create(BASE_URI + "/entities"), Paging.builder().build(), 2, true);
+		
+		assertThat(proxies.collect(Collectors.toList()), contains(expected1, expected2));
+	}
+	
+	@Test
+	public void scanWithUnpagedCollectionReturnsProxies() {
+		Entity expected = new Entity();
+		
+		Resource<Entity> resource = new Resource<>(new Entity());
+		when(restOperations.getExecutor()).thenReturn(Runnable::run);
+		when(restOperations.getPagedResources(URI.create(BASE_URI + "/entities"), Entity.class))
+			.thenReturn(new PagedResources<>(asList(resource), null));
+		when(proxyFactory.create(eq(resource), eq(restOperations), any(LoadGroup.class))).thenReturn(expected);
+		
+		Stream<Entity> proxies = client.scan(1);
+		
+		assertThat(proxies.collect(Collectors.toList()), contains(expected));
+	}
+	
+	@Test
+	public void publishWithPagingRetrievesFirstPageOnRequest() {
+		when(restOperations.getExecutor()).thenReturn(Runnable::run);
+		@SuppressWarnings("unchecked")
+		Subscriber<Entity> subscriber = mock(Subscriber.class);
+		
+		client.publish(Paging.builder().setPageSize(1).build()).subscribe(subscriber);
+		ArgumentCaptor<Subscription> subscription = ArgumentCaptor.forClass(Subscription.class);
+		verify(subscriber).onSubscribe(subscription.capture());
+		verify(restOperations, never()).openResources(any(URI.class), eq(Entity.class));
+		subscription.getValue().request(1);
+		
+		verify(restOperations).openResources(URI.create(BASE_URI + "/entities?size=1"), Entity.class);
+		verify(subscriber).onComplete();
+	}
+	
 	@Test
 	public void postReturnsId() {
 		Entity entity = new Entity();
@@ -132,4 +350,11 @@ public class ClientTest {
 		
 		verify(restOperations).deleteResource(URI.create("http://www.example.com/1"));
 	}
+	
+	@Test
+	public void deleteForgetsTrackedProxy() {
+		client.delete(URI.create("http://www.example.com/1"));
+		
+		verify(proxyFactory).forget(URI.create("http://www.example.com/1"));
+	}
 }
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.SchemePortResolver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ConnectionPoolTest {
+
+	private ServerSocket server;
+
+	private ConnectionPool pool;
+
+	private Socket keptSocket;
+
+	@Before
+	public void setup() throws Exception {
+		server = new ServerSocket(0, 10, InetAddress.getLoopbackAddress());
+
+		pool = new ConnectionPool(Configuration.builder()
+			.setMaxConnections(4)
+			.setMaxConnectionsPerRoute(2)
+			.setConnectTimeout(1, TimeUnit.SECONDS)
+			.build());
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		pool.close();
+		server.close();
+		
+		if (keptSocket != null) {
+			keptSocket.close();
+		}
+	}
+
+	@Test
+	public void getRequestFactoryReturnsHttpComponentsFactory() {
+		assertThat(pool.getRequestFactory(), is(instanceOf(HttpComponentsClientHttpRequestFactory.class)));
+	}
+
+	@Test
+	public void getRequestFactoryDoesNotBufferRequestBody() throws Exception {
+		ClientHttpRequest request = pool.getRequestFactory().createRequest(serverUri(), HttpMethod.POST);
+
+		assertThat(request, is(instanceOf(StreamingHttpOutputMessage.class)));
+	}
+
+	@Test
+	public void postObjectThroughRequestFactoryStreamsBody() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		
+		try {
+			Future<String> body = executor.submit(new Callable<String>() {
+				@Override
+				public String call() throws Exception {
+					return respondCreated(URI.create("http://example.com/1"));
+				}
+			});
+			RestOperations restOperations = new RestOperations(new RestTemplate(pool.getRequestFactory()),
+				new ObjectMapper());
+			
+			URI location = restOperations.postObject(serverUri(), Collections.singletonMap("name", "x"));
+			
+			assertThat(location, is(URI.create("http://example.com/1")));
+			assertThat(body.get(1, TimeUnit.SECONDS), is("{\"name\":\"x\"}"));
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	@Test
+	public void getStatsReturnsMaxConnections() {
+		ConnectionPoolStats stats = pool.getStats();
+
+		assertThat(stats.getMax(), is(4));
+		assertThat(stats.getLeased(), is(0));
+		assertThat(stats.getAvailable(), is(0));
+	}
+
+	@Test
+	public void prewarmOpensAvailableConnections() {
+		pool.prewarm(serverUri(), 1);
+
+		assertThat(pool.getStats().getAvailable(), is(1));
+		assertThat(pool.getStats().getLeased(), is(0));
+	}
+
+	@Test
+	public void prewarmWithoutPortWarmsConnectionForRequests() throws Exception {
+		pool.close();
+		pool = new ConnectionPool(Configuration.builder()
+			.setConnectTimeout(1, TimeUnit.SECONDS)
+			.setReadTimeout(1, TimeUnit.SECONDS)
+			.build(), new SchemePortResolver() {
+				@Override
+				public int resolve(HttpHost host) {
+					// stands in for the scheme's default port
+					return server.getLocalPort();
+				}
+			});
+		URI uri = URI.create("http://" + server.getInetAddress().getHostAddress() + "/");
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		
+		try {
+			pool.prewarm(uri, 1);
+			
+			server.setSoTimeout(1000);
+			keptSocket = server.accept();
+			
+			Future<String> requestLine = executor.submit(new Callable<String>() {
+				@Override
+				public String call() throws Exception {
+					return respondOk(keptSocket);
+				}
+			});
+			
+			try (ClientHttpResponse response = pool.getRequestFactory().createRequest(uri, HttpMethod.GET)
+				.execute()) {
+				assertThat(response.getRawStatusCode(), is(200));
+			}
+			
+			assertThat(requestLine.get(1, TimeUnit.SECONDS), is("GET / HTTP/1.1"));
+			assertThat(pool.getStats().getAvailable(), is(1));
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void prewarmOpensNoMoreThanMaxConnectionsPerRoute() {
+		pool.prewarm(serverUri(), 3);
+
+		assertThat(pool.getStats().getAvailable(), is(2));
+	}
+
+	@Test
+	public void prewarmWhenCannotConnectOpensNoConnections() throws Exception {
+		URI uri = serverUri();
+		server.close();
+
+		pool.prewarm(uri, 1);
+
+		assertThat(pool.getStats().getAvailable(), is(0));
+		assertThat(pool.getStats().getLeased(), is(0));
+	}
+
+	private static String respondOk(Socket socket) throws Exception {
+		// the request fails if it was not sent on this connection
+		socket.setSoTimeout(1000);
+		
+		BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+			StandardCharsets.ISO_8859_1));
+		
+		String requestLine = reader.readLine();
+		String line = reader.readLine();
+		while (!line.isEmpty()) {
+			line = reader.readLine();
+		}
+		
+		// leave the connection open so that the client can pool it again
+		OutputStream output = socket.getOutputStream();
+		output.write("HTTP/1.1 200 OK\r\nContent-Length: 0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+		output.flush();
+		
+		return requestLine;
+	}
+	
+	private String respondCreated(URI location) throws Exception {
+		try (Socket socket = server.accept()) {
+			BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+				StandardCharsets.ISO_8859_1));
+			
+			String line = reader.readLine();
+			while (!line.isEmpty()) {
+				line = reader.readLine();
+			}
+			
+			// an unbuffered body of unknown length is sent chunked
+			StringBuilder body = new StringBuilder();
+			int size = Integer.parseInt(reader.readLine().trim(), 16);
+			while (size > 0) {
+				char[] chunk = new char[size];
+				int read = 0;
+				while (read < size) {
+					read += reader.read(chunk, read, size - read);
+				}
+				body.append(chunk);
+				reader.readLine();
+				size = Integer.parseInt(reader.readLine().trim(), 16);
+			}
+			
+			OutputStream output = socket.getOutputStream();
+			output.write(("HTTP/1.1 201 Created\r\nLocation: " + location + "\r\nContent-Length: 0\r\n"
+				+ "Connection: close\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+			output.flush();
+			
+			return body.toString();
+		}
+	}
+	
+	private URI serverUri() {
+		return URI.create("http://" + server.getInetAddress().getHostAddress() + ":" + server.getLocalPort());
+	}
+}
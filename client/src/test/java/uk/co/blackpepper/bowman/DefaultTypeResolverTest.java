@@ -11,6 +11,7 @@ import org.springframework.hateoas.Links;
 import uk.co.blackpepper.bowman.annotation.RemoteResource;
 import uk.co.blackpepper.bowman.annotation.ResourceTypeInfo;
 
+import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -152,4 +153,14 @@ public class DefaultTypeResolverTest {
 		
 		assertThat(type, Matchers.<Class<?>>equalTo(TypeWithResolverSubtype.class));
 	}
+	
+	@Test
+	public void isPolymorphicWithNoResourceTypeInfoReturnsFalse() {
+		assertThat(resolver.isPolymorphic(TypeWithoutInfo.class), is(false));
+	}
+	
+	@Test
+	public void isPolymorphicWithResourceTypeInfoReturnsTrue() {
+		assertThat(resolver.isPolymorphic(TypeWithSubtypes.class), is(true));
+	}
 }
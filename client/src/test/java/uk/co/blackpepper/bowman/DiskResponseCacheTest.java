@@ -0,0 +1,259 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class DiskResponseCacheTest {
+
+	private TemporaryFolder folder = new TemporaryFolder();
+
+	private Path directory;
+
+	private DiskResponseCache cache;
+
+	@Rule
+	public TemporaryFolder getFolder() {
+		return folder;
+	}
+
+	@Before
+	public void setup() throws Exception {
+		directory = folder.newFolder().toPath();
+
+		cache = DiskResponseCache.open(directory, 1024 * 1024);
+	}
+
+	@Test
+	public void getWhenPutReturnsRecord() {
+		cache.put(uri(1), new DiskResponseCache.Record(new byte[] {1}, "\"1\"", 2, 3));
+
+		DiskResponseCache.Record record = cache.get(uri(1));
+
+		assertThat(record.getBody(), is(new byte[] {1}));
+		assertThat(record.getETag(), is("\"1\""));
+		assertThat(record.getLastModified(), is(2L));
+		assertThat(record.getExpires(), is(3L));
+	}
+
+	@Test
+	public void getWhenPutWithoutETagReturnsRecordWithoutETag() {
+		cache.put(uri(1), new DiskResponseCache.Record(new byte[] {1}, null, -1, 3));
+
+		assertThat(cache.get(uri(1)).getETag(), is(nullValue()));
+	}
+
+	@Test
+	public void getWhenNotPutReturnsNull() {
+		assertThat(cache.get(uri(1)), is(nullValue()));
+	}
+
+	@Test
+	public void getWhenRemovedReturnsNull() {
+		cache.put(uri(1), record(1));
+		cache.remove(uri(1));
+
+		assertThat(cache.get(uri(1)), is(nullValue()));
+	}
+
+	@Test
+	public void getWhenPutTwiceReturnsLastRecord() {
+		cache.put(uri(1), record(1));
+		cache.put(uri(1), record(2));
+
+		assertThat(cache.get(uri(1)).getBody(), is(new byte[] {2}));
+	}
+
+	@Test
+	public void getAfterReopenReturnsRecord() {
+		cache.put(uri(1), record(1));
+		cache.close();
+
+		cache = DiskResponseCache.open(directory, 1024 * 1024);
+
+		assertThat(cache.get(uri(1)).getBody(), is(new byte[] {1}));
+	}
+
+	@Test
+	public void getAfterReopenWhenPutAfterCloseReturnsRecord() {
+		cache.put(uri(1), record(1));
+		cache.close();
+		cache.put(uri(2), record(2));
+
+		cache = DiskResponseCache.open(directory, 1024 * 1024);
+
+		assertThat(cache.get(uri(1)).getBody(), is(new byte[] {1}));
+		assertThat(cache.get(uri(2)), is(nullValue()));
+	}
+
+	@Test
+	public void getAfterCloseReturnsNull() {
+		cache.put(uri(1), record(1));
+		cache.close();
+
+		assertThat(cache.get(uri(1)), is(nullValue()));
+	}
+
+	@Test
+	public void getAfterReopenWhenPutTwiceReturnsLastRecord() {
+		cache.put(uri(1), record(1));
+		cache.put(uri(1), record(2));
+		cache.close();
+
+		cache = DiskResponseCache.open(directory, 1024 * 1024);
+
+		assertThat(cache.get(uri(1)).getBody(), is(new byte[] {2}));
+		assertThat(cache.size(), is(1));
+	}
+
+	@Test
+	public void getAfterReopenWhenRemovedReturnsNull() {
+		cache.put(uri(1), record(1));
+		cache.remove(uri(1));
+		cache.close();
+
+		cache = DiskResponseCache.open(directory, 1024 * 1024);
+
+		assertThat(cache.get(uri(1)), is(nullValue()));
+	}
+
+	@Test
+	public void openWithPartlyWrittenRecordIgnoresRecord() throws Exception {
+		cache.put(uri(1), record(1));
+		cache.close();
+		File segment = directory.resolve("segment-0000000000.bin").toFile();
+
+		try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+			long end = 8 + 4 + 4 + 8 + 8 + 4 + uri(1).toString().length() + 4 + 4 + 1;
+			file.seek(end);
+			file.writeInt(100);
+			file.writeInt(0);
+			file.writeLong(0);
+			file.writeLong(0);
+			file.writeInt(Integer.MAX_VALUE);
+		}
+
+		cache = DiskResponseCache.open(directory, 1024 * 1024);
+		cache.put(uri(2), record(2));
+
+		assertThat(cache.size(), is(2));
+		assertThat(cache.get(uri(2)).getBody(), is(new byte[] {2}));
+	}
+
+	@Test
+	public void openWithCorruptRecordDropsRecord() throws Exception {
+		cache.put(uri(1), record(1));
+		cache.put(uri(2), record(2));
+		cache.close();
+		corruptBody(uri(1));
+
+		cache = DiskResponseCache.open(directory, 1024 * 1024);
+
+		assertThat(cache.get(uri(1)), is(nullValue()));
+		assertThat(cache.get(uri(2)).getBody(), is(new byte[] {2}));
+		assertThat(cache.size(), is(1));
+	}
+
+	@Test
+	public void getWhenRecordCorruptReturnsNull() throws Exception {
+		cache.put(uri(1), record(1));
+		corruptBody(uri(1));
+
+		assertThat(cache.get(uri(1)), is(nullValue()));
+		assertThat(cache.size(), is(0));
+	}
+
+	@Test
+	public void openWhenDirectoryLockedReturnsNull() {
+		assertThat(DiskResponseCache.open(directory, 1024 * 1024), is(nullValue()));
+	}
+
+	@Test
+	public void openAfterCloseWhenDirectoryWasLockedReturnsCache() {
+		cache.close();
+
+		cache = DiskResponseCache.open(directory, 1024 * 1024);
+
+		assertThat(cache, is(notNullValue()));
+	}
+
+	@Test
+	public void putWhenFullDeletesLeastRecentlyUsedSegment() {
+		cache.close();
+		cache = DiskResponseCache.open(directory, 512 * 1024);
+		cache.put(uri(0), new DiskResponseCache.Record(new byte[1000], null, -1, 0));
+
+		for (int id = 1; id < 2000; id++) {
+			cache.put(uri(id), new DiskResponseCache.Record(new byte[1000], null, -1, 0));
+
+			if (id % 50 == 0) {
+				cache.get(uri(0));
+			}
+		}
+
+		assertThat(segmentFiles().length, is(lessThanOrEqualTo(8)));
+		assertThat(cache.get(uri(0)), is(notNullValue()));
+		assertThat(cache.get(uri(200)), is(nullValue()));
+		assertThat(cache.get(uri(1999)), is(notNullValue()));
+	}
+
+	@Test
+	public void putWhenLargerThanSegmentDoesNotCache() {
+		cache.put(uri(1), new DiskResponseCache.Record(new byte[1024 * 1024], null, -1, 0));
+
+		assertThat(cache.get(uri(1)), is(nullValue()));
+		assertThat(segmentFiles(), is(arrayWithSize(0)));
+	}
+
+	private File[] segmentFiles() {
+		return directory.toFile().listFiles((dir, name) -> name.startsWith("segment-"));
+	}
+
+	/**
+	 * Change the one byte body of the first record in the first segment, which holds the given URI.
+	 */
+	private void corruptBody(URI uri) throws Exception {
+		File segment = directory.resolve("segment-0000000000.bin").toFile();
+
+		try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+			file.seek(8 + 4 + 4 + 8 + 8 + 4 + uri.toString().length() + 4 + 4);
+			file.writeByte(99);
+		}
+	}
+
+	private static DiskResponseCache.Record record(int value) {
+		return new DiskResponseCache.Record(new byte[] {(byte) value}, null, -1, 0);
+	}
+
+	private static URI uri(int id) {
+		return URI.create("http://example.com/" + id);
+	}
+}
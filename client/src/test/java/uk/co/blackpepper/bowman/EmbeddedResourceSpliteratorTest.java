@@ -0,0 +1,176 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
+
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.HandlerInstantiator;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class EmbeddedResourceSpliteratorTest {
+
+	public static class Entity {
+		
+		private String field;
+		
+		public String getField() {
+			return field;
+		}
+		
+		public void setField(String field) {
+			this.field = field;
+		}
+	}
+	
+	private ObjectMapper mapper;
+	
+	private Closeable response;
+	
+	@Before
+	public void setup() {
+		HandlerInstantiator instantiator = mock(HandlerInstantiator.class);
+		doReturn(new ResourceDeserializer(Object.class, new DefaultTypeResolver(), Configuration.build()))
+			.when(instantiator).deserializerInstance(any(DeserializationConfig.class), any(Annotated.class),
+				eq(ResourceDeserializer.class));
+		
+		mapper = new DefaultObjectMapperFactory().create(instantiator);
+		response = mock(Closeable.class);
+	}
+	
+	@Test
+	public void streamReturnsEmbeddedResources() throws Exception {
+		List<String> fields = readFields("{\"_links\":{\"self\":{\"href\":\"http://x.com/entities\"}},"
+			+ "\"_embedded\":{\"entities\":[{\"field\":\"x\"},{\"field\":\"y\"}]},\"page\":{\"size\":2}}");
+		
+		assertThat(fields, contains("x", "y"));
+	}
+	
+	@Test
+	public void streamReturnsResourcesOfEachEmbeddedRel() throws Exception {
+		List<String> fields = readFields("{\"_embedded\":{\"entities\":[{\"field\":\"x\"}],"
+			+ "\"others\":[{\"field\":\"y\"}]}}");
+		
+		assertThat(fields, contains("x", "y"));
+	}
+	
+	@Test
+	public void streamReturnsSingleEmbeddedResource() throws Exception {
+		List<String> fields = readFields("{\"_embedded\":{\"entity\":{\"field\":\"x\"}}}");
+		
+		assertThat(fields, contains("x"));
+	}
+	
+	@Test
+	public void streamIgnoresNestedEmbeddedResources() throws Exception {
+		List<String> fields = readFields("{\"other\":{\"_embedded\":{\"entities\":[{\"field\":\"x\"}]}},"
+			+ "\"_embedded\":{\"entities\":[{\"field\":\"y\",\"_embedded\":{\"z\":[{}]}}]}}");
+		
+		assertThat(fields, contains("y"));
+	}
+	
+	@Test
+	public void streamWithNoEmbeddedResourcesReturnsEmpty() throws Exception {
+		assertThat(readFields("{\"_links\":{}}"), is(empty()));
+	}
+	
+	@Test
+	public void streamWithEmptyBodyReturnsEmpty() throws Exception {
+		assertThat(readFields(""), is(empty()));
+	}
+	
+	@Test
+	public void streamClosesResponseAtEnd() throws Exception {
+		readFields("{\"_embedded\":{\"entities\":[{\"field\":\"x\"}]}}");
+		
+		verify(response).close();
+	}
+	
+	@Test
+	public void closeClosesResponse() throws Exception {
+		EmbeddedResourceSpliterator<Entity> spliterator = createSpliterator(
+			"{\"_embedded\":{\"entities\":[{\"field\":\"x\"},{\"field\":\"y\"}]}}");
+		
+		spliterator.tryAdvance(resource -> { });
+		spliterator.close();
+		
+		verify(response).close();
+	}
+	
+	@Test
+	public void getLinkAtEndReturnsLinkAfterEmbeddedResources() throws Exception {
+		EmbeddedResourceSpliterator<Entity> spliterator = createSpliterator(
+			"{\"_embedded\":{\"entities\":[{\"field\":\"x\"}]},"
+			+ "\"_links\":{\"next\":{\"href\":\"http://x.com/entities?page=1\"}}}");
+		
+		spliterator.forEachRemaining(resource -> { });
+		
+		assertThat(spliterator.getLink("next"), is(new Link("http://x.com/entities?page=1", "next")));
+	}
+	
+	@Test
+	public void getLinkReturnsLinkBeforeEmbeddedResources() throws Exception {
+		EmbeddedResourceSpliterator<Entity> spliterator = createSpliterator(
+			"{\"_links\":{\"next\":{\"href\":\"http://x.com/entities?page=1\"}},"
+			+ "\"_embedded\":{\"entities\":[{\"field\":\"x\"}]}}");
+		
+		spliterator.tryAdvance(resource -> { });
+		
+		assertThat(spliterator.getLink("next"), is(new Link("http://x.com/entities?page=1", "next")));
+	}
+	
+	@Test
+	public void getLinkWithNoSuchLinkReturnsNull() throws Exception {
+		EmbeddedResourceSpliterator<Entity> spliterator = createSpliterator(
+			"{\"_links\":{\"self\":{\"href\":\"http://x.com/entities\"}}}");
+		
+		spliterator.forEachRemaining(resource -> { });
+		
+		assertThat(spliterator.getLink("next"), is(nullValue()));
+	}
+	
+	private List<String> readFields(String json) throws Exception {
+		return StreamSupport.stream(createSpliterator(json), false)
+			.map(resource -> resource.getContent().getField())
+			.collect(Collectors.toList());
+	}
+	
+	private EmbeddedResourceSpliterator<Entity> createSpliterator(String json) throws Exception {
+		return new EmbeddedResourceSpliterator<>(mapper.getFactory().createParser(json),
+			mapper.readerFor(mapper.getTypeFactory().constructParametricType(Resource.class, Entity.class)),
+			response);
+	}
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
+import org.springframework.hateoas.Resources;
+import org.springframework.web.client.RestClientException;
+
+import uk.co.blackpepper.bowman.annotation.LinkedResource;
+import uk.co.blackpepper.bowman.annotation.RemoteResource;
+import uk.co.blackpepper.bowman.annotation.ResourceId;
+
+import static java.util.Arrays.asList;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class FetchPlanResolverTest {
+
+	@RemoteResource("/entities")
+	public static class Entity {
+
+		private URI id;
+
+		private Entity linked;
+
+		private List<Entity> linkedCollection = new ArrayList<>();
+
+		@ResourceId
+		public URI getId() {
+			return id;
+		}
+
+		@LinkedResource
+		public Entity getLinked() {
+			return linked;
+		}
+
+		@LinkedResource
+		public List<Entity> getLinkedCollection() {
+			return linkedCollection;
+		}
+	}
+
+	private ExpectedException thrown = ExpectedException.none();
+
+	private ExecutorService executor;
+
+	private RestOperations restOperations;
+
+	private ClientProxyFactory proxyFactory;
+
+	private FetchPlanResolver resolver;
+
+	@Rule
+	public ExpectedException getThrown() {
+		return thrown;
+	}
+
+	@Before
+	public void setup() {
+		executor = Executors.newFixedThreadPool(2);
+		restOperations = mock(RestOperations.class);
+		when(restOperations.getExecutor()).thenReturn(executor);
+		proxyFactory = new JavassistClientProxyFactory();
+		resolver = new FetchPlanResolver(executor);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void resolveLoadsLinkedResourceOnce() {
+		Entity proxy = createProxy("http://www.example.com/1", "http://www.example.com/2", null);
+		when(restOperations.getResource(URI.create("http://www.example.com/2"), Entity.class))
+			.thenReturn(createResource("http://www.example.com/2", null, null));
+
+		resolver.resolve(proxy, FetchPlan.of("linked"));
+
+		assertThat(proxy.getLinked().getId(), is(URI.create("http://www.example.com/2")));
+		verify(restOperations, times(1)).getResource(URI.create("http://www.example.com/2"), Entity.class);
+	}
+
+	@Test
+	public void resolveLoadsNestedLinkedResources() {
+		Entity proxy = createProxy("http://www.example.com/1", "http://www.example.com/2", null);
+		when(restOperations.getResource(URI.create("http://www.example.com/2"), Entity.class))
+			.thenReturn(createResource("http://www.example.com/2", "http://www.example.com/3", null));
+		when(restOperations.getResource(URI.create("http://www.example.com/3"), Entity.class))
+			.thenReturn(createResource("http://www.example.com/3", null, null));
+
+		resolver.resolve(proxy, FetchPlan.of("linked.linked"));
+
+		verify(restOperations).getResource(URI.create("http://www.example.com/3"), Entity.class);
+	}
+
+	@Test
+	public void resolveLoadsLinkedResourcesOfCollectionElements() {
+		Entity proxy = createProxy("http://www.example.com/1", null, "http://www.example.com/1/collection");
+		when(restOperations.getResources(URI.create("http://www.example.com/1/collection"), Entity.class))
+			.thenReturn(new Resources<>(asList(
+				createResource("http://www.example.com/2", "http://www.example.com/3", null))));
+		when(restOperations.getResource(URI.create("http://www.example.com/3"), Entity.class))
+			.thenReturn(createResource("http://www.example.com/3", null, null));
+
+		resolver.resolve(proxy, FetchPlan.of("linkedCollection.linked"));
+
+		verify(restOperations).getResource(URI.create("http://www.example.com/3"), Entity.class);
+	}
+
+	@Test
+	public void resolveDoesNotLoadLinkedResourcesBeyondMaxDepth() {
+		Entity proxy = createProxy("http://www.example.com/1", "http://www.example.com/2", null);
+		when(restOperations.getResource(URI.create("http://www.example.com/2"), Entity.class))
+			.thenReturn(createResource("http://www.example.com/2", "http://www.example.com/3", null));
+
+		resolver.resolve(proxy, FetchPlan.of("linked.linked").withMaxDepth(1));
+
+		verify(restOperations, never()).getResource(URI.create("http://www.example.com/3"), Entity.class);
+	}
+
+	@Test
+	public void resolveAllLoadsLinkedResourcesConcurrently() {
+		final CountDownLatch latch = new CountDownLatch(2);
+
+		Answer<Resource<Entity>> answer = new Answer<Resource<Entity>>() {
+			@Override
+			public Resource<Entity> answer(InvocationOnMock invocation) throws Throwable {
+				latch.countDown();
+
+				if (!latch.await(5, TimeUnit.SECONDS)) {
+					throw new IllegalStateException("linked resources were not loaded concurrently");
+				}
+
+				return createResource(invocation.getArgumentAt(0, URI.class).toString(), null, null);
+			}
+		};
+
+		when(restOperations.getResource(URI.create("http://www.example.com/3"), Entity.class)).thenAnswer(answer);
+		when(restOperations.getResource(URI.create("http://www.example.com/4"), Entity.class)).thenAnswer(answer);
+
+		resolver.resolveAll(asList(
+			createProxy("http://www.example.com/1", "http://www.example.com/3", null),
+			createProxy("http://www.example.com/2", "http://www.example.com/4", null)), FetchPlan.of("linked"));
+
+		assertThat(latch.getCount(), is(0L));
+	}
+
+	@Test
+	public void resolveWhenExecutorDoesNotRunTasksRunsThemOnCallingThread() {
+		resolver = new FetchPlanResolver(task -> {
+			// leave the task queued, as a saturated executor would
+		});
+		Entity proxy = createProxy("http://www.example.com/1", "http://www.example.com/2", null);
+		when(restOperations.getResource(URI.create("http://www.example.com/2"), Entity.class))
+			.thenReturn(createResource("http://www.example.com/2", null, null));
+
+		resolver.resolve(proxy, FetchPlan.of("linked"));
+
+		verify(restOperations).getResource(URI.create("http://www.example.com/2"), Entity.class);
+	}
+
+	@Test
+	public void resolveWithUnknownPropertyThrowsException() {
+		Entity proxy = createProxy("http://www.example.com/1", null, null);
+
+		thrown.expect(ClientProxyException.class);
+		thrown.expectMessage("No linked resource 'unknown' on " + Entity.class.getName());
+
+		resolver.resolve(proxy, FetchPlan.of("unknown"));
+	}
+
+	@Test
+	public void resolveRethrowsLoadFailure() {
+		Entity proxy = createProxy("http://www.example.com/1", "http://www.example.com/2", null);
+		RestClientException exception = new RestClientException("failed");
+		when(restOperations.getResource(URI.create("http://www.example.com/2"), Entity.class)).thenThrow(exception);
+
+		thrown.expect(is(exception));
+
+		resolver.resolve(proxy, FetchPlan.of("linked"));
+	}
+
+	private Entity createProxy(String self, String linked, String linkedCollection) {
+		return proxyFactory.create(createResource(self, linked, linkedCollection), restOperations);
+	}
+
+	private static Resource<Entity> createResource(String self, String linked, String linkedCollection) {
+		List<Link> links = new ArrayList<>();
+		links.add(new Link(self, Link.REL_SELF));
+
+		if (linked != null) {
+			links.add(new Link(linked, "linked"));
+		}
+
+		if (linkedCollection != null) {
+			links.add(new Link(linkedCollection, "linkedCollection"));
+		}
+
+		return new Resource<>(new Entity(), links);
+	}
+}
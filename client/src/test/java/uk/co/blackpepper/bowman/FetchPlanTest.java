@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.emptyIterable;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class FetchPlanTest {
+
+	private ExpectedException thrown = ExpectedException.none();
+
+	@Rule
+	public ExpectedException getThrown() {
+		return thrown;
+	}
+
+	@Test
+	public void ofReturnsPlanWithTopLevelProperties() {
+		FetchPlan plan = FetchPlan.of("a", "b.c", "a.d");
+
+		assertThat(plan.getProperties(), contains("a", "b"));
+	}
+
+	@Test
+	public void getChildReturnsPlanForNestedProperties() {
+		FetchPlan plan = FetchPlan.of("a.b", "a.c.d");
+
+		assertThat(plan.getChild("a").getProperties(), contains("b", "c"));
+		assertThat(plan.getChild("a").getChild("c").getProperties(), contains("d"));
+	}
+
+	@Test
+	public void getChildReturnsEmptyPlanForLeafProperty() {
+		FetchPlan plan = FetchPlan.of("a");
+
+		assertThat(plan.getChild("a").isEmpty(), is(true));
+	}
+
+	@Test
+	public void getChildReturnsNullForUnknownProperty() {
+		FetchPlan plan = FetchPlan.of("a");
+
+		assertThat(plan.getChild("x"), is(nullValue()));
+	}
+
+	@Test
+	public void getChildReturnsWildcardPlanForUnnamedProperty() {
+		FetchPlan plan = FetchPlan.of("*.b");
+
+		assertThat(plan.getChild("x").getProperties(), contains("b"));
+	}
+
+	@Test
+	public void getChildPrefersNamedPropertyToWildcard() {
+		FetchPlan plan = FetchPlan.of("*", "a.b");
+
+		assertThat(plan.getChild("a").getProperties(), contains("b"));
+	}
+
+	@Test
+	public void getChildReturnsPlanWithReducedMaxDepth() {
+		FetchPlan plan = FetchPlan.of("a.b.c").withMaxDepth(2);
+
+		assertThat(plan.getChild("a").getMaxDepth(), is(1));
+		assertThat(plan.getChild("a").getChild("b").isEmpty(), is(true));
+		assertThat(plan.getChild("a").getChild("b").getChild("c"), is(nullValue()));
+	}
+
+	@Test
+	public void noneReturnsEmptyPlan() {
+		assertThat(FetchPlan.none().isEmpty(), is(true));
+		assertThat(FetchPlan.none().getProperties(), is(emptyIterable()));
+	}
+
+	@Test
+	public void ofWithEmptySegmentThrowsException() {
+		thrown.expect(IllegalArgumentException.class);
+		thrown.expectMessage("invalid fetch plan path: a..b");
+
+		FetchPlan.of("a..b");
+	}
+
+	@Test
+	public void withMaxDepthWithNegativeDepthThrowsException() {
+		thrown.expect(IllegalArgumentException.class);
+		thrown.expectMessage("maxDepth must not be negative");
+
+		FetchPlan.of("a").withMaxDepth(-1);
+	}
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.net.URI;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
+
+import uk.co.blackpepper.bowman.annotation.RemoteResource;
+import uk.co.blackpepper.bowman.annotation.ResourceId;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+public class GeneratedClientProxyFactoryTest {
+
+	@RemoteResource("/others")
+	public static class UnprocessedEntity {
+		
+		private URI id;
+		
+		@ResourceId
+		public URI getId() {
+			return id;
+		}
+	}
+	
+	private GeneratedClientProxyFactory proxyFactory;
+	
+	private RestOperations restOperations;
+	
+	@Before
+	public void setup() {
+		proxyFactory = new GeneratedClientProxyFactory();
+		restOperations = mock(RestOperations.class);
+	}
+	
+	@Test
+	public void createReturnsGeneratedProxyWithId() {
+		Resource<GeneratedProxyEntity> resource = new Resource<>(new GeneratedProxyEntity(),
+			new Link("http://www.example.com/1", Link.REL_SELF));
+		
+		GeneratedProxyEntity proxy = proxyFactory.create(resource, mock(RestOperations.class));
+		
+		assertThat(proxy, is(instanceOf(GeneratedProxyEntityBowmanProxy.class)));
+		assertThat(proxy.getId(), is(URI.create("http://www.example.com/1")));
+	}
+	
+	@Test
+	public void createWithoutGeneratedProxyReturnsRuntimeProxyWithId() {
+		Resource<UnprocessedEntity> resource = new Resource<>(new UnprocessedEntity(),
+			new Link("http://www.example.com/1", Link.REL_SELF));
+		
+		UnprocessedEntity proxy = proxyFactory.create(resource, mock(RestOperations.class));
+		
+		assertThat(proxy.getClass(), is(not((Object) UnprocessedEntity.class)));
+		assertThat(proxy.getId(), is(URI.create("http://www.example.com/1")));
+	}
+	
+	@Test
+	public void createWithUriReturnsGeneratedProxyWithId() {
+		GeneratedProxyEntity proxy = proxyFactory.create(URI.create("http://www.example.com/1"),
+			GeneratedProxyEntity.class, mock(RestOperations.class));
+		
+		assertThat(proxy, is(instanceOf(GeneratedProxyEntityBowmanProxy.class)));
+		assertThat(proxy.getId(), is(URI.create("http://www.example.com/1")));
+	}
+	
+	@Test
+	public void createWithUriWithoutGeneratedProxyReturnsRuntimeProxyWithId() {
+		UnprocessedEntity proxy = proxyFactory.create(URI.create("http://www.example.com/1"),
+			UnprocessedEntity.class, mock(RestOperations.class));
+		
+		assertThat(proxy.getClass(), is(not((Object) UnprocessedEntity.class)));
+		assertThat(proxy.getId(), is(URI.create("http://www.example.com/1")));
+	}
+	
+	@Test
+	public void createReturnsGeneratedProxyWithHandler() {
+		Resource<GeneratedProxyEntity> resource = new Resource<>(new GeneratedProxyEntity(),
+			new Link("http://www.example.com/1", Link.REL_SELF));
+		
+		GeneratedProxyEntity proxy = proxyFactory.create(resource, restOperations);
+		
+		assertThat(((GeneratedProxy) proxy).getHandler(), is(instanceOf(GetterSetterMethodHandler.class)));
+	}
+	
+	@Test
+	public void createReturnsGeneratedProxyWithProperties() {
+		GeneratedProxyEntity entity = new GeneratedProxyEntity();
+		entity.setName("x");
+		Resource<GeneratedProxyEntity> resource = new Resource<>(entity,
+			new Link("http://www.example.com/1", Link.REL_SELF));
+		
+		GeneratedProxyEntity proxy = proxyFactory.create(resource, restOperations);
+		proxy.setName("y");
+		
+		assertThat(proxy.getName(), is("y"));
+		assertThat(entity.getName(), is("y"));
+	}
+	
+	@Test
+	public void createReturnsGeneratedProxyWithLinkedResource() {
+		GeneratedProxyEntity parent = new GeneratedProxyEntity();
+		parent.setName("parent");
+		when(restOperations.getResource(URI.create("http://www.example.com/2"), GeneratedProxyEntity.class))
+			.thenReturn(new Resource<>(parent, new Link("http://www.example.com/2", Link.REL_SELF)));
+		Resource<GeneratedProxyEntity> resource = new Resource<>(new GeneratedProxyEntity(),
+			new Link("http://www.example.com/1", Link.REL_SELF), new Link("http://www.example.com/2", "parent"));
+		
+		GeneratedProxyEntity proxy = proxyFactory.create(resource, restOperations);
+		
+		assertThat(proxy.getParent(), is(instanceOf(GeneratedProxyEntityBowmanProxy.class)));
+		assertThat(proxy.getParent().getId(), is(URI.create("http://www.example.com/2")));
+		assertThat(proxy.getParent().getName(), is("parent"));
+	}
+	
+	@Test
+	public void createReturnsGeneratedProxyWithSetLinkedResource() {
+		GeneratedProxyEntity parent = new GeneratedProxyEntity();
+		Resource<GeneratedProxyEntity> resource = new Resource<>(new GeneratedProxyEntity(),
+			new Link("http://www.example.com/1", Link.REL_SELF), new Link("http://www.example.com/2", "parent"));
+		
+		GeneratedProxyEntity proxy = proxyFactory.create(resource, restOperations);
+		proxy.setParent(parent);
+		
+		assertThat(proxy.getParent(), is(sameInstance(parent)));
+		verifyZeroInteractions(restOperations);
+	}
+}
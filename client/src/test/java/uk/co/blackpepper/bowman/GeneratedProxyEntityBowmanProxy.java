@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.net.URI;
+
+import javassist.util.proxy.MethodHandler;
+import uk.co.blackpepper.bowman.GeneratedProxySupport.Accessor;
+
+/**
+ * Proxy class for {@link GeneratedProxyEntity} in the form produced by the Bowman annotation processor.
+ */
+public class GeneratedProxyEntityBowmanProxy extends GeneratedProxyEntity implements GeneratedProxy {
+
+	private static final Accessor SET_NAME = GeneratedProxySupport.getAccessor(GeneratedProxyEntity.class,
+		GeneratedProxySupport.findMethod(GeneratedProxyEntity.class, "setName", String.class), null);
+	
+	private static final Accessor GET_PARENT = GeneratedProxySupport.getAccessor(GeneratedProxyEntity.class,
+		GeneratedProxySupport.findMethod(GeneratedProxyEntity.class, "getParent"),
+		GeneratedProxySupport.findMethod(GeneratedProxyEntityBowmanProxy.class, "proceedGetParent"));
+	
+	private static final Accessor SET_PARENT = GeneratedProxySupport.getAccessor(GeneratedProxyEntity.class,
+		GeneratedProxySupport.findMethod(GeneratedProxyEntity.class, "setParent", GeneratedProxyEntity.class),
+		null);
+	
+	private MethodHandler handler;
+	
+	@Override
+	public void setHandler(MethodHandler handler) {
+		this.handler = handler;
+	}
+	
+	@Override
+	public MethodHandler getHandler() {
+		return handler;
+	}
+	
+	@Override
+	public URI getId() {
+		return GeneratedProxySupport.getId(handler);
+	}
+	
+	@Override
+	public String getName() {
+		return ((GeneratedProxyEntity) GeneratedProxySupport.getContent(handler)).getName();
+	}
+	
+	@Override
+	public void setName(String name) {
+		((GeneratedProxyEntity) GeneratedProxySupport.getContent(handler)).setName(name);
+		GeneratedProxySupport.setterInvoked(handler, SET_NAME);
+	}
+	
+	@Override
+	public GeneratedProxyEntity getParent() {
+		return (GeneratedProxyEntity) GeneratedProxySupport.getLinkedResource(handler, this, GET_PARENT);
+	}
+	
+	@Override
+	public void setParent(GeneratedProxyEntity parent) {
+		((GeneratedProxyEntity) GeneratedProxySupport.getContent(handler)).setParent(parent);
+		GeneratedProxySupport.setterInvoked(handler, SET_PARENT);
+	}
+	
+	public GeneratedProxyEntity proceedGetParent() {
+		return super.getParent();
+	}
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.net.URI;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class InFlightRequestsTest {
+
+	private static final URI URI_1 = URI.create("http://example.com/1");
+
+	private ExpectedException thrown = ExpectedException.none();
+
+	private InFlightRequests inFlightRequests;
+
+	private Thread follower;
+
+	@Rule
+	public ExpectedException getThrown() {
+		return thrown;
+	}
+
+	@Before
+	public void setup() {
+		inFlightRequests = new InFlightRequests();
+	}
+
+	@Test
+	public void getReturnsResponseBody() {
+		byte[] body = inFlightRequests.get(URI_1, Object.class, respondWith(new byte[] {1}));
+
+		assertThat(body, is(new byte[] {1}));
+	}
+
+	@Test
+	public void getWhileRequestInFlightSharesRequest() throws Exception {
+		final AtomicInteger requests = new AtomicInteger();
+		final AtomicReference<byte[]> followerBody = new AtomicReference<>();
+		final byte[] leaderBody = new byte[] {1};
+
+		byte[] body = inFlightRequests.get(URI_1, Object.class, new Callable<InFlightRequests.Response>() {
+			@Override
+			public InFlightRequests.Response call() throws Exception {
+				requests.incrementAndGet();
+				awaitWaiting(startThread(new Runnable() {
+					@Override
+					public void run() {
+						followerBody.set(inFlightRequests.get(URI_1, Object.class,
+							new Callable<InFlightRequests.Response>() {
+								@Override
+								public InFlightRequests.Response call() {
+									requests.incrementAndGet();
+									return new InFlightRequests.Response(new byte[] {2}, true);
+								}
+							}));
+					}
+				}));
+				return new InFlightRequests.Response(leaderBody, true);
+			}
+		});
+
+		awaitFollower();
+		assertThat(body, is(sameInstance(leaderBody)));
+		assertThat(followerBody.get(), is(sameInstance(leaderBody)));
+		assertThat(requests.get(), is(1));
+	}
+
+	@Test
+	public void getWhileUnsharedRequestInFlightMakesRequest() throws Exception {
+		final AtomicInteger requests = new AtomicInteger();
+		final AtomicReference<byte[]> followerBody = new AtomicReference<>();
+		final byte[] leaderBody = new byte[] {1};
+
+		byte[] body = inFlightRequests.get(URI_1, Object.class, new Callable<InFlightRequests.Response>() {
+			@Override
+			public InFlightRequests.Response call() throws Exception {
+				requests.incrementAndGet();
+				awaitWaiting(startThread(new Runnable() {
+					@Override
+					public void run() {
+						followerBody.set(inFlightRequests.get(URI_1, Object.class,
+							new Callable<InFlightRequests.Response>() {
+								@Override
+								public InFlightRequests.Response call() {
+									requests.incrementAndGet();
+									return new InFlightRequests.Response(new byte[] {2}, false);
+								}
+							}));
+					}
+				}));
+				return new InFlightRequests.Response(leaderBody, false);
+			}
+		});
+
+		awaitFollower();
+		assertThat(body, is(sameInstance(leaderBody)));
+		assertThat(followerBody.get(), is(new byte[] {2}));
+		assertThat(requests.get(), is(2));
+	}
+
+	@Test
+	public void getWhileRequestForOtherEntityTypeInFlightMakesRequest() throws Exception {
+		final AtomicReference<byte[]> otherBody = new AtomicReference<>();
+
+		inFlightRequests.get(URI_1, Object.class, new Callable<InFlightRequests.Response>() {
+			@Override
+			public InFlightRequests.Response call() throws Exception {
+				startThread(new Runnable() {
+					@Override
+					public void run() {
+						otherBody.set(inFlightRequests.get(URI_1, String.class, respondWith(new byte[] {2})));
+					}
+				}).join();
+				return new InFlightRequests.Response(new byte[] {1}, true);
+			}
+		});
+
+		assertThat(otherBody.get(), is(new byte[] {2}));
+	}
+
+	@Test
+	public void getAfterRequestCompletesMakesRequest() {
+		inFlightRequests.get(URI_1, Object.class, respondWith(new byte[] {1}));
+
+		byte[] body = inFlightRequests.get(URI_1, Object.class, respondWith(new byte[] {2}));
+
+		assertThat(body, is(new byte[] {2}));
+		assertThat(inFlightRequests.size(), is(0));
+	}
+
+	@Test
+	public void getWhenRequestFailsThrowsException() {
+		thrown.expect(IllegalStateException.class);
+		thrown.expectMessage("failed");
+
+		inFlightRequests.get(URI_1, Object.class, new Callable<InFlightRequests.Response>() {
+			@Override
+			public InFlightRequests.Response call() {
+				throw new IllegalStateException("failed");
+			}
+		});
+	}
+
+	@Test
+	public void getAfterRequestFailsMakesRequest() {
+		try {
+			inFlightRequests.get(URI_1, Object.class, new Callable<InFlightRequests.Response>() {
+				@Override
+				public InFlightRequests.Response call() {
+					throw new IllegalStateException("failed");
+				}
+			});
+		}
+		catch (IllegalStateException exception) {
+			// expected
+		}
+
+		byte[] body = inFlightRequests.get(URI_1, Object.class, respondWith(new byte[] {1}));
+
+		assertThat(body, is(new byte[] {1}));
+	}
+
+	private Thread startThread(Runnable runnable) {
+		follower = new Thread(runnable);
+		follower.start();
+		return follower;
+	}
+
+	private void awaitFollower() throws InterruptedException {
+		follower.join();
+	}
+
+	private static void awaitWaiting(Thread thread) throws InterruptedException {
+		while (thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TERMINATED) {
+			Thread.sleep(1);
+		}
+	}
+
+	private static Callable<InFlightRequests.Response> respondWith(final byte[] body) {
+		return new Callable<InFlightRequests.Response>() {
+			@Override
+			public InFlightRequests.Response call() {
+				return new InFlightRequests.Response(body, true);
+			}
+		};
+	}
+}
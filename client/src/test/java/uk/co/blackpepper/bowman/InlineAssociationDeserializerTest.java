@@ -20,6 +20,8 @@ import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.springframework.hateoas.Resource;
 
 import com.fasterxml.jackson.databind.DeserializationConfig;
@@ -30,11 +32,15 @@ import com.fasterxml.jackson.databind.cfg.HandlerInstantiator;
 import com.fasterxml.jackson.databind.introspect.Annotated;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class InlineAssociationDeserializerTest {
 
@@ -83,11 +89,21 @@ public class InlineAssociationDeserializerTest {
 	private ObjectMapper mapper;
 	
 	private HandlerInstantiator instantiator;
+	
+	private RestOperations restOperations;
+	
+	private ClientProxyFactory proxyFactory;
 
 	@Before
 	public void setup() {
-		RestOperations restOperations = mock(RestOperations.class);
-		ClientProxyFactory proxyFactory = new JavassistClientProxyFactory();
+		restOperations = mock(RestOperations.class);
+		proxyFactory = mock(ClientProxyFactory.class);
+		when(proxyFactory.create(any(Resource.class), eq(restOperations))).thenAnswer(new Answer<Object>() {
+			@Override
+			public Object answer(InvocationOnMock invocation) {
+				return ((Resource<?>) invocation.getArguments()[0]).getContent();
+			}
+		});
 		
 		instantiator = mock(HandlerInstantiator.class);
 		
@@ -110,4 +126,36 @@ public class InlineAssociationDeserializerTest {
 		
 		assertThat(parent.getChildren().get(0).getName(), is("x"));
 	}
+	
+	@Test
+	public void deserializeWithMultipleElementsReturnsObjects() throws Exception {
+		SerializeParent out = new SerializeParent();
+		out.children.add(new Resource<>(new Child("x")));
+		out.children.add(new Resource<>(new Child("y")));
+		String json = mapper.writeValueAsString(out);
+		
+		DeserializeParent parent = mapper.readValue(json, DeserializeParent.class);
+		
+		assertThat(parent.getChildren().get(0).getName(), is("x"));
+		assertThat(parent.getChildren().get(1).getName(), is("y"));
+	}
+	
+	@Test
+	public void deserializeWithRestOperationsAttributeCreatesProxyWithTheirFactory() throws Exception {
+		SerializeParent out = new SerializeParent();
+		out.children.add(new Resource<>(new Child("x")));
+		String json = mapper.writeValueAsString(out);
+		RestOperations sessionOperations = mock(RestOperations.class);
+		ClientProxyFactory sessionProxyFactory = mock(ClientProxyFactory.class);
+		when(sessionOperations.getProxyFactory()).thenReturn(sessionProxyFactory);
+		Child proxy = new Child("proxy");
+		when(sessionProxyFactory.create(any(Resource.class), eq(sessionOperations))).thenReturn(proxy);
+		
+		DeserializeParent parent = mapper.readerFor(DeserializeParent.class)
+			.withAttribute(RestOperations.class, sessionOperations)
+			.readValue(json);
+		
+		assertThat(parent.getChildren().get(0), is(sameInstance(proxy)));
+		verify(proxyFactory, never()).create(any(Resource.class), any(RestOperations.class));
+	}
 }
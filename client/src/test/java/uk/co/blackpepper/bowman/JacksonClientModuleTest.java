@@ -21,6 +21,8 @@ import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -30,7 +32,13 @@ import uk.co.blackpepper.bowman.annotation.RemoteResource;
 import uk.co.blackpepper.bowman.annotation.ResourceId;
 
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class JacksonClientModuleTest {
 
@@ -71,13 +79,47 @@ public class JacksonClientModuleTest {
 		}
 	}
 	
+	@RemoteResource("/proxied-entities")
+	public static class ProxiedEntity {
+		
+		private URI id;
+		
+		private ProxiedEntity linked;
+		
+		public ProxiedEntity() {
+		}
+		
+		public ProxiedEntity(URI id) {
+			this.id = id;
+		}
+		
+		@ResourceId
+		@JsonIgnore
+		public URI getId() {
+			return id;
+		}
+		
+		@LinkedResource
+		public ProxiedEntity getLinked() {
+			return linked;
+		}
+		
+		public void setLinked(ProxiedEntity linked) {
+			this.linked = linked;
+		}
+	}
+	
 	private ObjectMapper mapper;
 	
+	private RestOperations restOperations;
+	
 	@Before
 	public void setup() {
 		mapper = new ObjectMapper();
 		
 		mapper.registerModule(new JacksonClientModule());
+		
+		restOperations = mock(RestOperations.class);
 	}
 	
 	@Test
@@ -96,4 +138,54 @@ public class JacksonClientModuleTest {
 		
 		assertThat(json, containsString("\"linkedCollection\":[\"http://www.example.com/1\"]"));
 	}
+	
+	@Test
+	public void anUnloadedLinkedResourceOfAProxyIsNotSerialized() throws Exception {
+		String json = mapper.writeValueAsString(createProxy());
+		
+		assertThat(json, not(containsString("\"linked\"")));
+		verify(restOperations, never()).getResource(any(URI.class), any(Class.class));
+	}
+	
+	@Test
+	public void anUnloadedLinkedResourceOfAGeneratedProxyIsNotSerialized() throws Exception {
+		GeneratedProxyEntity proxy = new GeneratedClientProxyFactory().create(new Resource<>(
+			new GeneratedProxyEntity(), new Link("http://www.example.com/1", Link.REL_SELF),
+			new Link("http://www.example.com/1/parent", "parent")), restOperations);
+		
+		String json = mapper.writeValueAsString(proxy);
+		
+		assertThat(json, not(containsString("\"parent\"")));
+		verify(restOperations, never()).getResource(any(URI.class), any(Class.class));
+	}
+	
+	@Test
+	public void aLoadedLinkedResourceOfAProxyIsSerializedAsAUri() throws Exception {
+		when(restOperations.getResource(URI.create("http://www.example.com/1/linked"), ProxiedEntity.class))
+			.thenReturn(new Resource<>(new ProxiedEntity(), new Link("http://www.example.com/2", Link.REL_SELF)));
+		
+		ProxiedEntity proxy = createProxy();
+		proxy.getLinked();
+		
+		String json = mapper.writeValueAsString(proxy);
+		
+		assertThat(json, containsString("\"linked\":\"http://www.example.com/2\""));
+	}
+	
+	@Test
+	public void aSetLinkedResourceOfAProxyIsSerializedAsAUri() throws Exception {
+		ProxiedEntity proxy = createProxy();
+		proxy.setLinked(new ProxiedEntity(URI.create("http://www.example.com/3")));
+		
+		String json = mapper.writeValueAsString(proxy);
+		
+		assertThat(json, containsString("\"linked\":\"http://www.example.com/3\""));
+		verify(restOperations, never()).getResource(any(URI.class), any(Class.class));
+	}
+	
+	private ProxiedEntity createProxy() {
+		return new JavassistClientProxyFactory().create(new Resource<>(new ProxiedEntity(),
+			new Link("http://www.example.com/1", Link.REL_SELF), new Link("http://www.example.com/1/linked", "linked")),
+			restOperations);
+	}
 }
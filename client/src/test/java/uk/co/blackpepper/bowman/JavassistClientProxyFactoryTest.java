@@ -17,14 +17,28 @@ package uk.co.blackpepper.bowman;
 
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.Resource;
 import org.springframework.hateoas.Resources;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
 import uk.co.blackpepper.bowman.annotation.LinkedResource;
 import uk.co.blackpepper.bowman.annotation.RemoteResource;
 import uk.co.blackpepper.bowman.annotation.ResourceId;
@@ -32,8 +46,14 @@ import uk.co.blackpepper.bowman.annotation.ResourceId;
 import static java.util.Arrays.asList;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class JavassistClientProxyFactoryTest {
@@ -89,10 +109,25 @@ public class JavassistClientProxyFactoryTest {
 		}
 	}
 	
+	private static class SameThreadExecutor implements Executor {
+		
+		@Override
+		public void execute(Runnable command) {
+			command.run();
+		}
+	}
+	
+	private ExpectedException thrown = ExpectedException.none();
+	
 	private JavassistClientProxyFactory proxyFactory;
 	
 	private RestOperations restOperations;
 	
+	@Rule
+	public ExpectedException getThrown() {
+		return thrown;
+	}
+	
 	@Before
 	public void setup() {
 		proxyFactory = new JavassistClientProxyFactory();
@@ -166,6 +201,52 @@ public class JavassistClientProxyFactoryTest {
 		assertThat(proxy.getNullLinkedCollection().get(0).getId(), is(URI.create("http://www.example.com/1")));
 	}
 	
+	@Test
+	public void createReturnsProxyWithSetLinkedResources() {
+		Resource<Entity> resource = new Resource<>(new Entity(),
+				new Link("http://www.example.com/association/linked", "nullLinkedCollection"));
+		List<Entity> linked = new ArrayList<>();
+		
+		Entity proxy = proxyFactory.create(resource, restOperations);
+		proxy.setNullLinkedCollection(linked);
+		
+		assertThat(proxy.getNullLinkedCollection(), is(sameInstance(linked)));
+		verify(restOperations, never()).getResources(any(URI.class), any(Class.class));
+	}
+	
+	@Test
+	public void createReturnsProxyWithEmbeddedLinkedResource() {
+		JsonNode embedded = JsonNodeFactory.instance.objectNode();
+		Resource<Entity> resource = new HalResource<>(new Entity(),
+				asList(new Link("http://www.example.com/association/linked", "linked")),
+				Collections.singletonMap("linked", embedded));
+		
+		when(restOperations.readResource(embedded, Entity.class)).thenReturn(new Resource<>(new Entity(),
+				new Link("http://www.example.com/1", Link.REL_SELF)));
+		
+		Entity proxy = proxyFactory.create(resource, restOperations);
+		
+		assertThat(proxy.getLinked().getId(), is(URI.create("http://www.example.com/1")));
+		verify(restOperations, never()).getResource(any(URI.class), any(Class.class));
+	}
+	
+	@Test
+	public void createReturnsProxyWithEmbeddedLinkedResources() {
+		JsonNode embeddedElement = JsonNodeFactory.instance.objectNode();
+		JsonNode embedded = JsonNodeFactory.instance.arrayNode().add(embeddedElement);
+		Resource<Entity> resource = new HalResource<>(new Entity(),
+				asList(new Link("http://www.example.com/association/linked", "linkedCollection")),
+				Collections.singletonMap("linkedCollection", embedded));
+		
+		when(restOperations.readResource(embeddedElement, Entity.class)).thenReturn(new Resource<>(new Entity(),
+				new Link("http://www.example.com/1", Link.REL_SELF)));
+		
+		Entity proxy = proxyFactory.create(resource, restOperations);
+		
+		assertThat(proxy.getLinkedCollection().get(0).getId(), is(URI.create("http://www.example.com/1")));
+		verify(restOperations, never()).getResources(any(URI.class), any(Class.class));
+	}
+	
 	@Test
 	public void createReturnsProxyWithActive() {
 		Entity entity = new Entity();
@@ -194,4 +275,191 @@ public class JavassistClientProxyFactoryTest {
 		
 		assertThat(proxy.isActive(), is(false));
 	}
+	
+	@Test
+	public void createReturnsDistinctProxiesOfSameClass() {
+		Resource<Entity> resource1 = new Resource<>(new Entity(),
+			new Link("http://www.example.com/1", Link.REL_SELF));
+		Resource<Entity> resource2 = new Resource<>(new Entity(),
+			new Link("http://www.example.com/2", Link.REL_SELF));
+		
+		Entity proxy1 = proxyFactory.create(resource1, mock(RestOperations.class));
+		Entity proxy2 = proxyFactory.create(resource2, mock(RestOperations.class));
+		
+		assertThat(proxy1, is(not(sameInstance(proxy2))));
+		assertThat(proxy1.getClass(), is(sameInstance((Object) proxy2.getClass())));
+		assertThat(proxy2.getId(), is(URI.create("http://www.example.com/2")));
+	}
+	
+	@Test
+	public void createReturnsProxyLoadingLinkedResourcesOnceWhenAccessedConcurrently() throws Exception {
+		final int threadCount = 16;
+		final int iterations = 500;
+		
+		Resource<Entity> resource = new Resource<>(new Entity(),
+			new Link("http://www.example.com/1", Link.REL_SELF),
+			new Link("http://www.example.com/1/linked", "linked"),
+			new Link("http://www.example.com/1/linkedCollection", "linkedCollection"));
+		
+		when(restOperations.getResource(URI.create("http://www.example.com/1/linked"), Entity.class))
+			.then(new Answer<Resource<Entity>>() {
+				@Override
+				public Resource<Entity> answer(InvocationOnMock invocation) throws InterruptedException {
+					Thread.sleep(10);
+					return new Resource<>(new Entity(), new Link("http://www.example.com/2", Link.REL_SELF),
+						new Link("http://www.example.com/2/linked", "linked"));
+				}
+			});
+		
+		when(restOperations.getResource(URI.create("http://www.example.com/2/linked"), Entity.class))
+			.then(new Answer<Resource<Entity>>() {
+				@Override
+				public Resource<Entity> answer(InvocationOnMock invocation) throws InterruptedException {
+					Thread.sleep(10);
+					return new Resource<>(new Entity(), new Link("http://www.example.com/3", Link.REL_SELF));
+				}
+			});
+		
+		when(restOperations.getResources(URI.create("http://www.example.com/1/linkedCollection"), Entity.class))
+			.then(new Answer<Resources<Resource<Entity>>>() {
+				@Override
+				public Resources<Resource<Entity>> answer(InvocationOnMock invocation) throws InterruptedException {
+					Thread.sleep(10);
+					return new Resources<>(asList(new Resource<>(new Entity(),
+						new Link("http://www.example.com/4", Link.REL_SELF))));
+				}
+			});
+		
+		final Entity proxy = proxyFactory.create(resource, restOperations);
+		final CountDownLatch start = new CountDownLatch(1);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		List<Future<Void>> results = new ArrayList<>();
+		
+		try {
+			for (int thread = 0; thread < threadCount; thread++) {
+				results.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws InterruptedException {
+						start.await();
+						
+						for (int iteration = 0; iteration < iterations; iteration++) {
+							assertThat(proxy.getLinked().getLinked().getId(),
+								is(URI.create("http://www.example.com/3")));
+							assertThat(proxy.getLinkedCollection().size(), is(1));
+						}
+						
+						return null;
+					}
+				}));
+			}
+			
+			start.countDown();
+			
+			for (Future<Void> result : results) {
+				result.get();
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		
+		verify(restOperations, times(1)).getResource(URI.create("http://www.example.com/1/linked"), Entity.class);
+		verify(restOperations, times(1)).getResource(URI.create("http://www.example.com/2/linked"), Entity.class);
+		verify(restOperations, times(1)).getResources(URI.create("http://www.example.com/1/linkedCollection"),
+			Entity.class);
+	}
+	
+	@Test
+	public void createWithLoadGroupLoadsLinkedResourceOfOtherMembers() {
+		LoadGroup loadGroup = new LoadGroup(new SameThreadExecutor(), 1);
+		
+		when(restOperations.getResource(URI.create("http://www.example.com/1/linked"), Entity.class))
+			.thenReturn(new Resource<>(new Entity(), new Link("http://www.example.com/3", Link.REL_SELF)));
+		when(restOperations.getResource(URI.create("http://www.example.com/2/linked"), Entity.class))
+			.thenReturn(new Resource<>(new Entity(), new Link("http://www.example.com/4", Link.REL_SELF)));
+		
+		Entity proxy1 = createGroupMember(loadGroup, "http://www.example.com/1", "http://www.example.com/1/linked");
+		createGroupMember(loadGroup, "http://www.example.com/2", "http://www.example.com/2/linked");
+		
+		proxy1.getLinked();
+		
+		verify(restOperations).getResource(URI.create("http://www.example.com/2/linked"), Entity.class);
+	}
+	
+	@Test
+	public void createWithLoadGroupLoadsIdenticalLinkedResourceOnce() {
+		LoadGroup loadGroup = new LoadGroup(new SameThreadExecutor(), 1);
+		
+		when(restOperations.getResource(URI.create("http://www.example.com/3"), Entity.class))
+			.thenReturn(new Resource<>(new Entity(), new Link("http://www.example.com/3", Link.REL_SELF)));
+		
+		Entity proxy1 = createGroupMember(loadGroup, "http://www.example.com/1", "http://www.example.com/3");
+		Entity proxy2 = createGroupMember(loadGroup, "http://www.example.com/2", "http://www.example.com/3");
+		
+		assertThat(proxy1.getLinked(), is(sameInstance(proxy2.getLinked())));
+		verify(restOperations, times(1)).getResource(URI.create("http://www.example.com/3"), Entity.class);
+	}
+	
+	@Test
+	public void createReturnsProxyWithLinkedResourcesLoadingTogether() {
+		Resource<Entity> resource = new Resource<>(new Entity(),
+			new Link("http://www.example.com/association/linked", "linkedCollection"));
+		
+		when(restOperations.getExecutor()).thenReturn(new SameThreadExecutor());
+		when(restOperations.getBatchLoadWindow()).thenReturn(1);
+		when(restOperations.getResources(URI.create("http://www.example.com/association/linked"), Entity.class))
+			.thenReturn(new Resources<>(asList(
+				new Resource<>(new Entity(), new Link("http://www.example.com/1", Link.REL_SELF),
+					new Link("http://www.example.com/1/linked", "linked")),
+				new Resource<>(new Entity(), new Link("http://www.example.com/2", Link.REL_SELF),
+					new Link("http://www.example.com/2/linked", "linked")))));
+		
+		Entity proxy = proxyFactory.create(resource, restOperations);
+		proxy.getLinkedCollection().get(0).getLinked();
+		
+		verify(restOperations).getResource(URI.create("http://www.example.com/2/linked"), Entity.class);
+	}
+	
+	@Test
+	public void createWithUriReturnsProxyWithIdWithoutLoading() {
+		Entity proxy = proxyFactory.create(URI.create("http://www.example.com/1"), Entity.class, restOperations);
+		
+		assertThat(proxy.getId(), is(URI.create("http://www.example.com/1")));
+		verify(restOperations, never()).getResource(any(URI.class), any(Class.class));
+	}
+	
+	@Test
+	public void createWithUriReturnsProxyLoadingResourceOnce() {
+		Entity entity = new Entity();
+		entity.setActive(true);
+		
+		when(restOperations.getResource(URI.create("http://www.example.com/1"), Entity.class))
+			.thenReturn(new Resource<>(entity, new Link("http://www.example.com/1", Link.REL_SELF)));
+		
+		Entity proxy = proxyFactory.create(URI.create("http://www.example.com/1"), Entity.class, restOperations);
+		
+		assertThat(proxy.isActive(), is(true));
+		assertThat(proxy.isActive(), is(true));
+		verify(restOperations, times(1)).getResource(URI.create("http://www.example.com/1"), Entity.class);
+	}
+	
+	@Test
+	public void createWithUriReturnsProxyThrowingExceptionWhenResourceNotFound() {
+		when(restOperations.getResource(URI.create("http://www.example.com/1"), Entity.class)).thenReturn(null);
+		
+		Entity proxy = proxyFactory.create(URI.create("http://www.example.com/1"), Entity.class, restOperations);
+		
+		thrown.expect(ClientProxyException.class);
+		thrown.expectMessage("Resource 'http://www.example.com/1' could not be found!");
+		
+		proxy.isActive();
+	}
+	
+	private Entity createGroupMember(LoadGroup loadGroup, String self, String linked) {
+		Entity proxy = proxyFactory.create(new Resource<>(new Entity(), new Link(self, Link.REL_SELF),
+			new Link(linked, "linked")), restOperations, loadGroup);
+		loadGroup.add(proxy);
+		return proxy;
+	}
 }
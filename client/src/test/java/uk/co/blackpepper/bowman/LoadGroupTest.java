@@ -0,0 +1,227 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class LoadGroupTest {
+
+	public static class Member {
+
+		private int loads;
+
+		public int getLoads() {
+			return ++loads;
+		}
+	}
+
+	private ExpectedException thrown = ExpectedException.none();
+
+	private LoadGroup loadGroup;
+
+	private Method accessor;
+
+	@Rule
+	public ExpectedException getThrown() {
+		return thrown;
+	}
+
+	@Before
+	public void setup() throws Exception {
+		loadGroup = new LoadGroup(new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				command.run();
+			}
+		}, 2);
+
+		accessor = Member.class.getMethod("getLoads");
+	}
+
+	@Test
+	public void batchInvokesAccessorOnOtherMembers() {
+		Member requester = new Member();
+		Member other = new Member();
+		loadGroup.add(requester);
+		loadGroup.add(other);
+
+		loadGroup.batch(requester, accessor);
+
+		assertThat(requester.loads, is(0));
+		assertThat(other.loads, is(1));
+	}
+
+	@Test
+	public void batchInvokesAccessorOnce() {
+		Member requester = new Member();
+		Member other = new Member();
+		loadGroup.add(requester);
+		loadGroup.add(other);
+
+		loadGroup.batch(requester, accessor);
+		loadGroup.batch(other, accessor);
+
+		assertThat(requester.loads, is(0));
+		assertThat(other.loads, is(1));
+	}
+
+	@Test
+	public void batchInvokesAccessorOnMembersWithinWindow() {
+		Member requester = new Member();
+		Member next1 = new Member();
+		Member next2 = new Member();
+		Member beyond = new Member();
+		loadGroup.add(requester);
+		loadGroup.add(next1);
+		loadGroup.add(next2);
+		loadGroup.add(beyond);
+
+		loadGroup.batch(requester, accessor);
+
+		assertThat(next1.loads, is(1));
+		assertThat(next2.loads, is(1));
+		assertThat(beyond.loads, is(0));
+	}
+
+	@Test
+	public void batchFromMemberBeyondWindowInvokesAccessorOnNextWindow() {
+		Member requester = new Member();
+		Member next1 = new Member();
+		Member next2 = new Member();
+		Member beyond = new Member();
+		Member last = new Member();
+		loadGroup.add(requester);
+		loadGroup.add(next1);
+		loadGroup.add(next2);
+		loadGroup.add(beyond);
+		loadGroup.add(last);
+		loadGroup.batch(requester, accessor);
+
+		loadGroup.batch(beyond, accessor);
+
+		assertThat(next1.loads, is(1));
+		assertThat(beyond.loads, is(0));
+		assertThat(last.loads, is(1));
+	}
+
+	@Test
+	public void batchFromMemberWithinWindowInvokesNothing() {
+		Member requester = new Member();
+		Member next = new Member();
+		Member beyond1 = new Member();
+		Member beyond2 = new Member();
+		loadGroup.add(requester);
+		loadGroup.add(next);
+		loadGroup.add(beyond1);
+		loadGroup.add(beyond2);
+		loadGroup.batch(requester, accessor);
+
+		loadGroup.batch(next, accessor);
+
+		assertThat(beyond2.loads, is(0));
+	}
+
+	@Test
+	public void batchSkipsMembersOfOtherTypes() {
+		Member requester = new Member();
+		loadGroup.add(requester);
+		loadGroup.add(new Object());
+
+		loadGroup.batch(requester, accessor);
+
+		assertThat(requester.loads, is(0));
+	}
+
+	@Test
+	public void loadReturnsValueLoadedOnce() throws Exception {
+		Callable<Object> loader = new Callable<Object>() {
+			private int count;
+
+			@Override
+			public Object call() {
+				return ++count;
+			}
+		};
+
+		loadGroup.load("key", loader);
+
+		assertThat(loadGroup.load("key", loader), is((Object) 1));
+	}
+
+	@Test
+	public void loadAfterNextWindowLoadsAgain() throws Exception {
+		Member requester = new Member();
+		loadGroup.add(requester);
+		Callable<Object> loader = new Callable<Object>() {
+			private int count;
+
+			@Override
+			public Object call() {
+				return ++count;
+			}
+		};
+		loadGroup.load("key", loader);
+
+		loadGroup.batch(requester, accessor);
+
+		assertThat(loadGroup.load("key", loader), is((Object) 2));
+	}
+
+	@Test
+	public void loadAfterFailureLoadsAgain() throws Exception {
+		try {
+			loadGroup.load("key", new Callable<Object>() {
+				@Override
+				public Object call() {
+					throw new IllegalStateException("failed");
+				}
+			});
+		}
+		catch (IllegalStateException exception) {
+			// expected
+		}
+
+		assertThat(loadGroup.load("key", new Callable<Object>() {
+			@Override
+			public Object call() {
+				return "value";
+			}
+		}), is((Object) "value"));
+	}
+
+	@Test
+	public void loadRethrowsFailure() throws Exception {
+		thrown.expect(IllegalStateException.class);
+		thrown.expectMessage("failed");
+
+		loadGroup.load("key", new Callable<Object>() {
+			@Override
+			public Object call() {
+				throw new IllegalStateException("failed");
+			}
+		});
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.net.URI;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.co.blackpepper.bowman.MethodDispatchTable.MethodEntry;
+import uk.co.blackpepper.bowman.MethodDispatchTable.MethodKind;
+import uk.co.blackpepper.bowman.annotation.LinkedResource;
+import uk.co.blackpepper.bowman.annotation.ResourceId;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class MethodDispatchTableTest {
+
+	public static class Entity {
+		
+		private String name;
+		
+		@ResourceId
+		public URI getId() {
+			return null;
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		public void setName(String name) {
+			this.name = name;
+		}
+		
+		@LinkedResource
+		public Entity getLinked() {
+			return null;
+		}
+		
+		public void setLinked(Entity linked) {
+		}
+		
+		@LinkedResource(rel = "a:b")
+		public Set<Entity> getLinkedSet() {
+			return null;
+		}
+	}
+	
+	private MethodDispatchTable table;
+	
+	@Before
+	public void setup() {
+		table = MethodDispatchTable.forType(Entity.class);
+	}
+	
+	@Test
+	public void forTypeReturnsSameTable() {
+		assertThat(MethodDispatchTable.forType(Entity.class), is(sameInstance(table)));
+	}
+	
+	@Test
+	public void getEntryReturnsMethodKinds() throws Exception {
+		assertThat(entry("getId").getKind(), is(MethodKind.RESOURCE_ID));
+		assertThat(entry("getName").getKind(), is(MethodKind.PROPERTY));
+		assertThat(entry("getLinked").getKind(), is(MethodKind.LINKED_RESOURCE));
+		assertThat(entry("getLinkedSet").getKind(), is(MethodKind.LINKED_COLLECTION));
+		assertThat(table.getEntry(Entity.class.getMethod("setName", String.class)).getKind(),
+			is(MethodKind.SETTER));
+	}
+	
+	@Test
+	public void getEntryReturnsLinkDetails() throws Exception {
+		assertThat(entry("getLinked").getLinkName(), is("linked"));
+		assertThat(entry("getLinked").getLinkedEntityType(), is(equalTo((Object) Entity.class)));
+		assertThat(entry("getLinkedSet").getLinkName(), is("a:b"));
+		assertThat(entry("getLinkedSet").getLinkedEntityType(), is(equalTo((Object) Entity.class)));
+		assertThat(table.getLinkedResourceCount(), is(2));
+	}
+	
+	@Test
+	public void getEntryReturnsLinkedResourceSlotForSetter() throws Exception {
+		assertThat(table.getEntry(Entity.class.getMethod("setLinked", Entity.class)).getSlot(),
+			is(entry("getLinked").getSlot()));
+		assertThat(table.getEntry(Entity.class.getMethod("setName", String.class)).getSlot(), is(-1));
+	}
+	
+	@Test
+	public void getLinkedAccessorReturnsAccessorByPropertyName() throws Exception {
+		assertThat(table.getLinkedAccessor("linked"), is(Entity.class.getMethod("getLinked")));
+		assertThat(table.getLinkedAccessor("linkedSet"), is(Entity.class.getMethod("getLinkedSet")));
+		assertThat(table.getLinkedAccessor("name"), is(nullValue()));
+	}
+	
+	@Test
+	public void invokeInvokesMethod() throws Exception {
+		Entity entity = new Entity();
+		
+		invoke(table.getEntry(Entity.class.getMethod("setName", String.class)), entity, "x");
+		
+		assertThat(invoke(entry("getName"), entity), is((Object) "x"));
+	}
+	
+	private MethodEntry entry(String methodName) throws NoSuchMethodException {
+		return table.getEntry(Entity.class.getMethod(methodName));
+	}
+	
+	private static Object invoke(MethodEntry entry, Object target, Object... args) throws Exception {
+		// CHECKSTYLE:OFF
+		
+		try {
+			return entry.invoke(target, args);
+		}
+		catch (Throwable throwable) {
+			throw new Exception(throwable);
+		}
+		
+		// CHECKSTYLE:ON
+	}
+}
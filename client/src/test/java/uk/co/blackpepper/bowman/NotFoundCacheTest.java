@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class NotFoundCacheTest {
+
+	private static class Entity {
+		// no members
+	}
+
+	private static class OtherEntity {
+		// no members
+	}
+
+	private AtomicLong ticker;
+
+	private NotFoundCache cache;
+
+	@Before
+	public void setup() {
+		ticker = new AtomicLong();
+
+		cache = new NotFoundCache(Configuration.builder()
+			.setNotFoundCache(2, 10, TimeUnit.NANOSECONDS)
+			.setNotFoundCacheTtl(OtherEntity.class, 0, TimeUnit.NANOSECONDS)
+			.build(), ticker::get);
+	}
+
+	@Test
+	public void containsWhenPutReturnsTrue() {
+		cache.put(URI.create("http://example.com/1"), Entity.class);
+
+		assertThat(cache.contains(URI.create("http://example.com/1")), is(true));
+	}
+
+	@Test
+	public void containsWhenNotPutReturnsFalse() {
+		assertThat(cache.contains(URI.create("http://example.com/1")), is(false));
+	}
+
+	@Test
+	public void containsWhenExpiredReturnsFalse() {
+		cache.put(URI.create("http://example.com/1"), Entity.class);
+		ticker.set(10);
+
+		assertThat(cache.contains(URI.create("http://example.com/1")), is(false));
+	}
+
+	@Test
+	public void containsWhenRemovedReturnsFalse() {
+		cache.put(URI.create("http://example.com/1"), Entity.class);
+		cache.remove(URI.create("http://example.com/1"));
+
+		assertThat(cache.contains(URI.create("http://example.com/1")), is(false));
+	}
+
+	@Test
+	public void containsWhenPutWithZeroTtlTypeReturnsFalse() {
+		cache.put(URI.create("http://example.com/1"), OtherEntity.class);
+
+		assertThat(cache.contains(URI.create("http://example.com/1")), is(false));
+	}
+
+	@Test
+	public void putWhenFullEvictsLeastRecentlyUsed() {
+		cache.put(URI.create("http://example.com/1"), Entity.class);
+		cache.put(URI.create("http://example.com/2"), Entity.class);
+		cache.contains(URI.create("http://example.com/1"));
+
+		cache.put(URI.create("http://example.com/3"), Entity.class);
+
+		assertThat(cache.contains(URI.create("http://example.com/1")), is(true));
+		assertThat(cache.contains(URI.create("http://example.com/2")), is(false));
+		assertThat(cache.contains(URI.create("http://example.com/3")), is(true));
+	}
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
+import org.springframework.hateoas.Resources;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class PageIteratorTest {
+
+	private static class SameThreadExecutor implements Executor {
+		
+		@Override
+		public void execute(Runnable command) {
+			command.run();
+		}
+	}
+	
+	private final Map<URI, Resources<Resource<String>>> pages = new HashMap<>();
+	
+	private final List<URI> fetched = new ArrayList<>();
+	
+	private Function<URI, Resources<Resource<String>>> fetcher;
+	
+	private ExpectedException thrown = ExpectedException.none();
+	
+	@Rule
+	public ExpectedException getThrown() {
+		return thrown;
+	}
+	
+	@Before
+	public void setup() {
+		addPage("http://x.com/1", "a", "http://x.com/2");
+		addPage("http://x.com/2", "b", "http://x.com/3{?sort}");
+		addPage("http://x.com/3", "c", null);
+		
+		fetcher = uri -> {
+			fetched.add(uri);
+			return pages.get(uri);
+		};
+	}
+	
+	@Test
+	public void nextReturnsPagesFollowingNextLinks() {
+		PageIterator<String> iterator = createIterator(1);
+		
+		assertThat(iterator.next().getContent().iterator().next().getContent(), is("a"));
+		assertThat(iterator.next().getContent().iterator().next().getContent(), is("b"));
+		assertThat(iterator.next().getContent().iterator().next().getContent(), is("c"));
+		assertThat(iterator.hasNext(), is(false));
+	}
+	
+	@Test
+	public void nextPrefetchesFollowingPage() {
+		PageIterator<String> iterator = createIterator(1);
+		
+		iterator.next();
+		
+		assertThat(fetched, contains(URI.create("http://x.com/1"), URI.create("http://x.com/2")));
+	}
+	
+	@Test
+	public void nextPrefetchesFollowingPagesUpToPrefetch() {
+		PageIterator<String> iterator = createIterator(2);
+		
+		iterator.next();
+		
+		assertThat(fetched, contains(URI.create("http://x.com/1"), URI.create("http://x.com/2"),
+			URI.create("http://x.com/3")));
+	}
+	
+	@Test
+	public void nextWithNoPrefetchFetchesOnlyReturnedPage() {
+		PageIterator<String> iterator = createIterator(0);
+		
+		iterator.next();
+		
+		assertThat(fetched, contains(URI.create("http://x.com/1")));
+		assertThat(iterator.hasNext(), is(true));
+	}
+	
+	@Test
+	public void hasNextBeforeFirstPageReturnsTrueWithoutFetching() {
+		PageIterator<String> iterator = createIterator(1);
+		
+		assertThat(iterator.hasNext(), is(true));
+		assertThat(fetched.isEmpty(), is(true));
+	}
+	
+	@Test
+	public void closeStopsFetching() {
+		PageIterator<String> iterator = createIterator(0);
+		
+		iterator.next();
+		iterator.close();
+		
+		assertThat(iterator.hasNext(), is(false));
+		assertThat(fetched, contains(URI.create("http://x.com/1")));
+	}
+	
+	@Test
+	public void nextRethrowsFetchException() {
+		IllegalStateException exception = new IllegalStateException();
+		fetcher = uri -> {
+			throw exception;
+		};
+		
+		thrown.expect(is(exception));
+		
+		createIterator(1).next();
+	}
+	
+	private PageIterator<String> createIterator(int prefetch) {
+		return new PageIterator<>(URI.create("http://x.com/1"), uri -> fetcher.apply(uri), new SameThreadExecutor(),
+			prefetch);
+	}
+	
+	private void addPage(String uri, String content, String next) {
+		List<Link> links = new ArrayList<>();
+		
+		if (next != null) {
+			links.add(new Link(next, Link.REL_NEXT));
+		}
+		
+		pages.put(URI.create(uri), new Resources<>(Collections.singletonList(new Resource<>(content)), links));
+	}
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.Executor;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class PageSpliteratorTest {
+
+	private static class QueueExecutor implements Executor {
+		
+		private final List<Runnable> commands = new ArrayList<>();
+		
+		@Override
+		public void execute(Runnable command) {
+			commands.add(command);
+		}
+		
+		List<Runnable> getCommands() {
+			return commands;
+		}
+	}
+	
+	private final List<Integer> fetched = new ArrayList<>();
+	
+	private final IntFunction<String> fetcher = page -> {
+		synchronized (fetched) {
+			fetched.add(page);
+		}
+		
+		return "page" + page;
+	};
+	
+	private QueueExecutor executor;
+	
+	private ExpectedException thrown = ExpectedException.none();
+	
+	@Rule
+	public ExpectedException getThrown() {
+		return thrown;
+	}
+	
+	@Before
+	public void setup() {
+		executor = new QueueExecutor();
+	}
+	
+	@Test
+	public void streamReturnsPagesInOrder() {
+		PageSpliterator.Pages<String> pages = new PageSpliterator.Pages<>("page0", 6, fetcher, Runnable::run, 2);
+		
+		List<String> result = StreamSupport.stream(new PageSpliterator<>(pages, true), true)
+			.collect(Collectors.toList());
+		
+		assertThat(result, contains("page0", "page1", "page2", "page3", "page4", "page5"));
+	}
+	
+	@Test
+	public void createSubmitsPagesUpToParallelism() {
+		new PageSpliterator.Pages<>("page0", 6, fetcher, executor, 2);
+		
+		assertThat(executor.getCommands().size(), is(2));
+	}
+	
+	@Test
+	public void takeSubmitsNextPage() {
+		PageSpliterator.Pages<String> pages = new PageSpliterator.Pages<>("page0", 6, fetcher, executor, 2);
+		executor.getCommands().get(0).run();
+		
+		pages.take(1);
+		
+		assertThat(executor.getCommands().size(), is(3));
+	}
+	
+	@Test
+	public void takeFetchesUnsubmittedPageInCallingThread() {
+		PageSpliterator.Pages<String> pages = new PageSpliterator.Pages<>("page0", 6, fetcher, executor, 1);
+		
+		String page = pages.take(4);
+		
+		assertThat(page, is("page4"));
+		assertThat(fetched, contains(4));
+	}
+	
+	@Test
+	public void takeWithFirstPageReturnsFirstPageWithoutFetching() {
+		PageSpliterator.Pages<String> pages = new PageSpliterator.Pages<>("page0", 1, fetcher, executor, 1);
+		
+		assertThat(pages.take(0), is("page0"));
+		assertThat(fetched.isEmpty(), is(true));
+	}
+	
+	@Test
+	public void takeRethrowsFetchException() {
+		IllegalStateException exception = new IllegalStateException();
+		PageSpliterator.Pages<String> pages = new PageSpliterator.Pages<>("page0", 2, page -> {
+			throw exception;
+		}, Runnable::run, 1);
+		
+		thrown.expect(is(exception));
+		
+		pages.take(1);
+	}
+	
+	@Test
+	public void closeStopsSubmittingPages() {
+		PageSpliterator.Pages<String> pages = new PageSpliterator.Pages<>("page0", 6, fetcher, executor, 1);
+		pages.close();
+		executor.getCommands().get(0).run();
+		
+		pages.take(1);
+		
+		assertThat(executor.getCommands().size(), is(1));
+	}
+	
+	@Test
+	public void tryAdvanceWhenUnorderedReturnsRetrievedPagesFirst() {
+		PageSpliterator.Pages<String> pages = new PageSpliterator.Pages<>("page0", 3, fetcher, executor, 2);
+		executor.getCommands().get(1).run();
+		PageSpliterator<String> spliterator = new PageSpliterator<>(pages, false);
+		List<String> result = new ArrayList<>();
+		
+		spliterator.tryAdvance(result::add);
+		spliterator.tryAdvance(result::add);
+		
+		assertThat(result, contains("page0", "page2"));
+	}
+	
+	@Test
+	public void tryAdvanceWhenOrderedReturnsPagesInOrder() {
+		PageSpliterator.Pages<String> pages = new PageSpliterator.Pages<>("page0", 3, fetcher, executor, 2);
+		executor.getCommands().get(1).run();
+		executor.getCommands().get(0).run();
+		PageSpliterator<String> spliterator = new PageSpliterator<>(pages, true);
+		List<String> result = new ArrayList<>();
+		
+		spliterator.forEachRemaining(result::add);
+		
+		assertThat(result, contains("page0", "page1", "page2"));
+	}
+	
+	@Test
+	public void trySplitReturnsPrefix() {
+		PageSpliterator.Pages<String> pages = new PageSpliterator.Pages<>("page0", 5, fetcher, Runnable::run, 5);
+		PageSpliterator<String> spliterator = new PageSpliterator<>(pages, true);
+		
+		Spliterator<String> prefix = spliterator.trySplit();
+		List<String> result = new ArrayList<>();
+		prefix.forEachRemaining(result::add);
+		
+		assertThat(result, contains("page0", "page1"));
+		assertThat(spliterator.estimateSize(), is(3L));
+	}
+	
+	@Test
+	public void trySplitWithOnePageReturnsNull() {
+		PageSpliterator.Pages<String> pages = new PageSpliterator.Pages<>("page0", 1, fetcher, executor, 1);
+		
+		assertThat(new PageSpliterator<>(pages, true).trySplit(), is(nullValue()));
+	}
+	
+	@Test
+	public void characteristicsWhenUnorderedIsNotOrdered() {
+		PageSpliterator.Pages<String> pages = new PageSpliterator.Pages<>("page0", 1, fetcher, executor, 1);
+		
+		assertThat(new PageSpliterator<>(pages, false).hasCharacteristics(Spliterator.ORDERED), is(false));
+	}
+}
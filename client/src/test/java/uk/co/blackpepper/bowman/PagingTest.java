@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.net.URI;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import uk.co.blackpepper.bowman.Paging.Direction;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class PagingTest {
+
+	private ExpectedException thrown = ExpectedException.none();
+
+	@Rule
+	public ExpectedException getThrown() {
+		return thrown;
+	}
+
+	@Test
+	public void buildReturnsDefaults() {
+		Paging paging = Paging.builder().build();
+
+		assertThat(paging.getPageSize(), is(0));
+		assertThat(paging.getPrefetch(), is(1));
+		assertThat(paging.getSort().isEmpty(), is(true));
+	}
+
+	@Test
+	public void addSortAddsSortParameters() {
+		Paging paging = Paging.builder().addSort("a").addSort("b", Direction.DESC).build();
+
+		assertThat(paging.getSort(), contains("a,asc", "b,desc"));
+	}
+
+	@Test
+	public void setPageSizeWithZeroThrowsException() {
+		thrown.expect(IllegalArgumentException.class);
+
+		Paging.builder().setPageSize(0);
+	}
+
+	@Test
+	public void setPrefetchWithNegativeThrowsException() {
+		thrown.expect(IllegalArgumentException.class);
+
+		Paging.builder().setPrefetch(-1);
+	}
+
+	@Test
+	public void getFirstPageUriWithDefaultsReturnsUri() {
+		URI uri = Paging.builder().build().getFirstPageUri(URI.create("http://x.com/things"));
+
+		assertThat(uri, is(URI.create("http://x.com/things")));
+	}
+
+	@Test
+	public void getFirstPageUriAddsPageSizeAndSort() {
+		Paging paging = Paging.builder().setPageSize(10).addSort("a").addSort("b", Direction.DESC).build();
+
+		URI uri = paging.getFirstPageUri(URI.create("http://x.com/things"));
+
+		assertThat(uri, is(URI.create("http://x.com/things?size=10&sort=a,asc&sort=b,desc")));
+	}
+
+	@Test
+	public void getFirstPageUriReplacesExistingParameters() {
+		Paging paging = Paging.builder().setPageSize(10).addSort("a").build();
+
+		URI uri = paging.getFirstPageUri(URI.create("http://x.com/things?size=5&sort=b&q=x"));
+
+		assertThat(uri, is(URI.create("http://x.com/things?q=x&size=10&sort=a,asc")));
+	}
+}
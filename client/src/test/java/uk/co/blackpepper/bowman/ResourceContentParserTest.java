@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.hateoas.Link;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ResourceContentParserTest {
+	
+	private ObjectMapper mapper;
+	
+	@Before
+	public void setup() {
+		mapper = new ObjectMapper();
+	}
+	
+	@Test
+	public void nextTokenSkipsHalProperties() throws Exception {
+		ResourceContentParser parser = createParser("{\"a\":1,\"_links\":{\"self\":{\"href\":\"http://x.com/1\"}},"
+			+ "\"_embedded\":{\"x\":{}},\"b\":[2]}");
+		
+		assertThat(parser.nextToken(), is(JsonToken.FIELD_NAME));
+		assertThat(parser.getCurrentName(), is("a"));
+		assertThat(parser.nextToken(), is(JsonToken.VALUE_NUMBER_INT));
+		assertThat(parser.nextToken(), is(JsonToken.FIELD_NAME));
+		assertThat(parser.getCurrentName(), is("b"));
+		assertThat(parser.nextToken(), is(JsonToken.START_ARRAY));
+		assertThat(parser.nextToken(), is(JsonToken.VALUE_NUMBER_INT));
+		assertThat(parser.nextToken(), is(JsonToken.END_ARRAY));
+		assertThat(parser.nextToken(), is(JsonToken.END_OBJECT));
+	}
+	
+	@Test
+	public void nextTokenCapturesHalProperties() throws Exception {
+		ResourceContentParser parser = createParser("{\"_links\":{\"self\":{\"href\":\"http://x.com/1\"}},"
+			+ "\"_embedded\":{\"x\":{\"field\":\"y\"}}}");
+		
+		parser.nextToken();
+		
+		assertThat("links", parser.getLinks(), contains(new Link("http://x.com/1", Link.REL_SELF)));
+		assertThat("embedded", parser.getEmbedded().get("x").get("field").asText(), is("y"));
+	}
+	
+	@Test
+	public void nextTokenDoesNotSkipNestedHalProperties() throws Exception {
+		ResourceContentParser parser = createParser("{\"child\":{\"_links\":{}}}");
+		
+		Map<?, ?> content = mapper.readValue(parser, Map.class);
+		
+		assertThat(((Map<?, ?>) content.get("child")).containsKey("_links"), is(true));
+		assertThat(parser.getLinks().isEmpty(), is(true));
+	}
+	
+	@Test
+	public void readValueBindsContentWithoutHalProperties() throws Exception {
+		ResourceContentParser parser = createParser("{\"_links\":{\"self\":{\"href\":\"http://x.com/1\"}},"
+			+ "\"a\":{\"b\":[1]},\"_embedded\":{}}");
+		
+		Map<?, ?> content = mapper.readValue(parser, Map.class);
+		
+		assertThat(content.keySet(), contains((Object) "a"));
+	}
+	
+	@Test
+	public void readLinksReturnsLinks() throws Exception {
+		JsonParser parser = mapper.getFactory().createParser("{\"a\":{\"_links\":{}},"
+			+ "\"_links\":{\"self\":{\"href\":\"http://x.com/1\"}},\"b\":2}");
+		parser.nextToken();
+		
+		assertThat(ResourceContentParser.readLinks(parser, createContext(parser)),
+			contains(new Link("http://x.com/1", Link.REL_SELF)));
+	}
+	
+	private ResourceContentParser createParser(String json) throws Exception {
+		JsonParser parser = mapper.getFactory().createParser(json);
+		parser.nextToken();
+		
+		return new ResourceContentParser(parser, createContext(parser));
+	}
+	
+	private DeserializationContext createContext(JsonParser parser) {
+		return ((DefaultDeserializationContext) mapper.getDeserializationContext())
+			.createInstance(mapper.getDeserializationConfig(), parser, null);
+	}
+}
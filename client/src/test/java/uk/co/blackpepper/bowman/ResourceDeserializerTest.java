@@ -18,6 +18,7 @@ import com.fasterxml.jackson.databind.module.SimpleModule;
 
 import uk.co.blackpepper.bowman.JacksonClientModule.ResourceMixin;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
@@ -89,4 +90,47 @@ public class ResourceDeserializerTest {
 		assertThat("class", resource.getContent().getClass(), Matchers.<Class<?>>equalTo(ResolvedType.class));
 		assertThat("field", ((ResolvedType) resource.getContent()).getField(), is("x"));
 	}
+	
+	@Test
+	public void deserializeRetainsEmbeddedResources() throws Exception {
+		doReturn(DeclaredType.class).when(typeResolver).resolveType(DeclaredType.class,
+			new Links(new Link("http://x.com/1", Link.REL_SELF)), configuration);
+		
+		Resource<DeclaredType> resource = mapper.readValue(
+			"{\"_links\":{\"self\":{\"href\":\"http://x.com/1\"}},"
+				+ "\"_embedded\":{\"linked\":{\"field\":\"y\"}}}",
+			new TypeReference<Resource<DeclaredType>>() { });
+		
+		assertThat(HalResource.getEmbedded(resource, "linked").get("field").asText(), is("y"));
+	}
+	
+	@Test
+	public void deserializeWithMonomorphicTypeReturnsObjectOfDeclaredType() throws Exception {
+		useTypeResolver(new DefaultTypeResolver());
+		
+		Resource<ResolvedType> resource = mapper.readValue(
+			"{\"field\":\"x\",\"_links\":{\"self\":{\"href\":\"http://x.com/1\"}}}",
+			new TypeReference<Resource<ResolvedType>>() { });
+		
+		assertThat("field", resource.getContent().getField(), is("x"));
+		assertThat("links", resource.getLinks(), contains(new Link("http://x.com/1", Link.REL_SELF)));
+	}
+	
+	@Test
+	public void deserializeWithMonomorphicTypeRetainsEmbeddedResources() throws Exception {
+		useTypeResolver(new DefaultTypeResolver());
+		
+		Resource<ResolvedType> resource = mapper.readValue(
+			"{\"_embedded\":{\"linked\":{\"field\":\"y\"}},\"field\":\"x\"}",
+			new TypeReference<Resource<ResolvedType>>() { });
+		
+		assertThat("field", resource.getContent().getField(), is("x"));
+		assertThat("embedded", HalResource.getEmbedded(resource, "linked").get("field").asText(), is("y"));
+	}
+	
+	private void useTypeResolver(TypeResolver resolver) {
+		doReturn(new ResourceDeserializer(Object.class, resolver, configuration))
+			.when(instantiator).deserializerInstance(any(DeserializationConfig.class),
+					any(Annotated.class), eq(ResourceDeserializer.class));
+	}
 }
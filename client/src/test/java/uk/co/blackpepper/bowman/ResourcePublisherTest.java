@@ -0,0 +1,248 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.hateoas.Resource;
+import org.springframework.web.client.RestClientException;
+
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.HandlerInstantiator;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ResourcePublisherTest {
+
+	public static class Entity {
+		
+		private String field;
+		
+		public String getField() {
+			return field;
+		}
+		
+		public void setField(String field) {
+			this.field = field;
+		}
+	}
+	
+	private static final class RecordingSubscriber implements Subscriber<String> {
+		
+		private Subscription subscription;
+		
+		private final List<String> values = new ArrayList<>();
+		
+		private Throwable error;
+		
+		private boolean complete;
+		
+		@Override
+		public void onSubscribe(Subscription subscription) {
+			this.subscription = subscription;
+		}
+		
+		@Override
+		public void onNext(String value) {
+			values.add(value);
+		}
+		
+		@Override
+		public void onError(Throwable error) {
+			this.error = error;
+		}
+		
+		@Override
+		public void onComplete() {
+			complete = true;
+		}
+	}
+	
+	private static final URI FIRST_URI = URI.create("http://x.com/entities");
+	
+	private static final URI NEXT_URI = URI.create("http://x.com/entities?page=1");
+	
+	private ObjectMapper mapper;
+	
+	private Closeable response;
+	
+	private Function<URI, EmbeddedResourceSpliterator<Entity>> pageOpener;
+	
+	private RecordingSubscriber subscriber;
+	
+	@Before
+	public void setup() {
+		HandlerInstantiator instantiator = mock(HandlerInstantiator.class);
+		doReturn(new ResourceDeserializer(Object.class, new DefaultTypeResolver(), Configuration.build()))
+			.when(instantiator).deserializerInstance(any(DeserializationConfig.class), any(Annotated.class),
+				eq(ResourceDeserializer.class));
+		
+		mapper = new DefaultObjectMapperFactory().create(instantiator);
+		response = mock(Closeable.class);
+		@SuppressWarnings("unchecked")
+		Function<URI, EmbeddedResourceSpliterator<Entity>> opener = mock(Function.class);
+		pageOpener = opener;
+		subscriber = new RecordingSubscriber();
+		
+		new ResourcePublisher<>(FIRST_URI, pageOpener, resource -> resource.getContent(), Runnable::run)
+			.subscribe(new Subscriber<Entity>() {
+				
+				@Override
+				public void onSubscribe(Subscription subscription) {
+					subscriber.onSubscribe(subscription);
+				}
+				
+				@Override
+				public void onNext(Entity entity) {
+					subscriber.onNext(entity.getField());
+				}
+				
+				@Override
+				public void onError(Throwable error) {
+					subscriber.onError(error);
+				}
+				
+				@Override
+				public void onComplete() {
+					subscriber.onComplete();
+				}
+			});
+	}
+	
+	@Test
+	public void subscribeDoesNotRetrieveCollection() {
+		verify(pageOpener, never()).apply(any(URI.class));
+	}
+	
+	@Test
+	public void requestSignalsRequestedEntities() throws Exception {
+		EmbeddedResourceSpliterator<Entity> page = createPage(
+			"{\"_embedded\":{\"entities\":[{\"field\":\"x\"},{\"field\":\"y\"}]}}");
+		when(pageOpener.apply(FIRST_URI)).thenReturn(page);
+		
+		subscriber.subscription.request(1);
+		
+		assertThat(subscriber.values, contains("x"));
+		assertThat(subscriber.complete, is(false));
+	}
+	
+	@Test
+	public void requestAllSignalsEntitiesAndCompletes() throws Exception {
+		EmbeddedResourceSpliterator<Entity> page = createPage(
+			"{\"_embedded\":{\"entities\":[{\"field\":\"x\"},{\"field\":\"y\"}]}}");
+		when(pageOpener.apply(FIRST_URI)).thenReturn(page);
+		
+		subscriber.subscription.request(Long.MAX_VALUE);
+		
+		assertThat(subscriber.values, contains("x", "y"));
+		assertThat(subscriber.complete, is(true));
+	}
+	
+	@Test
+	public void requestFollowsNextLinkOnlyOnceDemanded() throws Exception {
+		EmbeddedResourceSpliterator<Entity> firstPage = createPage("{\"_embedded\":{\"entities\":[{\"field\":\"x\"}]},"
+			+ "\"_links\":{\"next\":{\"href\":\"" + NEXT_URI + "\"}}}");
+		EmbeddedResourceSpliterator<Entity> nextPage = createPage(
+			"{\"_embedded\":{\"entities\":[{\"field\":\"y\"}]}}");
+		when(pageOpener.apply(FIRST_URI)).thenReturn(firstPage);
+		when(pageOpener.apply(NEXT_URI)).thenReturn(nextPage);
+		
+		subscriber.subscription.request(1);
+		verify(pageOpener, never()).apply(NEXT_URI);
+		subscriber.subscription.request(2);
+		
+		assertThat(subscriber.values, contains("x", "y"));
+		assertThat(subscriber.complete, is(true));
+	}
+	
+	@Test
+	public void requestWhenNotFoundCompletes() {
+		subscriber.subscription.request(1);
+		
+		assertThat(subscriber.values, is(empty()));
+		assertThat(subscriber.complete, is(true));
+	}
+	
+	@Test
+	public void requestWhenRetrievalFailsSignalsError() {
+		RestClientException exception = new RestClientException("failed");
+		when(pageOpener.apply(FIRST_URI)).thenThrow(exception);
+		
+		subscriber.subscription.request(1);
+		
+		assertThat(subscriber.error, is(sameInstance((Throwable) exception)));
+	}
+	
+	@Test
+	public void requestWithNonPositiveCountSignalsError() {
+		subscriber.subscription.request(0);
+		
+		assertThat(subscriber.error, is(instanceOf(IllegalArgumentException.class)));
+		verify(pageOpener, never()).apply(any(URI.class));
+	}
+	
+	@Test
+	public void cancelClosesPage() throws Exception {
+		EmbeddedResourceSpliterator<Entity> page = createPage(
+			"{\"_embedded\":{\"entities\":[{\"field\":\"x\"},{\"field\":\"y\"}]}}");
+		when(pageOpener.apply(FIRST_URI)).thenReturn(page);
+		subscriber.subscription.request(1);
+		
+		subscriber.subscription.cancel();
+		
+		verify(response).close();
+	}
+	
+	@Test
+	public void requestAfterCancelSignalsNothing() throws Exception {
+		subscriber.subscription.cancel();
+		
+		subscriber.subscription.request(1);
+		
+		assertThat(subscriber.values, is(empty()));
+		assertThat(subscriber.complete, is(false));
+		assertThat(subscriber.error, is(nullValue()));
+	}
+	
+	private EmbeddedResourceSpliterator<Entity> createPage(String json) throws Exception {
+		return new EmbeddedResourceSpliterator<>(mapper.getFactory().createParser(json),
+			mapper.readerFor(mapper.getTypeFactory().constructParametricType(Resource.class, Entity.class)),
+			response);
+	}
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.http.HttpHeaders;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ResponseCacheTest {
+
+	private static final URI URI_1 = URI.create("http://example.com/1");
+
+	private TemporaryFolder folder = new TemporaryFolder();
+
+	private AtomicLong ticker;
+
+	private ResponseCache cache;
+
+	@Rule
+	public TemporaryFolder getFolder() {
+		return folder;
+	}
+
+	@Before
+	public void setup() {
+		ticker = new AtomicLong();
+
+		cache = new ResponseCache(Configuration.builder().setResponseCacheSize(100).build(), ticker::get);
+	}
+
+	@Test
+	public void getWhenPutWithMaxAgeReturnsFreshEntry() {
+		cache.put(URI_1, new byte[] {1}, cacheControl("max-age=10"));
+
+		ResponseCache.Entry entry = cache.get(URI_1);
+
+		assertThat(entry.getBody(), is(new byte[] {1}));
+		assertThat(cache.isFresh(entry), is(true));
+	}
+
+	@Test
+	public void getWhenMaxAgeElapsedReturnsStaleEntry() {
+		HttpHeaders headers = cacheControl("max-age=10");
+		headers.setETag("\"1\"");
+		cache.put(URI_1, new byte[] {1}, headers);
+		ticker.set(TimeUnit.SECONDS.toNanos(10));
+
+		assertThat(cache.isFresh(cache.get(URI_1)), is(false));
+	}
+
+	@Test
+	public void getWhenPutWithAgeReducesFreshness() {
+		HttpHeaders headers = cacheControl("max-age=10");
+		headers.set("Age", "5");
+		cache.put(URI_1, new byte[] {1}, headers);
+		ticker.set(TimeUnit.SECONDS.toNanos(5));
+
+		assertThat(cache.isFresh(cache.get(URI_1)), is(false));
+	}
+
+	@Test
+	public void getWhenPutWithExpiresReturnsFreshEntry() {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setDate(1000000);
+		headers.setExpires(1000000 + TimeUnit.SECONDS.toMillis(10));
+		cache.put(URI_1, new byte[] {1}, headers);
+
+		assertThat(cache.isFresh(cache.get(URI_1)), is(true));
+	}
+
+	@Test
+	public void getWhenPutWithNoStoreReturnsNull() {
+		cache.put(URI_1, new byte[] {1}, cacheControl("max-age=10, no-store"));
+
+		assertThat(cache.get(URI_1), is(nullValue()));
+	}
+
+	@Test
+	public void getWhenPutWithNoCacheAndETagReturnsStaleEntry() {
+		HttpHeaders headers = cacheControl("no-cache");
+		headers.setETag("\"1\"");
+		cache.put(URI_1, new byte[] {1}, headers);
+
+		assertThat(cache.isFresh(cache.get(URI_1)), is(false));
+	}
+
+	@Test
+	public void getWhenPutWithoutFreshnessOrValidatorsReturnsNull() {
+		cache.put(URI_1, new byte[] {1}, new HttpHeaders());
+
+		assertThat(cache.get(URI_1), is(nullValue()));
+	}
+
+	@Test
+	public void getWhenRemovedReturnsNull() {
+		cache.put(URI_1, new byte[] {1}, cacheControl("max-age=10"));
+		cache.remove(URI_1);
+
+		assertThat(cache.get(URI_1), is(nullValue()));
+	}
+
+	@Test
+	public void isSharedWhenPublicReturnsTrue() {
+		assertThat(ResponseCache.isShared(new HttpHeaders(), cacheControl("public, max-age=10")), is(true));
+	}
+
+	@Test
+	public void isSharedWhenRequestHasAuthorizationReturnsFalse() {
+		HttpHeaders requestHeaders = new HttpHeaders();
+		requestHeaders.set(HttpHeaders.AUTHORIZATION, "Bearer x");
+
+		assertThat(ResponseCache.isShared(requestHeaders, cacheControl("max-age=10")), is(false));
+	}
+
+	@Test
+	public void isSharedWhenPrivateReturnsFalse() {
+		assertThat(ResponseCache.isShared(new HttpHeaders(), cacheControl("max-age=10, private")), is(false));
+	}
+
+	@Test
+	public void isSharedWhenPrivateFieldsReturnsFalse() {
+		assertThat(ResponseCache.isShared(new HttpHeaders(), cacheControl("private=\"Set-Cookie\"")), is(false));
+	}
+
+	@Test
+	public void isSharedWhenVaryAcceptReturnsTrue() {
+		HttpHeaders headers = cacheControl("max-age=10");
+		headers.set(HttpHeaders.VARY, "accept");
+
+		assertThat(ResponseCache.isShared(new HttpHeaders(), headers), is(true));
+	}
+
+	@Test
+	public void isSharedWhenVaryOtherHeaderReturnsFalse() {
+		HttpHeaders headers = cacheControl("max-age=10");
+		headers.set(HttpHeaders.VARY, "Accept, Accept-Language");
+
+		assertThat(ResponseCache.isShared(new HttpHeaders(), headers), is(false));
+	}
+
+	@Test
+	public void isSharedWhenVaryAnyReturnsFalse() {
+		HttpHeaders headers = cacheControl("max-age=10");
+		headers.set(HttpHeaders.VARY, "*");
+
+		assertThat(ResponseCache.isShared(new HttpHeaders(), headers), is(false));
+	}
+
+	@Test
+	public void addValidatorsAddsConditionalHeaders() {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setETag("\"1\"");
+		headers.setLastModified(1000);
+		cache.put(URI_1, new byte[] {1}, headers);
+		HttpHeaders requestHeaders = new HttpHeaders();
+
+		cache.get(URI_1).addValidators(requestHeaders);
+
+		assertThat(requestHeaders.getIfNoneMatch().get(0), is("\"1\""));
+		assertThat(requestHeaders.getIfModifiedSince(), is(1000L));
+	}
+
+	@Test
+	public void revalidateRenewsFreshnessAndKeepsValidators() {
+		HttpHeaders headers = cacheControl("no-cache");
+		headers.setETag("\"1\"");
+		cache.put(URI_1, new byte[] {1}, headers);
+
+		cache.revalidate(URI_1, cache.get(URI_1), cacheControl("max-age=10"));
+		ResponseCache.Entry entry = cache.get(URI_1);
+		HttpHeaders requestHeaders = new HttpHeaders();
+		entry.addValidators(requestHeaders);
+
+		assertThat(cache.isFresh(entry), is(true));
+		assertThat(entry.getBody(), is(new byte[] {1}));
+		assertThat(requestHeaders.getIfNoneMatch().get(0), is("\"1\""));
+	}
+
+	@Test
+	public void putWhenFullEvictsLeastRecentlyUsedProbationaryEntry() {
+		cache.put(uri(1), new byte[40], cacheControl("max-age=10"));
+		cache.put(uri(2), new byte[40], cacheControl("max-age=10"));
+		cache.put(uri(3), new byte[40], cacheControl("max-age=10"));
+
+		assertThat(cache.get(uri(1)), is(nullValue()));
+		assertThat(cache.get(uri(2)), is(notNullValue()));
+		assertThat(cache.get(uri(3)), is(notNullValue()));
+	}
+
+	@Test
+	public void putWhenFullKeepsEntriesUsedAgain() {
+		cache.put(uri(1), new byte[40], cacheControl("max-age=10"));
+		cache.get(uri(1));
+
+		for (int index = 2; index < 10; index++) {
+			cache.put(uri(index), new byte[40], cacheControl("max-age=10"));
+		}
+
+		assertThat(cache.get(uri(1)), is(notNullValue()));
+	}
+
+	@Test
+	public void putWhenLargerThanCacheDoesNotCache() {
+		cache.put(URI_1, new byte[101], cacheControl("max-age=10"));
+
+		assertThat(cache.get(URI_1), is(nullValue()));
+	}
+
+	@Test
+	public void getStatsReturnsCounts() {
+		HttpHeaders headers = cacheControl("no-cache");
+		headers.setETag("\"1\"");
+		cache.put(uri(1), new byte[10], cacheControl("max-age=10"));
+		cache.put(uri(2), new byte[20], headers);
+		cache.get(uri(1));
+		cache.revalidate(uri(2), cache.get(uri(2)), headers);
+
+		ResponseCacheStats stats = cache.getStats();
+
+		assertThat(stats.getHitCount(), is(1L));
+		assertThat(stats.getMissCount(), is(2L));
+		assertThat(stats.getRevalidationCount(), is(1L));
+		assertThat(stats.getEvictionCount(), is(0L));
+		assertThat(stats.getEntryCount(), is(2));
+		assertThat(stats.getSize(), is(30L));
+	}
+
+	@Test
+	public void getAfterRestartWithDiskCacheReturnsEntry() throws Exception {
+		Path directory = folder.newFolder().toPath();
+		Configuration configuration = Configuration.builder()
+			.setResponseCacheSize(100)
+			.setDiskCache(directory, 1024 * 1024)
+			.build();
+		cache = new ResponseCache(configuration, ticker::get);
+		HttpHeaders headers = cacheControl("max-age=60");
+		headers.setETag("\"1\"");
+		cache.put(URI_1, new byte[] {1}, headers);
+		cache.close();
+
+		cache = new ResponseCache(configuration, ticker::get);
+		ResponseCache.Entry entry = cache.get(URI_1);
+		HttpHeaders requestHeaders = new HttpHeaders();
+		entry.addValidators(requestHeaders);
+
+		assertThat(entry.getBody(), is(new byte[] {1}));
+		assertThat(cache.isFresh(entry), is(true));
+		assertThat(requestHeaders.getIfNoneMatch().get(0), is("\"1\""));
+	}
+
+	@Test
+	public void getAfterRestartWithDiskCacheWhenRemovedReturnsNull() throws Exception {
+		Path directory = folder.newFolder().toPath();
+		Configuration configuration = Configuration.builder()
+			.setResponseCacheSize(100)
+			.setDiskCache(directory, 1024 * 1024)
+			.build();
+		cache = new ResponseCache(configuration, ticker::get);
+		cache.put(URI_1, new byte[] {1}, cacheControl("max-age=60"));
+		cache.remove(URI_1);
+		cache.close();
+
+		cache = new ResponseCache(configuration, ticker::get);
+
+		assertThat(cache.get(URI_1), is(nullValue()));
+	}
+
+	@Test
+	public void putWhenDiskCacheDirectoryInUseCachesInMemory() throws Exception {
+		Path directory = folder.newFolder().toPath();
+		Configuration configuration = Configuration.builder()
+			.setResponseCacheSize(100)
+			.setDiskCache(directory, 1024 * 1024)
+			.build();
+		ResponseCache other = new ResponseCache(configuration, ticker::get);
+		cache = new ResponseCache(configuration, ticker::get);
+		cache.put(URI_1, new byte[] {1}, cacheControl("max-age=60"));
+		cache.close();
+		other.close();
+
+		cache = new ResponseCache(configuration, ticker::get);
+
+		assertThat(cache.get(URI_1), is(nullValue()));
+	}
+
+	private static HttpHeaders cacheControl(String cacheControl) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl(cacheControl);
+		return headers;
+	}
+
+	private static URI uri(int id) {
+		return URI.create("http://example.com/" + id);
+	}
+}
@@ -60,7 +60,8 @@ public class RestOperationsFactoryTest {
 				.setClientHttpRequestFactory(clientHttpRequestFactory)
 				.build();
 		
-		factory = new RestOperationsFactory(configuration, proxyFactory, mapperFactory, restTemplateFactory);
+		factory = new RestOperationsFactory(configuration, proxyFactory, clientHttpRequestFactory, mapperFactory,
+			restTemplateFactory);
 	}
 	
 	@Test
@@ -106,8 +107,8 @@ public class RestOperationsFactoryTest {
 		when(restTemplateFactory.create(any(ClientHttpRequestFactory.class), any(ObjectMapper.class)))
 			.thenReturn(restTemplate);
 		
-		new RestOperationsFactory(configuration, proxyFactory, mapperFactory, restTemplateFactory)
-			.create();
+		new RestOperationsFactory(configuration, proxyFactory, clientHttpRequestFactory, mapperFactory,
+			restTemplateFactory).create();
 		
 		verify(restTemplateConfigurer).configure(restTemplate);
 	}
@@ -123,11 +124,33 @@ public class RestOperationsFactoryTest {
 		when(mapperFactory.create(any(HandlerInstantiator.class)))
 			.thenReturn(objectMapper);
 		
-		new RestOperationsFactory(configuration, proxyFactory, mapperFactory, restTemplateFactory)
-			.create();
+		new RestOperationsFactory(configuration, proxyFactory, clientHttpRequestFactory, mapperFactory,
+			restTemplateFactory).create();
 		
 		verify(objectMapperConfigurer).configure(objectMapper);
 	}
+	
+	@Test
+	public void createDisablesBatchLoadingByDefault() {
+		when(mapperFactory.create(any(HandlerInstantiator.class))).thenReturn(new ObjectMapper());
+		
+		RestOperations restOperations = factory.create();
+		
+		assertThat(restOperations.getBatchLoadWindow(), is(0));
+	}
+	
+	@Test
+	public void createPassesConfiguredBatchLoadWindow() {
+		Configuration configuration = Configuration.builder()
+			.setBatchLoadWindow(4)
+			.build();
+		when(mapperFactory.create(any(HandlerInstantiator.class))).thenReturn(new ObjectMapper());
+		
+		RestOperations restOperations = new RestOperationsFactory(configuration, proxyFactory,
+			clientHttpRequestFactory, mapperFactory, restTemplateFactory).create();
+		
+		assertThat(restOperations.getBatchLoadWindow(), is(4));
+	}
 
 	private static Matcher<RestOperations> aRestOperationsMatching(final RestTemplate restTemplate,
 			final ObjectMapper mapper) {
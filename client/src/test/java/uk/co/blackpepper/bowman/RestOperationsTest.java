@@ -15,38 +15,62 @@
  */
 package uk.co.blackpepper.bowman;
 
-import java.io.IOException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.mockito.ArgumentCaptor;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
+import org.springframework.hateoas.Link;
 import org.springframework.hateoas.Links;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.PagedResources;
 import org.springframework.hateoas.Resource;
 import org.springframework.hateoas.Resources;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.client.DefaultResponseErrorHandler;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
-import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.DeserializationConfig;
-import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.cfg.HandlerInstantiator;
 import com.fasterxml.jackson.databind.introspect.Annotated;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.HttpStatus.I_AM_A_TEAPOT;
@@ -90,8 +114,7 @@ public class RestOperationsTest {
 
 	@Test
 	public void getResourceReturnsResource() throws Exception {
-		when(restTemplate.getForObject(URI.create("http://example.com"), ObjectNode.class))
-			.thenReturn(createObjectNode("{\"field\":\"value\"}"));
+		mockResponse("{\"field\":\"value\"}");
 		
 		Resource<Entity> resource = restOperations.getResource(URI.create("http://example.com"), Entity.class);
 		
@@ -99,30 +122,247 @@ public class RestOperationsTest {
 	}
 	
 	@Test
-	public void getResourceOnNotFoundHttpClientExceptionReturnsNull() throws Exception {
-		when(restTemplate.getForObject(URI.create("http://example.com"), ObjectNode.class))
-			.thenThrow(new HttpClientErrorException(NOT_FOUND));
+	public void getResourceWithLinksAfterContentReturnsResource() throws Exception {
+		mockResponse("{\"field\":\"value\",\"_links\":{\"self\":{\"href\":\"http://example.com/1\"}}}");
+		
+		Resource<Entity> resource = restOperations.getResource(URI.create("http://example.com"), Entity.class);
+		
+		assertThat(resource.getContent().getField(), is("value"));
+		assertThat(resource.getLinks(), contains(new Link("http://example.com/1", Link.REL_SELF)));
+	}
+	
+	@Test
+	public void getResourceWithEmptyBodyReturnsNull() throws Exception {
+		mockResponse("");
+		
+		Resource<Entity> resource = restOperations.getResource(URI.create("http://example.com"), Entity.class);
+		
+		assertThat(resource, is(nullValue()));
+	}
+	
+	@Test
+	public void getResourceWithInvalidBodyThrowsException() throws Exception {
+		mockResponse("{\"field\":");
+		
+		thrown.expect(HttpMessageNotReadableException.class);
+		
+		restOperations.getResource(URI.create("http://example.com"), Entity.class);
+	}
+	
+	@Test
+	public void getResourceAcceptsHalJson() throws Exception {
+		ClientHttpRequest request = mockResponse("{}");
+		
+		restOperations.getResource(URI.create("http://example.com"), Entity.class);
+		
+		assertThat(request.getHeaders().getAccept(), contains(MediaTypes.HAL_JSON));
+	}
+	
+	@Test
+	public void getResourceDoesNotSendContentType() throws Exception {
+		ClientHttpRequest request = mockResponse("{}");
+		
+		restOperations.getResource(URI.create("http://example.com"), Entity.class);
+		
+		assertThat(request.getHeaders().getContentType(), is(nullValue()));
+	}
+	
+	@Test
+	public void getResourceClosesResponse() throws Exception {
+		ClientHttpRequest request = mockResponse("{}");
+		
+		restOperations.getResource(URI.create("http://example.com"), Entity.class);
+		
+		verify(request.execute()).close();
+	}
+	
+	@Test
+	public void getResourceOnNotFoundReturnsNull() throws Exception {
+		ClientHttpRequest request = mockResponse(NOT_FOUND, "");
 		
 		Resource<Entity> resource = restOperations.getResource(URI.create("http://example.com"), Entity.class);
 		
 		assertThat(resource, is(nullValue()));
+		verify(request.execute()).close();
+	}
+	
+	@Test
+	public void getResourceOnNotFoundDoesNotInvokeErrorHandler() throws Exception {
+		mockResponse(NOT_FOUND, "");
+		ResponseErrorHandler errorHandler = mock(ResponseErrorHandler.class);
+		when(restTemplate.getErrorHandler()).thenReturn(errorHandler);
+		
+		restOperations.getResource(URI.create("http://example.com"), Entity.class);
+		
+		verify(errorHandler, never()).hasError(any(ClientHttpResponse.class));
+	}
+	
+	@Test
+	public void getResourceOnOtherHttpClientErrorThrowsException() throws Exception {
+		mockResponse(I_AM_A_TEAPOT, "");
+		
+		thrown.expect(HttpClientErrorException.class);
+		
+		restOperations.getResource(URI.create("http://example.com"), Entity.class);
+	}
+	
+	@Test
+	public void getResourceOnNotFoundWithNotFoundCacheDoesNotRequestAgain() throws Exception {
+		restOperations = new RestOperations(restTemplate, objectMapper, SharedExecutor.getInstance(),
+			new NotFoundCache(Configuration.builder().setNotFoundCache(10, 1, TimeUnit.MINUTES).build()));
+		ClientHttpRequest request = mockResponse(NOT_FOUND, "");
+		
+		restOperations.getResource(URI.create("http://example.com"), Entity.class);
+		Resource<Entity> resource = restOperations.getResource(URI.create("http://example.com"), Entity.class);
+		
+		assertThat(resource, is(nullValue()));
+		verify(request).execute();
+	}
+	
+	@Test
+	public void getResourceAfterPutWithNotFoundCacheRequestsAgain() throws Exception {
+		restOperations = new RestOperations(restTemplate, objectMapper, SharedExecutor.getInstance(),
+			new NotFoundCache(Configuration.builder().setNotFoundCache(10, 1, TimeUnit.MINUTES).build()));
+		mockResponse(NOT_FOUND, "");
+		restOperations.getResource(URI.create("http://example.com"), Entity.class);
+		
+		restOperations.putObject(URI.create("http://example.com"), new Entity());
+		mockResponse("{\"field\":\"value\"}");
+		Resource<Entity> resource = restOperations.getResource(URI.create("http://example.com"), Entity.class);
+		
+		assertThat(resource.getContent().getField(), is("value"));
+	}
+	
+	@Test
+	public void getResourceWithCoalescingWhileRequestInFlightSharesRequest() throws Exception {
+		restOperations = new RestOperations(restTemplate, objectMapper, SharedExecutor.getInstance(), null,
+			new InFlightRequests());
+		final ClientHttpResponse response = createResponse(HttpStatus.OK, "{\"field\":\"value\"}", new HttpHeaders());
+		final ClientHttpRequest request = mockRequest(response);
+		final AtomicReference<Resource<Entity>> followerResource = new AtomicReference<>();
+		final Thread follower = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				followerResource.set(restOperations.getResource(URI.create("http://example.com"), Entity.class));
+			}
+		});
+		when(request.execute()).thenAnswer(new Answer<ClientHttpResponse>() {
+			@Override
+			public ClientHttpResponse answer(InvocationOnMock invocation) throws Throwable {
+				follower.start();
+				
+				while (follower.getState() != Thread.State.WAITING && follower.getState() != Thread.State.TERMINATED) {
+					Thread.sleep(1);
+				}
+				
+				return response;
+			}
+		});
+		
+		Resource<Entity> resource = restOperations.getResource(URI.create("http://example.com"), Entity.class);
+		follower.join();
+		
+		assertThat(resource.getContent().getField(), is("value"));
+		assertThat(followerResource.get().getContent().getField(), is("value"));
+		assertThat(followerResource.get().getContent(), is(not(sameInstance(resource.getContent()))));
+		verify(request).execute();
+	}
+	
+	@Test
+	public void getResourceWithCoalescingOnNotFoundReturnsNull() throws Exception {
+		restOperations = new RestOperations(restTemplate, objectMapper, SharedExecutor.getInstance(), null,
+			new InFlightRequests());
+		mockResponse(NOT_FOUND, "");
+		
+		Resource<Entity> resource = restOperations.getResource(URI.create("http://example.com"), Entity.class);
+		
+		assertThat(resource, is(nullValue()));
+	}
+	
+	@Test
+	public void getResourceWithResponseCacheWhenFreshDoesNotRequestAgain() throws Exception {
+		restOperations = new RestOperations(restTemplate, objectMapper, SharedExecutor.getInstance(), null, null,
+			new ResponseCache(Configuration.builder().setResponseCacheSize(1000).build()));
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("max-age=60");
+		ClientHttpRequest request = mockResponse(HttpStatus.OK, "{\"field\":\"value\"}", headers);
+		
+		Resource<Entity> resource1 = restOperations.getResource(URI.create("http://example.com"), Entity.class);
+		Resource<Entity> resource2 = restOperations.getResource(URI.create("http://example.com"), Entity.class);
+		
+		assertThat(resource2.getContent().getField(), is("value"));
+		assertThat(resource2.getContent(), is(not(sameInstance(resource1.getContent()))));
+		verify(request).execute();
+	}
+	
+	@Test
+	public void getResourceWithResponseCacheWhenStaleAndNotModifiedReturnsCachedResource() throws Exception {
+		restOperations = new RestOperations(restTemplate, objectMapper, SharedExecutor.getInstance(), null, null,
+			new ResponseCache(Configuration.builder().setResponseCacheSize(1000).build()));
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("no-cache");
+		headers.setETag("\"1\"");
+		mockResponse(HttpStatus.OK, "{\"field\":\"value\"}", headers);
+		restOperations.getResource(URI.create("http://example.com"), Entity.class);
+		ClientHttpRequest request = mockResponse(HttpStatus.NOT_MODIFIED, "");
+		
+		Resource<Entity> resource = restOperations.getResource(URI.create("http://example.com"), Entity.class);
+		
+		assertThat(resource.getContent().getField(), is("value"));
+		assertThat(request.getHeaders().getIfNoneMatch(), contains("\"1\""));
+	}
+	
+	@Test
+	public void getResourceWithResponseCacheAfterPutRequestsAgain() throws Exception {
+		restOperations = new RestOperations(restTemplate, objectMapper, SharedExecutor.getInstance(), null, null,
+			new ResponseCache(Configuration.builder().setResponseCacheSize(1000).build()));
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("max-age=60");
+		mockResponse(HttpStatus.OK, "{\"field\":\"value1\"}", headers);
+		restOperations.getResource(URI.create("http://example.com"), Entity.class);
+		
+		restOperations.putObject(URI.create("http://example.com"), new Entity());
+		mockResponse("{\"field\":\"value2\"}");
+		Resource<Entity> resource = restOperations.getResource(URI.create("http://example.com"), Entity.class);
+		
+		assertThat(resource.getContent().getField(), is("value2"));
 	}
 	
 	@Test
-	public void getResourceOnOtherHttpClientExceptionThrowsException() throws Exception {
-		HttpClientErrorException exception = new HttpClientErrorException(I_AM_A_TEAPOT);
-		when(restTemplate.getForObject(URI.create("http://example.com"), ObjectNode.class))
-			.thenThrow(exception);
+	public void getResourceWithResponseCacheWhenRequestHasAuthorizationRequestsAgain() throws Exception {
+		restOperations = new RestOperations(restTemplate, objectMapper, SharedExecutor.getInstance(), null, null,
+			new ResponseCache(Configuration.builder().setResponseCacheSize(1000).build()));
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("max-age=60");
+		ClientHttpRequest request = mockResponse(HttpStatus.OK, "{\"field\":\"value1\"}", headers);
+		request.getHeaders().set(HttpHeaders.AUTHORIZATION, "Bearer x");
+		restOperations.getResource(URI.create("http://example.com"), Entity.class);
 		
-		thrown.expect(is(exception));
+		mockResponse(HttpStatus.OK, "{\"field\":\"value2\"}", headers);
+		Resource<Entity> resource = restOperations.getResource(URI.create("http://example.com"), Entity.class);
 		
+		assertThat(resource.getContent().getField(), is("value2"));
+	}
+	
+	@Test
+	public void getResourceWithResponseCacheWhenVaryRequestsAgain() throws Exception {
+		restOperations = new RestOperations(restTemplate, objectMapper, SharedExecutor.getInstance(), null, null,
+			new ResponseCache(Configuration.builder().setResponseCacheSize(1000).build()));
+		HttpHeaders headers = new HttpHeaders();
+		headers.setCacheControl("max-age=60");
+		headers.set(HttpHeaders.VARY, "Accept-Language");
+		mockResponse(HttpStatus.OK, "{\"field\":\"value1\"}", headers);
 		restOperations.getResource(URI.create("http://example.com"), Entity.class);
+		
+		mockResponse(HttpStatus.OK, "{\"field\":\"value2\"}", headers);
+		Resource<Entity> resource = restOperations.getResource(URI.create("http://example.com"), Entity.class);
+		
+		assertThat(resource.getContent().getField(), is("value2"));
 	}
 	
 	@Test
 	public void getResourcesReturnsResources() throws Exception {
-		when(restTemplate.getForObject(URI.create("http://example.com"), ObjectNode.class))
-			.thenReturn(createObjectNode("{\"_embedded\":{\"entities\":[{\"field\":\"value\"}]}}"));
+		mockResponse("{\"_embedded\":{\"entities\":[{\"field\":\"value\"}]}}");
 		
 		Resources<Resource<Entity>> resources = restOperations.getResources(URI.create("http://example.com"),
 			Entity.class);
@@ -131,9 +371,8 @@ public class RestOperationsTest {
 	}
 	
 	@Test
-	public void getResourcesOnNotFoundHttpClientExceptionReturnsEmpty() throws Exception {
-		when(restTemplate.getForObject(URI.create("http://example.com"), ObjectNode.class))
-			.thenThrow(new HttpClientErrorException(NOT_FOUND));
+	public void getResourcesOnNotFoundReturnsEmpty() throws Exception {
+		mockResponse(NOT_FOUND, "");
 		
 		Resources<Resource<Entity>> resources = restOperations.getResources(URI.create("http://example.com"),
 			Entity.class);
@@ -142,40 +381,175 @@ public class RestOperationsTest {
 	}
 	
 	@Test
-	public void getResourcesOnOtherHttpClientExceptionThrowsException() throws Exception {
-		HttpClientErrorException exception = new HttpClientErrorException(HttpStatus.I_AM_A_TEAPOT);
-		when(restTemplate.getForObject(URI.create("http://example.com"), ObjectNode.class))
-			.thenThrow(exception);
-
-		thrown.expect(is(exception));
+	public void getResourcesOnOtherHttpClientErrorThrowsException() throws Exception {
+		mockResponse(I_AM_A_TEAPOT, "");
+		
+		thrown.expect(HttpClientErrorException.class);
 		
 		restOperations.getResources(URI.create("http://example.com"), Entity.class);
 	}
 	
 	@Test
-	public void postObjectReturnsURI() {
-		Entity entity = new Entity();
-		when(restTemplate.postForLocation(URI.create("http://example.com"), entity))
-			.thenReturn(URI.create("http://example.com/1"));
+	public void getPagedResourcesOnNotFoundReturnsEmpty() throws Exception {
+		mockResponse(NOT_FOUND, "");
+		
+		PagedResources<Resource<Entity>> resources = restOperations.getPagedResources(
+			URI.create("http://example.com"), Entity.class);
+		
+		assertThat(resources.getContent(), is(empty()));
+	}
+	
+	@Test
+	public void streamResourcesReturnsResources() throws Exception {
+		mockResponse(HttpStatus.OK, "{\"_embedded\":{\"entities\":[{\"field\":\"x\"},{\"field\":\"y\"}]}}");
+		
+		List<String> fields = restOperations.streamResources(URI.create("http://example.com"), Entity.class)
+			.map(resource -> resource.getContent().getField())
+			.collect(Collectors.toList());
+		
+		assertThat(fields, contains("x", "y"));
+	}
+	
+	@Test
+	public void streamResourcesAcceptsHalJson() throws Exception {
+		ClientHttpRequest request = mockResponse(HttpStatus.OK, "{}");
+		
+		restOperations.streamResources(URI.create("http://example.com"), Entity.class);
+		
+		assertThat(request.getHeaders().getAccept(), contains(MediaTypes.HAL_JSON));
+	}
+	
+	@Test
+	public void streamResourcesDoesNotReadBeforeConsumed() throws Exception {
+		ClientHttpRequest request = mockResponse(HttpStatus.OK, "{}");
+		
+		restOperations.streamResources(URI.create("http://example.com"), Entity.class);
+		
+		verify(request.execute(), never()).close();
+	}
+	
+	@Test
+	public void streamResourcesOnCloseClosesResponse() throws Exception {
+		ClientHttpRequest request = mockResponse(HttpStatus.OK, "{\"_embedded\":{\"entities\":[{},{}]}}");
+		
+		try (Stream<Resource<Entity>> stream = restOperations.streamResources(URI.create("http://example.com"),
+			Entity.class)) {
+			stream.findFirst();
+		}
+		
+		verify(request.execute()).close();
+	}
+	
+	@Test
+	public void streamResourcesOnNotFoundReturnsEmpty() throws Exception {
+		ClientHttpRequest request = mockResponse(NOT_FOUND, "");
+		
+		Stream<Resource<Entity>> stream = restOperations.streamResources(URI.create("http://example.com"),
+			Entity.class);
 		
-		URI id = restOperations.postObject(URI.create("http://example.com"), entity);
+		assertThat(stream.count(), is(0L));
+		verify(request.execute()).close();
+	}
+	
+	@Test
+	public void streamResourcesOnOtherHttpClientErrorThrowsException() throws Exception {
+		mockResponse(I_AM_A_TEAPOT, "");
+		
+		thrown.expect(HttpClientErrorException.class);
+		
+		restOperations.streamResources(URI.create("http://example.com"), Entity.class);
+	}
+	
+	@Test
+	public void postObjectReturnsURI() throws Exception {
+		doAnswer(new Answer<Object>() {
+			
+			@Override
+			public Object answer(InvocationOnMock invocation) throws Throwable {
+				HttpHeaders headers = new HttpHeaders();
+				headers.setLocation(URI.create("http://example.com/1"));
+				ClientHttpResponse response = mock(ClientHttpResponse.class);
+				when(response.getHeaders()).thenReturn(headers);
+				
+				return invocation.getArgumentAt(3, ResponseExtractor.class).extractData(response);
+			}
+		}).when(restTemplate).execute(eq(URI.create("http://example.com")), eq(HttpMethod.POST),
+			any(RequestCallback.class), any(ResponseExtractor.class));
+		
+		URI id = restOperations.postObject(URI.create("http://example.com"), new Entity());
 		
 		assertThat(id, is(URI.create("http://example.com/1")));
 	}
 	
 	@Test
-	public void putObjectPutsObject() {
-		Entity entity = new Entity();
-		restOperations.putObject(URI.create("http://example.com/1"), entity);
+	public void postObjectWritesObject() throws Exception {
+		restOperations.postObject(URI.create("http://example.com"), new Entity());
+		
+		ArgumentCaptor<RequestCallback> callback = ArgumentCaptor.forClass(RequestCallback.class);
+		verify(restTemplate).execute(eq(URI.create("http://example.com")), eq(HttpMethod.POST), callback.capture(),
+			any(ResponseExtractor.class));
+		
+		assertThat(writeRequest(callback.getValue()), is("{\"field\":null}"));
+	}
+	
+	@Test
+	public void postObjectSendsHalJson() throws Exception {
+		restOperations.postObject(URI.create("http://example.com"), new Entity());
 		
-		verify(restTemplate).put(URI.create("http://example.com/1"), entity);
+		ArgumentCaptor<RequestCallback> callback = ArgumentCaptor.forClass(RequestCallback.class);
+		verify(restTemplate).execute(eq(URI.create("http://example.com")), eq(HttpMethod.POST), callback.capture(),
+			any(ResponseExtractor.class));
+		
+		ClientHttpRequest request = mock(ClientHttpRequest.class);
+		when(request.getHeaders()).thenReturn(new HttpHeaders());
+		when(request.getBody()).thenReturn(new ByteArrayOutputStream());
+		callback.getValue().doWithRequest(request);
+		
+		assertThat(request.getHeaders().getContentType(), is(MediaTypes.HAL_JSON));
+		assertThat(request.getHeaders().getAccept(), contains(MediaTypes.HAL_JSON));
+	}
+	
+	@Test
+	public void putObjectPutsObject() throws Exception {
+		restOperations.putObject(URI.create("http://example.com/1"), new Entity());
+		
+		ArgumentCaptor<RequestCallback> callback = ArgumentCaptor.forClass(RequestCallback.class);
+		verify(restTemplate).execute(eq(URI.create("http://example.com/1")), eq(HttpMethod.PUT), callback.capture(),
+			isNull(ResponseExtractor.class));
+		
+		assertThat(writeRequest(callback.getValue()), is("{\"field\":null}"));
+	}
+	
+	@Test
+	public void readResourceReturnsResource() throws Exception {
+		Resource<Entity> resource = restOperations.readResource(objectMapper.readTree("{\"field\":\"value\"}"),
+			Entity.class);
+		
+		assertThat(resource.getContent().getField(), is("value"));
 	}
 	
 	@Test
 	public void deleteResourceDeletesResource() {
 		restOperations.deleteResource(URI.create("http://example.com/1"));
 		
-		verify(restTemplate).delete(URI.create("http://example.com/1"));
+		verify(restTemplate).execute(eq(URI.create("http://example.com/1")), eq(HttpMethod.DELETE),
+			any(RequestCallback.class), isNull(ResponseExtractor.class));
+	}
+	
+	@Test
+	public void deleteResourceAcceptsHalJsonWithoutContentType() throws Exception {
+		restOperations.deleteResource(URI.create("http://example.com/1"));
+		
+		ArgumentCaptor<RequestCallback> callback = ArgumentCaptor.forClass(RequestCallback.class);
+		verify(restTemplate).execute(eq(URI.create("http://example.com/1")), eq(HttpMethod.DELETE),
+			callback.capture(), isNull(ResponseExtractor.class));
+		
+		ClientHttpRequest request = mock(ClientHttpRequest.class);
+		when(request.getHeaders()).thenReturn(new HttpHeaders());
+		callback.getValue().doWithRequest(request);
+		
+		assertThat(request.getHeaders().getAccept(), contains(MediaTypes.HAL_JSON));
+		assertThat(request.getHeaders().getContentType(), is(nullValue()));
 	}
 
 	private static ResourceDeserializer declaredTypeResourceDeserializer() {
@@ -193,7 +567,50 @@ public class RestOperationsTest {
 		return new ResourceDeserializer(Object.class, declaredTypeTypeResolver, Configuration.build());
 	}
 	
-	private ObjectNode createObjectNode(String json) throws IOException, JsonParseException, JsonMappingException {
-		return objectMapper.readValue(json, ObjectNode.class);
+	private static String writeRequest(RequestCallback callback) throws Exception {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		ClientHttpRequest request = mock(ClientHttpRequest.class);
+		when(request.getHeaders()).thenReturn(new HttpHeaders());
+		when(request.getBody()).thenReturn(body);
+		
+		callback.doWithRequest(request);
+		
+		return new String(body.toByteArray(), StandardCharsets.UTF_8);
+	}
+	
+	private ClientHttpRequest mockResponse(HttpStatus status, String json) throws Exception {
+		return mockResponse(status, json, new HttpHeaders());
+	}
+	
+	private ClientHttpRequest mockResponse(HttpStatus status, String json, HttpHeaders headers) throws Exception {
+		return mockRequest(createResponse(status, json, headers));
+	}
+	
+	private ClientHttpRequest mockRequest(ClientHttpResponse response) throws Exception {
+		ClientHttpRequest request = mock(ClientHttpRequest.class);
+		when(request.getHeaders()).thenReturn(new HttpHeaders());
+		when(request.execute()).thenReturn(response);
+		
+		ClientHttpRequestFactory requestFactory = mock(ClientHttpRequestFactory.class);
+		when(requestFactory.createRequest(URI.create("http://example.com"), HttpMethod.GET)).thenReturn(request);
+		
+		when(restTemplate.getRequestFactory()).thenReturn(requestFactory);
+		when(restTemplate.getErrorHandler()).thenReturn(new DefaultResponseErrorHandler());
+		
+		return request;
+	}
+	
+	private ClientHttpRequest mockResponse(String json) throws Exception {
+		return mockResponse(HttpStatus.OK, json);
+	}
+	
+	private static ClientHttpResponse createResponse(HttpStatus status, String json, HttpHeaders headers)
+		throws Exception {
+		ClientHttpResponse response = mock(ClientHttpResponse.class);
+		when(response.getStatusCode()).thenReturn(status);
+		when(response.getRawStatusCode()).thenReturn(status.value());
+		when(response.getHeaders()).thenReturn(headers);
+		when(response.getBody()).thenReturn(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+		return response;
 	}
 }
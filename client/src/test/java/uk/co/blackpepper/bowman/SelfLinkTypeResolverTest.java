@@ -0,0 +1,119 @@
+package uk.co.blackpepper.bowman;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Links;
+
+import uk.co.blackpepper.bowman.annotation.RemoteResource;
+
+import static org.junit.Assert.assertThat;
+
+public class SelfLinkTypeResolverTest {
+
+	public static class DeclaredType {
+		// no members
+	}
+	
+	@RemoteResource("/things")
+	public static class Things extends DeclaredType {
+		// no members
+	}
+	
+	@RemoteResource("/things/special")
+	public static class SpecialThings extends DeclaredType {
+		// no members
+	}
+	
+	@RemoteResource("/thingsmore")
+	public static class MoreThings extends DeclaredType {
+		// no members
+	}
+	
+	public static class Unannotated extends DeclaredType {
+		// no members
+	}
+	
+	@Test
+	public void resolveTypeReturnsMatchingSubtype() {
+		SelfLinkTypeResolver resolver = new SelfLinkTypeResolver(new Class<?>[] {Things.class, MoreThings.class});
+		
+		Class<?> type = resolveType(resolver, "http://x.com/thingsmore/1", "http://x.com");
+		
+		assertThat(type, Matchers.<Class<?>>equalTo(MoreThings.class));
+	}
+	
+	@Test
+	public void resolveTypeWithSegmentPrefixReturnsDeclaredType() {
+		SelfLinkTypeResolver resolver = new SelfLinkTypeResolver(new Class<?>[] {Things.class});
+		
+		Class<?> type = resolveType(resolver, "http://x.com/thingsmore/1", "http://x.com");
+		
+		assertThat(type, Matchers.<Class<?>>equalTo(DeclaredType.class));
+	}
+	
+	@Test
+	public void resolveTypeWithCollectionUriReturnsDeclaredType() {
+		SelfLinkTypeResolver resolver = new SelfLinkTypeResolver(new Class<?>[] {Things.class});
+		
+		Class<?> type = resolveType(resolver, "http://x.com/things", "http://x.com");
+		
+		assertThat(type, Matchers.<Class<?>>equalTo(DeclaredType.class));
+	}
+	
+	@Test
+	public void resolveTypeWithNestedMatchesReturnsFirstDeclaredSubtype() {
+		SelfLinkTypeResolver resolver = new SelfLinkTypeResolver(new Class<?>[] {SpecialThings.class,
+			Things.class});
+		
+		Class<?> type = resolveType(resolver, "http://x.com/things/special/1", "http://x.com");
+		
+		assertThat(type, Matchers.<Class<?>>equalTo(SpecialThings.class));
+	}
+	
+	@Test
+	public void resolveTypeWithNestedMatchesReturnsFirstDeclaredSupertype() {
+		SelfLinkTypeResolver resolver = new SelfLinkTypeResolver(new Class<?>[] {Things.class,
+			SpecialThings.class});
+		
+		Class<?> type = resolveType(resolver, "http://x.com/things/special/1", "http://x.com");
+		
+		assertThat(type, Matchers.<Class<?>>equalTo(Things.class));
+	}
+	
+	@Test
+	public void resolveTypeSkipsUnannotatedSubtypes() {
+		SelfLinkTypeResolver resolver = new SelfLinkTypeResolver(new Class<?>[] {Unannotated.class,
+			Things.class});
+		
+		Class<?> type = resolveType(resolver, "http://x.com/things/1", "http://x.com");
+		
+		assertThat(type, Matchers.<Class<?>>equalTo(Things.class));
+	}
+	
+	@Test
+	public void resolveTypeWithBaseUriPathReturnsMatchingSubtype() {
+		SelfLinkTypeResolver resolver = new SelfLinkTypeResolver(new Class<?>[] {Things.class});
+		
+		Class<?> type = resolveType(resolver, "/things/1", "http://x.com/api");
+		
+		assertThat(type, Matchers.<Class<?>>equalTo(Things.class));
+	}
+	
+	@Test
+	public void resolveTypeWithDifferentBaseUrisReturnsSubtypeForEach() {
+		SelfLinkTypeResolver resolver = new SelfLinkTypeResolver(new Class<?>[] {Things.class});
+		
+		assertThat(resolveType(resolver, "http://x.com/things/1", "http://x.com"),
+			Matchers.<Class<?>>equalTo(Things.class));
+		assertThat(resolveType(resolver, "http://x.com/things/1", "http://y.com"),
+			Matchers.<Class<?>>equalTo(DeclaredType.class));
+		assertThat(resolveType(resolver, "http://y.com/things/1", "http://y.com"),
+			Matchers.<Class<?>>equalTo(Things.class));
+	}
+	
+	private static Class<?> resolveType(SelfLinkTypeResolver resolver, String selfHref, String baseUri) {
+		return resolver.resolveType(DeclaredType.class, new Links(new Link(selfHref, Link.REL_SELF)),
+			Configuration.builder().setBaseUri(baseUri).build());
+	}
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
+import org.springframework.hateoas.Resources;
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import uk.co.blackpepper.bowman.annotation.LinkedResource;
+import uk.co.blackpepper.bowman.annotation.RemoteResource;
+import uk.co.blackpepper.bowman.annotation.ResourceId;
+
+import static java.util.Arrays.asList;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SessionClientProxyFactoryTest {
+	
+	@RemoteResource("/parents")
+	public static class Parent {
+		
+		private URI id;
+		
+		private List<Child> children = new ArrayList<>();
+		
+		@ResourceId
+		public URI getId() {
+			return id;
+		}
+		
+		@LinkedResource
+		public List<Child> getChildren() {
+			return children;
+		}
+	}
+	
+	@RemoteResource("/children")
+	public static class Child {
+		
+		private URI id;
+		
+		private Parent parent;
+		
+		@ResourceId
+		public URI getId() {
+			return id;
+		}
+		
+		@LinkedResource
+		public Parent getParent() {
+			return parent;
+		}
+	}
+	
+	@RemoteResource("/families")
+	public static class Family {
+		
+		private List<Child> children = new ArrayList<>();
+		
+		@JsonDeserialize(contentUsing = InlineAssociationDeserializer.class)
+		public List<Child> getChildren() {
+			return children;
+		}
+		
+		public void setChildren(List<Child> children) {
+			this.children = children;
+		}
+	}
+	
+	private SessionClientProxyFactory proxyFactory;
+	
+	private RestOperations restOperations;
+	
+	@Before
+	public void setup() {
+		proxyFactory = new SessionClientProxyFactory(new JavassistClientProxyFactory());
+		
+		restOperations = mock(RestOperations.class);
+		when(restOperations.getExecutor()).thenReturn(SharedExecutor.getInstance());
+	}
+	
+	@Test
+	public void createWithSameSelfLinkReturnsSameProxy() {
+		Parent proxy1 = proxyFactory.create(parentResource(), restOperations);
+		Parent proxy2 = proxyFactory.create(parentResource(), restOperations);
+		
+		assertThat(proxy2, is(sameInstance(proxy1)));
+	}
+	
+	@Test
+	public void createWithOtherSelfLinkReturnsOtherProxy() {
+		Parent proxy1 = proxyFactory.create(parentResource(), restOperations);
+		Parent proxy2 = proxyFactory.create(new Resource<>(new Parent(), new Link("http://www.example.com/2",
+			Link.REL_SELF)), restOperations);
+		
+		assertThat(proxy2, is(not(sameInstance(proxy1))));
+	}
+	
+	@Test
+	public void createWithoutSelfLinkReturnsNewProxy() {
+		Parent proxy1 = proxyFactory.create(new Resource<>(new Parent()), restOperations);
+		Parent proxy2 = proxyFactory.create(new Resource<>(new Parent()), restOperations);
+		
+		assertThat(proxy2, is(not(sameInstance(proxy1))));
+	}
+	
+	@Test
+	public void createWithUriReturnsTrackedProxy() {
+		Parent proxy = proxyFactory.create(parentResource(), restOperations);
+		
+		Parent reference = proxyFactory.create(URI.create("http://www.example.com/1"), Parent.class,
+			restOperations);
+		
+		assertThat(reference, is(sameInstance(proxy)));
+	}
+	
+	@Test
+	public void findReturnsTrackedProxy() {
+		Parent proxy = proxyFactory.create(parentResource(), restOperations);
+		
+		assertThat(proxyFactory.find(URI.create("http://www.example.com/1"), Parent.class), is(sameInstance(proxy)));
+	}
+	
+	@Test
+	public void findWithOtherEntityTypeReturnsNull() {
+		proxyFactory.create(parentResource(), restOperations);
+		
+		assertThat(proxyFactory.find(URI.create("http://www.example.com/1"), Child.class), is(nullValue()));
+	}
+	
+	@Test
+	public void findAfterForgetReturnsNull() {
+		proxyFactory.create(parentResource(), restOperations);
+		
+		proxyFactory.forget(URI.create("http://www.example.com/1"));
+		
+		assertThat(proxyFactory.find(URI.create("http://www.example.com/1"), Parent.class), is(nullValue()));
+	}
+	
+	@Test
+	public void findAfterClearReturnsNull() {
+		proxyFactory.create(parentResource(), restOperations);
+		
+		proxyFactory.clear();
+		
+		assertThat(proxyFactory.find(URI.create("http://www.example.com/1"), Parent.class), is(nullValue()));
+	}
+	
+	@Test
+	public void invokeBackReferenceWithTrackedLinkReturnsTrackedProxyWithoutRequest() {
+		Resource<Child> childResource = new Resource<>(new Child(),
+			new Link("http://www.example.com/children/1", Link.REL_SELF),
+			new Link("http://www.example.com/1", "parent"));
+		when(restOperations.getResources(URI.create("http://www.example.com/1/children"), Child.class))
+			.thenReturn(new Resources<>(asList(childResource)));
+		Parent parent = proxyFactory.create(parentResource(), restOperations);
+		
+		Child child = parent.getChildren().get(0);
+		
+		assertThat(child.getParent(), is(sameInstance(parent)));
+		verify(restOperations, never()).getResource(any(URI.class), any(Class.class));
+	}
+	
+	@Test
+	public void invokeBackReferenceWithAssociationLinkReturnsTrackedProxy() {
+		Resource<Child> childResource = new Resource<>(new Child(),
+			new Link("http://www.example.com/children/1", Link.REL_SELF),
+			new Link("http://www.example.com/children/1/parent", "parent"));
+		when(restOperations.getResources(URI.create("http://www.example.com/1/children"), Child.class))
+			.thenReturn(new Resources<>(asList(childResource)));
+		when(restOperations.getResource(URI.create("http://www.example.com/children/1/parent"), Parent.class))
+			.thenReturn(parentResource());
+		Parent parent = proxyFactory.create(parentResource(), restOperations);
+		
+		Child child = parent.getChildren().get(0);
+		
+		assertThat(child.getParent(), is(sameInstance(parent)));
+	}
+	
+	@Test
+	public void readResourceWithInlineAssociationReturnsTrackedProxy() throws Exception {
+		RestOperations sessionOperations = new RestOperationsFactory(Configuration.build(),
+			new JavassistClientProxyFactory(), mock(ClientHttpRequestFactory.class)).create()
+			.withProxyFactory(proxyFactory);
+		String json = "{\"children\":[{\"_links\":{\"self\":{\"href\":\"http://www.example.com/children/1\"}}}],"
+			+ "\"_links\":{\"self\":{\"href\":\"http://www.example.com/families/1\"}}}";
+		
+		Resource<Family> family1 = sessionOperations.readResource(
+			sessionOperations.getObjectMapper().readTree(json), Family.class);
+		Resource<Family> family2 = sessionOperations.readResource(
+			sessionOperations.getObjectMapper().readTree(json), Family.class);
+		
+		Child child = family1.getContent().getChildren().get(0);
+		assertThat(proxyFactory.find(URI.create("http://www.example.com/children/1"), Child.class),
+			is(sameInstance(child)));
+		assertThat(family2.getContent().getChildren().get(0), is(sameInstance(child)));
+	}
+	
+	private static Resource<Parent> parentResource() {
+		return new Resource<>(new Parent(), new Link("http://www.example.com/1", Link.REL_SELF),
+			new Link("http://www.example.com/1/children", "children"));
+	}
+}
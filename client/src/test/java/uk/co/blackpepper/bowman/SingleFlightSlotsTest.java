@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class SingleFlightSlotsTest {
+	
+	private static class CountingLoader implements Callable<Object> {
+		
+		private final AtomicInteger count = new AtomicInteger();
+		
+		private final Object result;
+		
+		CountingLoader(Object result) {
+			this.result = result;
+		}
+		
+		@Override
+		public Object call() {
+			count.incrementAndGet();
+			return result;
+		}
+		
+		int getCount() {
+			return count.get();
+		}
+	}
+	
+	private SingleFlightSlots slots;
+	
+	@Before
+	public void setup() {
+		slots = new SingleFlightSlots(2);
+	}
+	
+	@Test
+	public void getReturnsLoadedValue() throws Exception {
+		assertThat(slots.get(0, new CountingLoader("x")), is((Object) "x"));
+	}
+	
+	@Test
+	public void getLoadsValueOnce() throws Exception {
+		CountingLoader loader = new CountingLoader("x");
+		
+		slots.get(0, loader);
+		slots.get(0, loader);
+		
+		assertThat(loader.getCount(), is(1));
+	}
+	
+	@Test
+	public void getLoadsNullValueAgain() throws Exception {
+		CountingLoader loader = new CountingLoader(null);
+		
+		slots.get(0, loader);
+		slots.get(0, loader);
+		
+		assertThat(loader.getCount(), is(2));
+	}
+	
+	@Test
+	public void getReturnsSetValue() throws Exception {
+		CountingLoader loader = new CountingLoader("x");
+		slots.set(1, "y");
+		
+		assertThat(slots.get(1, loader), is((Object) "y"));
+		assertThat(loader.getCount(), is(0));
+	}
+	
+	@Test
+	public void peekWhenNotLoadedReturnsNull() {
+		assertThat(slots.peek(0), is(nullValue()));
+	}
+	
+	@Test
+	public void getWhenLoaderFailsThrowsExceptionAndLoadsAgain() throws Exception {
+		final RuntimeException exception = new IllegalStateException("x");
+		RuntimeException thrown = null;
+		
+		try {
+			slots.get(0, new Callable<Object>() {
+				@Override
+				public Object call() {
+					throw exception;
+				}
+			});
+		}
+		catch (IllegalStateException caught) {
+			thrown = caught;
+		}
+		
+		assertThat(thrown, is((Object) exception));
+		assertThat(slots.get(0, new CountingLoader("x")), is((Object) "x"));
+	}
+}
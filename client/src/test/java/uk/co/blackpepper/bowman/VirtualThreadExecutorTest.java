@@ -0,0 +1,57 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+public class VirtualThreadExecutorTest {
+
+	private ExpectedException thrown = ExpectedException.none();
+
+	@Rule
+	public ExpectedException getThrown() {
+		return thrown;
+	}
+
+	@Test
+	public void createWhenSupportedRunsTasksOnVirtualThreads() throws Exception {
+		assumeTrue(VirtualThreadExecutor.isSupported());
+		CompletableFuture<Thread> thread = new CompletableFuture<>();
+
+		VirtualThreadExecutor.create().execute(() -> thread.complete(Thread.currentThread()));
+
+		assertThat(Thread.class.getMethod("isVirtual").invoke(thread.get(5, TimeUnit.SECONDS)), is((Object) true));
+	}
+
+	@Test
+	public void createWhenUnsupportedThrowsException() {
+		assumeFalse(VirtualThreadExecutor.isSupported());
+
+		thrown.expect(IllegalStateException.class);
+
+		VirtualThreadExecutor.create();
+	}
+}
@@ -0,0 +1,457 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+
+import uk.co.blackpepper.bowman.GeneratedProxySupport;
+import uk.co.blackpepper.bowman.annotation.LinkedResource;
+import uk.co.blackpepper.bowman.annotation.ResourceId;
+
+/**
+ * Annotation processor generating a proxy class at compile time for each class annotated with
+ * {@link uk.co.blackpepper.bowman.annotation.RemoteResource}.
+ *
+ * <p>The generated classes are used by {@link uk.co.blackpepper.bowman.Client}s in place of proxy
+ * classes generated at runtime. Classes that cannot be subclassed from their own package, such as
+ * private, final or generic classes, are skipped and continue to be proxied at runtime.
+ *
+ * <p>The generated proxies return the resource id and call the entity's property accessors directly, so that the
+ * JIT compiler can inline them, and dispatch only linked resource accessors and methods they cannot call on the
+ * entity to the proxy's handler.
+ *
+ * @author Ryan Pickett
+ *
+ */
+@SupportedAnnotationTypes(ClientProxyProcessor.REMOTE_RESOURCE_ANNOTATION)
+public class ClientProxyProcessor extends AbstractProcessor {
+
+	static final String REMOTE_RESOURCE_ANNOTATION = "uk.co.blackpepper.bowman.annotation.RemoteResource";
+
+	private static final String SUPPORT_CLASS = "uk.co.blackpepper.bowman.GeneratedProxySupport";
+
+	private static final String PROXY_INTERFACE = "uk.co.blackpepper.bowman.GeneratedProxy";
+
+	/**
+	 * The ways a generated proxy method reaches the entity.
+	 */
+	private enum AccessorKind {
+		RESOURCE_ID,
+		LINKED_RESOURCE,
+		SETTER,
+		PROPERTY,
+		DISPATCHED
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (TypeElement annotation : annotations) {
+			for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+				if (element.getKind() == ElementKind.CLASS) {
+					process((TypeElement) element);
+				}
+			}
+		}
+
+		return false;
+	}
+
+	private void process(TypeElement entityType) {
+		String reason = getUnsupportedReason(entityType);
+
+		if (reason != null) {
+			processingEnv.getMessager().printMessage(Kind.NOTE,
+				String.format("Not generating proxy for %s: %s", entityType.getQualifiedName(), reason), entityType);
+			return;
+		}
+
+		String proxyClassName = GeneratedProxySupport.getProxyClassName(
+			processingEnv.getElementUtils().getBinaryName(entityType).toString());
+
+		try (PrintWriter writer = new PrintWriter(processingEnv.getFiler()
+			.createSourceFile(proxyClassName, entityType).openWriter())) {
+
+			new ProxySourceWriter(writer, entityType, proxyClassName, getProxiedMethods(entityType)).write();
+		}
+		catch (IOException exception) {
+			processingEnv.getMessager().printMessage(Kind.ERROR,
+				String.format("Could not generate proxy for %s: %s", entityType.getQualifiedName(), exception),
+				entityType);
+		}
+	}
+
+	private String getUnsupportedReason(TypeElement entityType) {
+		Set<Modifier> modifiers = entityType.getModifiers();
+
+		if (modifiers.contains(Modifier.FINAL) || modifiers.contains(Modifier.ABSTRACT)) {
+			return "class is final or abstract";
+		}
+
+		if (!entityType.getTypeParameters().isEmpty()) {
+			return "class is generic";
+		}
+
+		Element element = entityType;
+
+		while (element.getKind() != ElementKind.PACKAGE) {
+			if (element.getModifiers().contains(Modifier.PRIVATE)) {
+				return "class is not accessible from its package";
+			}
+
+			if (element.getEnclosingElement().getKind() != ElementKind.PACKAGE
+				&& !element.getModifiers().contains(Modifier.STATIC)) {
+				return "class is not a top-level or static nested class";
+			}
+
+			element = element.getEnclosingElement();
+		}
+
+		if (!hasAccessibleDefaultConstructor(entityType)) {
+			return "class has no accessible no-argument constructor";
+		}
+
+		for (ExecutableElement method : getProxiedMethods(entityType)) {
+			if (!method.getTypeParameters().isEmpty()) {
+				return String.format("method %s is generic", method.getSimpleName());
+			}
+		}
+
+		return null;
+	}
+
+	private static boolean hasAccessibleDefaultConstructor(TypeElement entityType) {
+		for (ExecutableElement constructor : ElementFilter.constructorsIn(entityType.getEnclosedElements())) {
+			if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private List<ExecutableElement> getProxiedMethods(TypeElement entityType) {
+		List<ExecutableElement> methods = new ArrayList<>();
+		PackageElement entityPackage = processingEnv.getElementUtils().getPackageOf(entityType);
+
+		for (ExecutableElement method : ElementFilter.methodsIn(
+			processingEnv.getElementUtils().getAllMembers(entityType))) {
+
+			if (isProxied(method, entityPackage)) {
+				methods.add(method);
+			}
+		}
+
+		return methods;
+	}
+
+	private boolean isProxied(ExecutableElement method, PackageElement entityPackage) {
+		Set<Modifier> modifiers = method.getModifiers();
+		TypeElement declaringType = (TypeElement) method.getEnclosingElement();
+		String name = method.getSimpleName().toString();
+
+		if (declaringType.getQualifiedName().contentEquals(Object.class.getName())
+			|| modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL)
+			|| modifiers.contains(Modifier.PRIVATE)) {
+			return false;
+		}
+
+		if (!modifiers.contains(Modifier.PUBLIC) && !modifiers.contains(Modifier.PROTECTED)
+			&& !processingEnv.getElementUtils().getPackageOf(declaringType).equals(entityPackage)) {
+			return false;
+		}
+
+		return name.startsWith("get") || name.startsWith("is") || name.startsWith("set");
+	}
+
+	/**
+	 * Writes the source of a single proxy class.
+	 */
+	private final class ProxySourceWriter {
+
+		private final PrintWriter writer;
+
+		private final TypeElement entityType;
+
+		private final String proxyClassName;
+
+		private final List<ExecutableElement> methods;
+
+		ProxySourceWriter(PrintWriter writer, TypeElement entityType, String proxyClassName,
+			List<ExecutableElement> methods) {
+			this.writer = writer;
+			this.entityType = entityType;
+			this.proxyClassName = proxyClassName;
+			this.methods = methods;
+		}
+
+		void write() {
+			int packageEnd = proxyClassName.lastIndexOf('.');
+			String proxySimpleName = proxyClassName.substring(packageEnd + 1);
+			String entityName = entityType.getQualifiedName().toString();
+
+			if (packageEnd >= 0) {
+				writer.printf("package %s;%n%n", proxyClassName.substring(0, packageEnd));
+			}
+
+			writer.printf("@SuppressWarnings(\"unchecked\")%n");
+			writer.printf("public class %s extends %s implements %s {%n", proxySimpleName, entityName,
+				PROXY_INTERFACE);
+
+			for (int index = 0; index < methods.size(); index++) {
+				writeAccessor(methods.get(index), index, entityName, proxySimpleName);
+			}
+
+			writer.printf("%n\tprivate javassist.util.proxy.MethodHandler handler;%n%n");
+
+			writer.printf("\t@Override%n");
+			writer.printf("\tpublic void setHandler(javassist.util.proxy.MethodHandler handler) {%n");
+			writer.printf("\t\tthis.handler = handler;%n");
+			writer.printf("\t}%n%n");
+
+			writer.printf("\t@Override%n");
+			writer.printf("\tpublic javassist.util.proxy.MethodHandler getHandler() {%n");
+			writer.printf("\t\treturn handler;%n");
+			writer.printf("\t}%n");
+
+			for (int index = 0; index < methods.size(); index++) {
+				writeMethod(methods.get(index), index, entityName);
+			}
+
+			writer.printf("}%n");
+		}
+
+		private void writeAccessor(ExecutableElement method, int index, String entityName, String proxySimpleName) {
+			AccessorKind kind = getAccessorKind(method);
+
+			if (kind == AccessorKind.RESOURCE_ID || kind == AccessorKind.PROPERTY) {
+				return;
+			}
+
+			String proceed = kind == AccessorKind.SETTER ? "null" : String.format("%s.findMethod(%s.class, "
+				+ "\"bowman$proceed%d\"%s)", SUPPORT_CLASS, proxySimpleName, index, getParameterClasses(method));
+
+			writer.printf("%n\tprivate static final %s.Accessor ACCESSOR_%d = %s.getAccessor(%s.class,%n",
+				SUPPORT_CLASS, index, SUPPORT_CLASS, entityName);
+			writer.printf("\t\t%s.findMethod(%s.class, \"%s\"%s),%n", SUPPORT_CLASS, entityName,
+				method.getSimpleName(), getParameterClasses(method));
+			writer.printf("\t\t%s);%n", proceed);
+		}
+
+		private void writeMethod(ExecutableElement method, int index, String entityName) {
+			ExecutableType methodType = (ExecutableType) processingEnv.getTypeUtils()
+				.asMemberOf((DeclaredType) entityType.asType(), method);
+
+			AccessorKind kind = getAccessorKind(method);
+			TypeMirror returnType = methodType.getReturnType();
+			boolean isVoid = returnType.getKind() == TypeKind.VOID;
+			String visibility = method.getModifiers().contains(Modifier.PUBLIC) ? "public "
+				: method.getModifiers().contains(Modifier.PROTECTED) ? "protected " : "";
+			String parameters = getParameters(methodType);
+			String arguments = getArguments(methodType);
+			String throwsClause = getThrowsClause(methodType);
+			String superCall = String.format("super.%s(%s)", method.getSimpleName(), arguments);
+
+			writer.printf("%n\t@Override%n");
+			writer.printf("\t%s%s %s(%s)%s {%n", visibility, returnType, method.getSimpleName(), parameters,
+				throwsClause);
+			writer.printf("\t\tif (handler == null) {%n");
+			writer.printf(isVoid ? "\t\t\t%s;%n\t\t\treturn;%n" : "\t\t\treturn %s;%n", superCall);
+			writer.printf("\t\t}%n%n");
+
+			writeBody(method, methodType, kind, index, entityName);
+
+			writer.printf("\t}%n");
+
+			if (kind == AccessorKind.LINKED_RESOURCE || kind == AccessorKind.DISPATCHED) {
+				writer.printf("%n\tpublic %s bowman$proceed%d(%s)%s {%n", returnType, index, parameters,
+					throwsClause);
+				writer.printf(isVoid ? "\t\t%s;%n" : "\t\treturn %s;%n", superCall);
+				writer.printf("\t}%n");
+			}
+		}
+
+		private void writeBody(ExecutableElement method, ExecutableType methodType, AccessorKind kind, int index,
+			String entityName) {
+
+			TypeMirror returnType = methodType.getReturnType();
+			boolean isVoid = returnType.getKind() == TypeKind.VOID;
+			String arguments = getArguments(methodType);
+
+			if (kind == AccessorKind.RESOURCE_ID) {
+				writer.printf("\t\treturn %s.getId(handler);%n", SUPPORT_CLASS);
+			}
+			else if (kind == AccessorKind.LINKED_RESOURCE) {
+				writer.printf("\t\treturn (%s) %s.getLinkedResource(handler, this, ACCESSOR_%d);%n",
+					getCastType(returnType), SUPPORT_CLASS, index);
+			}
+			else if (kind == AccessorKind.DISPATCHED) {
+				String invocation = String.format("%s.invoke(handler, this, ACCESSOR_%d, new Object[] {%s})",
+					SUPPORT_CLASS, index, arguments);
+				writeStatement(returnType, isVoid ? invocation : String.format("(%s) %s", getCastType(returnType),
+					invocation), true);
+			}
+			else {
+				String contentCall = String.format("((%s) %s.getContent(handler)).%s(%s)", entityName,
+					SUPPORT_CLASS, method.getSimpleName(), arguments);
+				writeStatement(returnType, contentCall, kind == AccessorKind.PROPERTY);
+			}
+
+			if (kind == AccessorKind.SETTER) {
+				writer.printf("\t\t%s.setterInvoked(handler, ACCESSOR_%d);%n", SUPPORT_CLASS, index);
+
+				if (!isVoid) {
+					writer.printf("\t\treturn result;%n");
+				}
+			}
+		}
+
+		/**
+		 * Write a statement evaluating the given expression, either returning its value or, if the method continues
+		 * after it, keeping the value in a local variable.
+		 */
+		private void writeStatement(TypeMirror returnType, String expression, boolean returns) {
+			if (returnType.getKind() == TypeKind.VOID) {
+				writer.printf("\t\t%s;%n", expression);
+			}
+			else if (returns) {
+				writer.printf("\t\treturn %s;%n", expression);
+			}
+			else {
+				writer.printf("\t\t%s result = %s;%n", returnType, expression);
+			}
+		}
+
+		/**
+		 * Get how a proxy method reaches the entity: methods that the proxy can call on the entity directly do so,
+		 * so that the JIT compiler can inline them, and the rest are dispatched through the proxy's handler.
+		 */
+		private AccessorKind getAccessorKind(ExecutableElement method) {
+			boolean hasParameters = !method.getParameters().isEmpty();
+
+			if (method.getAnnotation(ResourceId.class) != null) {
+				return hasParameters || !processingEnv.getTypeUtils().isAssignable(getUriType(),
+					method.getReturnType()) ? AccessorKind.DISPATCHED : AccessorKind.RESOURCE_ID;
+			}
+
+			if (method.getAnnotation(LinkedResource.class) != null) {
+				return hasParameters ? AccessorKind.DISPATCHED : AccessorKind.LINKED_RESOURCE;
+			}
+
+			if (!isCallableOnEntity(method)) {
+				return AccessorKind.DISPATCHED;
+			}
+
+			return method.getSimpleName().toString().startsWith("set") ? AccessorKind.SETTER : AccessorKind.PROPERTY;
+		}
+
+		private boolean isCallableOnEntity(ExecutableElement method) {
+			// protected methods inherited from another package can only be called on the proxy itself
+			return method.getModifiers().contains(Modifier.PUBLIC)
+				|| processingEnv.getElementUtils().getPackageOf(method)
+					.equals(processingEnv.getElementUtils().getPackageOf(entityType));
+		}
+
+		private TypeMirror getUriType() {
+			return processingEnv.getElementUtils().getTypeElement(URI.class.getName()).asType();
+		}
+
+		private String getParameterClasses(ExecutableElement method) {
+			StringBuilder builder = new StringBuilder();
+
+			for (TypeMirror parameterType : ((ExecutableType) method.asType()).getParameterTypes()) {
+				builder.append(", ").append(processingEnv.getTypeUtils().erasure(parameterType)).append(".class");
+			}
+
+			return builder.toString();
+		}
+
+		private String getParameters(ExecutableType methodType) {
+			StringBuilder builder = new StringBuilder();
+			List<? extends TypeMirror> parameterTypes = methodType.getParameterTypes();
+
+			for (int index = 0; index < parameterTypes.size(); index++) {
+				if (index > 0) {
+					builder.append(", ");
+				}
+
+				builder.append(parameterTypes.get(index)).append(" arg").append(index);
+			}
+
+			return builder.toString();
+		}
+
+		private String getArguments(ExecutableType methodType) {
+			StringBuilder builder = new StringBuilder();
+
+			for (int index = 0; index < methodType.getParameterTypes().size(); index++) {
+				if (index > 0) {
+					builder.append(", ");
+				}
+
+				builder.append("arg").append(index);
+			}
+
+			return builder.toString();
+		}
+
+		private String getThrowsClause(ExecutableType methodType) {
+			StringBuilder builder = new StringBuilder();
+
+			for (TypeMirror thrownType : methodType.getThrownTypes()) {
+				builder.append(builder.length() == 0 ? " throws " : ", ").append(thrownType);
+			}
+
+			return builder.toString();
+		}
+
+		private String getCastType(TypeMirror type) {
+			if (type.getKind().isPrimitive()) {
+				return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type)
+					.getQualifiedName().toString();
+			}
+
+			return type.toString();
+		}
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import uk.co.blackpepper.bowman.annotation.LinkedResource;
+import uk.co.blackpepper.bowman.annotation.RemoteResource;
+import uk.co.blackpepper.bowman.annotation.ResourceId;
+
+/**
+ * Entity whose proxy class is generated by the processor while compiling the tests.
+ */
+@RemoteResource("/entities")
+public class ProcessedEntity {
+	
+	private URI id;
+	
+	private String name;
+	
+	private int count;
+	
+	private ProcessedEntity parent;
+	
+	private List<ProcessedEntity> children = new ArrayList<>();
+	
+	@ResourceId
+	public URI getId() {
+		return id;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public void setName(String name) {
+		this.name = name;
+	}
+	
+	public int getCount() {
+		return count;
+	}
+	
+	public void setCount(int count) {
+		this.count = count;
+	}
+	
+	@LinkedResource
+	public ProcessedEntity getParent() {
+		return parent;
+	}
+	
+	public void setParent(ProcessedEntity parent) {
+		this.parent = parent;
+	}
+	
+	@LinkedResource
+	public List<ProcessedEntity> getChildren() {
+		return children;
+	}
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
+import org.springframework.hateoas.Resources;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javassist.util.proxy.ProxyFactory;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests that the proxies generated by the processor behave as the proxies generated at runtime.
+ */
+public class ProcessedProxyTest {
+
+	private static final URI ENTITY_URI = URI.create("http://www.example.com/entities/1");
+	
+	private static final URI PARENT_URI = URI.create("http://www.example.com/entities/2");
+	
+	private static final URI CHILDREN_URI = URI.create("http://www.example.com/entities/1/children");
+	
+	private RestOperations restOperations;
+	
+	private GeneratedClientProxyFactory generatedProxyFactory;
+	
+	private JavassistClientProxyFactory runtimeProxyFactory;
+	
+	@Before
+	public void setup() {
+		restOperations = mock(RestOperations.class);
+		generatedProxyFactory = new GeneratedClientProxyFactory();
+		runtimeProxyFactory = new JavassistClientProxyFactory();
+		
+		when(restOperations.getResource(ENTITY_URI, ProcessedEntity.class)).thenAnswer(
+			new Answer<Resource<ProcessedEntity>>() {
+				@Override
+				public Resource<ProcessedEntity> answer(InvocationOnMock invocation) {
+					return new Resource<>(createEntity("entity", 1), new Link(ENTITY_URI.toString(), Link.REL_SELF),
+						new Link(PARENT_URI.toString(), "parent"), new Link(CHILDREN_URI.toString(), "children"));
+				}
+			});
+		when(restOperations.getResource(PARENT_URI, ProcessedEntity.class)).thenAnswer(
+			new Answer<Resource<ProcessedEntity>>() {
+				@Override
+				public Resource<ProcessedEntity> answer(InvocationOnMock invocation) {
+					return new Resource<>(createEntity("parent", 2), new Link(PARENT_URI.toString(), Link.REL_SELF));
+				}
+			});
+		when(restOperations.getResources(CHILDREN_URI, ProcessedEntity.class)).thenAnswer(
+			new Answer<Resources<Resource<ProcessedEntity>>>() {
+				@Override
+				public Resources<Resource<ProcessedEntity>> answer(InvocationOnMock invocation) {
+					return new Resources<>(Collections.singletonList(new Resource<>(createEntity("child", 3),
+						new Link("http://www.example.com/entities/3", Link.REL_SELF))));
+				}
+			});
+	}
+	
+	@Test
+	public void generatedProxyLoadsResourceAsRuntimeProxy() {
+		ProcessedEntity generated = generatedProxyFactory.create(ENTITY_URI, ProcessedEntity.class, restOperations);
+		ProcessedEntity runtime = runtimeProxyFactory.create(ENTITY_URI, ProcessedEntity.class, restOperations);
+		
+		assertThat(generated, is(instanceOf(GeneratedProxy.class)));
+		assertThat(generated.getId(), is(runtime.getId()));
+		assertThat(generated.getName(), is(runtime.getName()));
+		assertThat(generated.getCount(), is(runtime.getCount()));
+	}
+	
+	@Test
+	public void generatedProxyResolvesLinkedResourcesAsRuntimeProxy() {
+		ProcessedEntity generated = generatedProxyFactory.create(ENTITY_URI, ProcessedEntity.class, restOperations);
+		ProcessedEntity runtime = runtimeProxyFactory.create(ENTITY_URI, ProcessedEntity.class, restOperations);
+		
+		assertThat(generated.getParent(), is(instanceOf(GeneratedProxy.class)));
+		assertThat(generated.getParent().getId(), is(runtime.getParent().getId()));
+		assertThat(generated.getParent().getName(), is(runtime.getParent().getName()));
+		assertThat(getNames(generated.getChildren()), is(getNames(runtime.getChildren())));
+		assertThat(generated.getChildren(), is(sameInstance(generated.getChildren())));
+	}
+	
+	@Test
+	public void generatedProxySetsPropertiesAsRuntimeProxy() {
+		ProcessedEntity parent = createEntity("other", 4);
+		ProcessedEntity generated = generatedProxyFactory.create(ENTITY_URI, ProcessedEntity.class, restOperations);
+		ProcessedEntity runtime = runtimeProxyFactory.create(ENTITY_URI, ProcessedEntity.class, restOperations);
+		
+		for (ProcessedEntity proxy : new ProcessedEntity[] {generated, runtime}) {
+			proxy.setName("changed");
+			proxy.setCount(5);
+			proxy.setParent(parent);
+		}
+		
+		assertThat(generated.getName(), is(runtime.getName()));
+		assertThat(generated.getCount(), is(runtime.getCount()));
+		assertThat(generated.getParent(), is(sameInstance(runtime.getParent())));
+		verify(restOperations, never()).getResource(eq(PARENT_URI), any(Class.class));
+	}
+	
+	@Test
+	public void generatedProxySerializesProperties() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.registerModule(new JacksonClientModule());
+		
+		ProcessedEntity generated = generatedProxyFactory.create(ENTITY_URI, ProcessedEntity.class, restOperations);
+		
+		assertThat(mapper.writeValueAsString(generated), is("{\"id\":\"http://www.example.com/entities/1\","
+			+ "\"name\":\"entity\",\"count\":1}"));
+	}
+	
+	@Test
+	public void createWithSkippedEntityReturnsRuntimeProxy() {
+		SkippedEntity<String> entity = new SkippedEntity<>();
+		entity.setValue("x");
+		Resource<SkippedEntity<String>> resource = new Resource<>(entity,
+			new Link("http://www.example.com/skipped/1", Link.REL_SELF));
+		
+		SkippedEntity<String> proxy = generatedProxyFactory.create(resource, restOperations);
+		
+		assertThat(proxy, is(not(instanceOf(GeneratedProxy.class))));
+		assertThat(ProxyFactory.isProxyClass(proxy.getClass()), is(true));
+		assertThat(proxy.getId(), is(URI.create("http://www.example.com/skipped/1")));
+		assertThat(proxy.getValue(), is("x"));
+	}
+	
+	private static ProcessedEntity createEntity(String name, int count) {
+		ProcessedEntity entity = new ProcessedEntity();
+		entity.setName(name);
+		entity.setCount(count);
+		return entity;
+	}
+	
+	private static List<String> getNames(List<ProcessedEntity> entities) {
+		List<String> names = new ArrayList<>();
+		
+		for (ProcessedEntity entity : entities) {
+			names.add(entity.getName());
+		}
+		
+		return names;
+	}
+}
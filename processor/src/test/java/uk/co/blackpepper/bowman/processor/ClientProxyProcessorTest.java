@@ -0,0 +1,276 @@
+/*
+ * Copyright 2016 Black Pepper Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.blackpepper.bowman.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javassist.util.proxy.Proxy;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ClientProxyProcessorTest {
+
+	private static class SourceFile extends SimpleJavaFileObject {
+
+		private final String source;
+
+		SourceFile(String className, String source) {
+			super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+			this.source = source;
+		}
+
+		@Override
+		public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+			return source;
+		}
+	}
+
+	private TemporaryFolder folder = new TemporaryFolder();
+
+	private File outputDirectory;
+
+	@Rule
+	public TemporaryFolder getFolder() {
+		return folder;
+	}
+
+	@Before
+	public void setup() throws Exception {
+		outputDirectory = folder.newFolder();
+	}
+
+	@Test
+	public void processGeneratesProxyClass() throws Exception {
+		boolean result = compile("test.Entity", "package test;\n"
+			+ "@uk.co.blackpepper.bowman.annotation.RemoteResource(\"/entities\")\n"
+			+ "public class Entity {\n"
+			+ "  private java.util.List<Entity> linked;\n"
+			+ "  private boolean active;\n"
+			+ "  @uk.co.blackpepper.bowman.annotation.ResourceId public java.net.URI getId() { return null; }\n"
+			+ "  @uk.co.blackpepper.bowman.annotation.LinkedResource\n"
+			+ "  public java.util.List<Entity> getLinked() { return linked; }\n"
+			+ "  public boolean isActive() { return active; }\n"
+			+ "  public void setActive(boolean active) { this.active = active; }\n"
+			+ "}\n");
+
+		assertThat(result, is(true));
+
+		Class<?> proxyClass = loadClass("test.EntityBowmanProxy");
+
+		assertThat(proxyClass.getSuperclass().getName(), is("test.Entity"));
+		assertThat(Proxy.class.isAssignableFrom(proxyClass), is(true));
+	}
+
+	@Test
+	public void processGeneratesProxyClassForStaticNestedClass() throws Exception {
+		boolean result = compile("test.Outer", "package test;\n"
+			+ "public class Outer {\n"
+			+ "  @uk.co.blackpepper.bowman.annotation.RemoteResource(\"/entities\")\n"
+			+ "  public static class Entity {\n"
+			+ "    public String getName() { return null; }\n"
+			+ "  }\n"
+			+ "}\n");
+
+		assertThat(result, is(true));
+
+		Class<?> proxyClass = loadClass("test.Outer_EntityBowmanProxy");
+
+		assertThat(proxyClass.getSuperclass().getName(), is("test.Outer$Entity"));
+	}
+
+	@Test
+	public void processSkipsFinalClass() throws Exception {
+		boolean result = compile("test.Entity", "package test;\n"
+			+ "@uk.co.blackpepper.bowman.annotation.RemoteResource(\"/entities\")\n"
+			+ "public final class Entity {\n"
+			+ "  public String getName() { return null; }\n"
+			+ "}\n");
+
+		assertThat(result, is(true));
+		assertThat(new File(outputDirectory, "test/EntityBowmanProxy.class").exists(), is(false));
+	}
+
+	@Test
+	public void processGeneratesProxyMethodsWithParametersAndThrownTypes() throws Exception {
+		boolean result = compile("test.Entity", "package test;\n"
+			+ "@uk.co.blackpepper.bowman.annotation.RemoteResource(\"/entities\")\n"
+			+ "public class Entity {\n"
+			+ "  protected void setRange(int from, int to) throws java.io.IOException { }\n"
+			+ "  String getCode() { return null; }\n"
+			+ "  public static String getStatic() { return null; }\n"
+			+ "  private String getPrivate() { return null; }\n"
+			+ "}\n");
+
+		assertThat(result, is(true));
+
+		Class<?> proxyClass = loadClass("test.EntityBowmanProxy");
+		Method setRange = proxyClass.getDeclaredMethod("setRange", int.class, int.class);
+
+		assertThat(Modifier.isProtected(setRange.getModifiers()), is(true));
+		assertThat(setRange.getExceptionTypes(), is(new Class<?>[] {IOException.class}));
+		assertThat(proxyClass.getDeclaredMethod("getCode").getDeclaringClass(), is((Object) proxyClass));
+		assertThat(hasDeclaredMethod(proxyClass, "getStatic"), is(false));
+		assertThat(hasDeclaredMethod(proxyClass, "getPrivate"), is(false));
+	}
+
+	@Test
+	public void processGeneratesDispatchedMethodsForAccessorsNotCallableOnEntity() throws Exception {
+		boolean result = compile(new SourceFile("base.Base", "package base;\n"
+			+ "public class Base {\n"
+			+ "  protected String getCode() { return null; }\n"
+			+ "}\n"), new SourceFile("test.Entity", "package test;\n"
+			+ "@uk.co.blackpepper.bowman.annotation.RemoteResource(\"/entities\")\n"
+			+ "public class Entity extends base.Base {\n"
+			+ "  @uk.co.blackpepper.bowman.annotation.ResourceId public String getId() { return null; }\n"
+			+ "  public Entity setName(String name) { return this; }\n"
+			+ "}\n"));
+
+		assertThat(result, is(true));
+
+		Class<?> proxyClass = loadClass("test.EntityBowmanProxy");
+
+		assertThat(countDeclaredMethods(proxyClass, "bowman$proceed"), is(2));
+		assertThat(proxyClass.getDeclaredMethod("setName", String.class).getReturnType().getName(),
+			is("test.Entity"));
+	}
+
+	@Test
+	public void processSkipsAbstractClass() throws Exception {
+		assertSkipped("test.Entity", "package test;\n"
+			+ "@uk.co.blackpepper.bowman.annotation.RemoteResource(\"/entities\")\n"
+			+ "public abstract class Entity {\n"
+			+ "}\n", "test/EntityBowmanProxy.class");
+	}
+
+	@Test
+	public void processSkipsGenericClass() throws Exception {
+		assertSkipped("test.Entity", "package test;\n"
+			+ "@uk.co.blackpepper.bowman.annotation.RemoteResource(\"/entities\")\n"
+			+ "public class Entity<T> {\n"
+			+ "}\n", "test/EntityBowmanProxy.class");
+	}
+
+	@Test
+	public void processSkipsPrivateNestedClass() throws Exception {
+		assertSkipped("test.Outer", "package test;\n"
+			+ "public class Outer {\n"
+			+ "  @uk.co.blackpepper.bowman.annotation.RemoteResource(\"/entities\")\n"
+			+ "  private static class Entity {\n"
+			+ "  }\n"
+			+ "}\n", "test/Outer_EntityBowmanProxy.class");
+	}
+
+	@Test
+	public void processSkipsInnerClass() throws Exception {
+		assertSkipped("test.Outer", "package test;\n"
+			+ "public class Outer {\n"
+			+ "  @uk.co.blackpepper.bowman.annotation.RemoteResource(\"/entities\")\n"
+			+ "  public class Entity {\n"
+			+ "  }\n"
+			+ "}\n", "test/Outer_EntityBowmanProxy.class");
+	}
+
+	@Test
+	public void processSkipsClassWithoutNoArgumentConstructor() throws Exception {
+		assertSkipped("test.Entity", "package test;\n"
+			+ "@uk.co.blackpepper.bowman.annotation.RemoteResource(\"/entities\")\n"
+			+ "public class Entity {\n"
+			+ "  public Entity(String name) { }\n"
+			+ "}\n", "test/EntityBowmanProxy.class");
+	}
+
+	@Test
+	public void processSkipsClassWithGenericMethod() throws Exception {
+		assertSkipped("test.Entity", "package test;\n"
+			+ "@uk.co.blackpepper.bowman.annotation.RemoteResource(\"/entities\")\n"
+			+ "public class Entity {\n"
+			+ "  public <T> T getValue() { return null; }\n"
+			+ "}\n", "test/EntityBowmanProxy.class");
+	}
+
+	private void assertSkipped(String className, String source, String proxyClassFile) throws Exception {
+		assertThat(compile(className, source), is(true));
+		assertThat(new File(outputDirectory, proxyClassFile).exists(), is(false));
+	}
+
+	private static boolean hasDeclaredMethod(Class<?> type, String name) {
+		for (Method method : type.getDeclaredMethods()) {
+			if (method.getName().equals(name)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static int countDeclaredMethods(Class<?> type, String namePrefix) {
+		int count = 0;
+
+		for (Method method : type.getDeclaredMethods()) {
+			if (method.getName().startsWith(namePrefix)) {
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	private boolean compile(String className, String source) throws Exception {
+		return compile(new SourceFile(className, source));
+	}
+
+	private boolean compile(SourceFile... sources) throws Exception {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+		try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+			JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+				Arrays.asList("-d", outputDirectory.getPath(), "-s", outputDirectory.getPath()), null,
+				Arrays.asList(sources));
+			task.setProcessors(Collections.singletonList(new ClientProxyProcessor()));
+
+			return task.call();
+		}
+	}
+
+	private Class<?> loadClass(String className) throws Exception {
+		ClassLoader classLoader = new URLClassLoader(new URL[] {outputDirectory.toURI().toURL()},
+			getClass().getClassLoader());
+
+		return Class.forName(className, false, classLoader);
+	}
+}
@@ -21,10 +21,12 @@ import org.junit.Before;
 import org.junit.Test;
 
 import uk.co.blackpepper.bowman.Client;
+import uk.co.blackpepper.bowman.ClientSession;
 import uk.co.blackpepper.bowman.test.client.BidiChildEntity;
 import uk.co.blackpepper.bowman.test.client.BidiParentEntity;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 public class BidiIT extends AbstractIT {
@@ -67,4 +69,18 @@ public class BidiIT extends AbstractIT {
 		BidiParentEntity retrieved = parentClient.get(location);
 		assertThat(retrieved.getChildren().iterator().next().getName(), is("x"));
 	}
+	
+	@Test
+	public void canGetParentAssociationAsSameInstanceInSession() {
+		BidiParentEntity parent = new BidiParentEntity();
+		URI location = parentClient.post(parent);
+		
+		BidiChildEntity child = new BidiChildEntity();
+		child.setParent(parent);
+		childClient.post(child);
+		
+		ClientSession session = clientFactory.createSession();
+		BidiParentEntity retrieved = session.create(BidiParentEntity.class).get(location);
+		assertThat(retrieved.getChildren().iterator().next().getParent(), is(sameInstance(retrieved)));
+	}
 }